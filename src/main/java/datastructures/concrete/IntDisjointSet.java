@@ -0,0 +1,84 @@
+package datastructures.concrete;
+
+/**
+ * A disjoint set over the integers 0 to size - 1.
+ *
+ * Unlike ArrayDisjointSet, items are their own ids, so there is no dictionary
+ * lookup and no boxing. This makes it suitable for very large union-find
+ * sweeps where the caller has already numbered its items.
+ */
+public class IntDisjointSet {
+    // Either the index of the parent, or a rank stored as `(rank * -1) - 1`
+    private int[] pointers;
+
+    /**
+     * Creates 'size' singleton sets, one for each of the integers 0 to size - 1.
+     *
+     * @throws IllegalArgumentException  if size is negative
+     */
+    public IntDisjointSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.pointers = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.pointers[i] = -1;
+        }
+    }
+
+    /**
+     * Returns the number of items in this disjoint set.
+     */
+    public int size() {
+        return this.pointers.length;
+    }
+
+    /**
+     * Returns the representative of the set containing the given item.
+     *
+     * @throws IndexOutOfBoundsException  if the item is not between 0 and size - 1
+     */
+    public int findSet(int item) {
+        int root = item;
+        while (this.pointers[root] >= 0) {
+            root = this.pointers[root];
+        }
+
+        // Path compression: point everything we passed directly at the root
+        while (item != root) {
+            int next = this.pointers[item];
+            this.pointers[item] = root;
+            item = next;
+        }
+        return root;
+    }
+
+    /**
+     * Combines the sets containing the two items.
+     *
+     * Returns 'false' (and does nothing) if the two items were already in the
+     * same set, and 'true' otherwise.
+     *
+     * @throws IndexOutOfBoundsException  if either item is not between 0 and size - 1
+     */
+    public boolean union(int item1, int item2) {
+        int root1 = this.findSet(item1);
+        int root2 = this.findSet(item2);
+        if (root1 == root2) {
+            return false;
+        }
+
+        // Ranks are negative, so the larger value is the shallower tree
+        int rank1 = this.pointers[root1];
+        int rank2 = this.pointers[root2];
+        if (rank1 > rank2) {
+            this.pointers[root1] = root2;
+        } else if (rank1 < rank2) {
+            this.pointers[root2] = root1;
+        } else {
+            this.pointers[root2] = root1;
+            this.pointers[root1]--;
+        }
+        return true;
+    }
+}
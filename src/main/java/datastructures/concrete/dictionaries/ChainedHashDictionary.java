@@ -42,7 +42,8 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
     // Gives correct hash code
     private int getHashCode(K key) {
         if (key != null) {
-            return Math.abs(key.hashCode()) % this.capacity;
+            // Math.abs(Integer.MIN_VALUE) is negative, so take the remainder first
+            return Math.abs(key.hashCode() % this.capacity);
         } else {
             return 0;
         }
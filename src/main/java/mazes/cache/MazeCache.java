@@ -0,0 +1,331 @@
+package mazes.cache;
+
+import mazes.entities.CarvedMaze;
+import mazes.entities.GridMaze;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.generators.base.BaseMazeGenerator;
+import mazes.generators.maze.MazeCarver;
+import mazes.io.MazeReader;
+import mazes.io.MazeWriter;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Remembers generated mazes, so asking for the same maze twice only generates it once.
+ *
+ * Mazes are identified by what produced them: the generator, the carver, the bounding
+ * box and the seed. Generators and carvers are told apart by their toString(), which
+ * must describe every parameter that affects the mazes they produce (all of the ones
+ * in this project do).
+ *
+ * Up to 'maxBytes' worth of mazes (estimated) are kept in memory, evicting the least
+ * recently used ones first. If given a directory, every maze is also written there
+ * (see MazeWriter), named by a hash of its description, so it outlives both eviction
+ * and the process. Grid mazes are written in the compact grid format, so they're read
+ * back as GridMazes; other mazes are read back as plain Mazes. A maze that can't be
+ * written is still returned and kept in memory (see getWriteFailures()).
+ *
+ * The cache may be used from several threads at once, and so may the mazes it returns.
+ */
+public class MazeCache {
+    private long maxBytes;
+    private Path directory;
+
+    // In access order, so the first entry is always the least recently used
+    private LinkedHashMap<String, Entry> entries;
+    private long currentBytes;
+
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+    private long writeFailures;
+
+    /**
+     * Creates a cache that only keeps mazes in memory.
+     */
+    public MazeCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Creates a cache that keeps mazes in memory and also stores them in the given directory.
+     *
+     * @throws IllegalArgumentException  if maxBytes is negative
+     */
+    public MazeCache(long maxBytes, Path directory) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.currentBytes = 0;
+    }
+
+    /**
+     * Returns the maze generator.generateBaseMaze(boundingBox, seed) would return,
+     * generating it only if it isn't already cached.
+     */
+    public Maze generateBaseMaze(BaseMazeGenerator generator, Rectangle boundingBox, long seed) {
+        String key = String.format("%s %s %d", describe(generator), describe(boundingBox), seed);
+        return this.get(key, () -> generator.generateBaseMaze(boundingBox, seed));
+    }
+
+    /**
+     * Returns a maze generated by the given generator and then carved by the given carver,
+     * generating it only if it isn't already cached.
+     *
+     * The base maze comes from generateBaseMaze(generator, boundingBox, seed). The carver's
+     * seed is carverSeed(seed), so the result depends only on the arguments.
+     */
+    public Maze generateMaze(BaseMazeGenerator generator, MazeCarver carver, Rectangle boundingBox, long seed) {
+        String key = String.format("%s %s %s %d", describe(generator), describe(carver), describe(boundingBox), seed);
+        return this.get(key, () -> {
+            Maze base = this.generateBaseMaze(generator, boundingBox, seed);
+            return carver.generateMaze(base, carverSeed(seed));
+        });
+    }
+
+    /**
+     * Returns the seed generateMaze(...) passes to the carver for the given maze seed.
+     * Anything that carves mazes outside the cache but must produce the same ones (such
+     * as MazeRenderer) should derive its carver seed with this too.
+     */
+    public static long carverSeed(long seed) {
+        return new SplittableRandom(seed).split().nextLong();
+    }
+
+    /**
+     * Returns how many mazes were found in memory.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns how many mazes were not in memory but were read back from the directory.
+     */
+    public synchronized long getDiskHits() {
+        return this.diskHits;
+    }
+
+    /**
+     * Returns how many mazes had to be generated.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns how many mazes were dropped from memory to make room for others.
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns how many mazes couldn't be written to the directory, and so were only
+     * kept in memory.
+     */
+    public synchronized long getWriteFailures() {
+        return this.writeFailures;
+    }
+
+    /**
+     * Returns the estimated size of the mazes currently held in memory, in bytes.
+     */
+    public synchronized long getCurrentBytes() {
+        return this.currentBytes;
+    }
+
+    private Maze get(String key, Supplier<Maze> generator) {
+        synchronized (this) {
+            Entry entry = this.entries.get(key);
+            if (entry != null) {
+                this.hits++;
+                return entry.maze;
+            }
+        }
+
+        // Mazes are generated (or read) outside the lock, so one slow maze doesn't
+        // hold up requests for others. Two threads asking for the same new maze at
+        // once may both generate it; they get equal mazes either way.
+        Path file = this.directory == null ? null : this.directory.resolve(hash(key) + ".maze");
+        Maze maze = file == null ? null : readMaze(file);
+        boolean fromDisk = maze != null;
+        boolean written = true;
+        if (!fromDisk) {
+            maze = generator.get();
+            if (file != null) {
+                written = writeMaze(file, maze);
+            }
+        }
+
+        synchronized (this) {
+            if (!written) {
+                this.writeFailures++;
+            }
+            if (fromDisk) {
+                this.diskHits++;
+            } else {
+                this.misses++;
+            }
+            this.put(key, maze);
+        }
+        return maze;
+    }
+
+    private void put(String key, Maze maze) {
+        long bytes = estimateBytes(maze);
+        Entry old = this.entries.put(key, new Entry(maze, bytes));
+        if (old != null) {
+            this.currentBytes -= old.bytes;
+        }
+        this.currentBytes += bytes;
+
+        // A maze larger than the whole cache is evicted straight away
+        Iterator<Map.Entry<String, Entry>> iter = this.entries.entrySet().iterator();
+        while (this.currentBytes > this.maxBytes && iter.hasNext()) {
+            this.currentBytes -= iter.next().getValue().bytes;
+            iter.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     * Returns a rough estimate of how many bytes of heap the maze occupies.
+     */
+    static long estimateBytes(Maze maze) {
+        if (maze instanceof GridMaze) {
+            // Rooms, walls and room lookups are all computed on demand; only the
+            // open-wall bits are stored
+            return 64 + maze.numWallIds() / 8;
+        } else if (maze instanceof CarvedMaze) {
+            // Only the present-wall bits: the base is shared by every variant carved
+            // from it, and generateMaze(...) caches it as an entry of its own
+            return 64 + maze.numWallIds() / 8;
+        }
+
+        long bytes = 64;
+        for (Room room : maze.getRooms()) {
+            // Room, Point and Polygon objects, plus the two vertex arrays
+            bytes += 112 + 8L * room.getPolygon().npoints;
+        }
+        // Wall, LineSegment and two Points, plus the hash set's node
+        bytes += 136L * (maze.getWalls().size() + maze.getUntouchableWalls().size());
+
+        // The wall numbering (a table slot, dictionary entry and boxed id per removable
+        // wall) and the index behind getRoom(Point) are built on first use, and then
+        // kept as long as the maze is. Carving a base maze numbers its walls and drawing
+        // or solving a maze builds the index, so they're counted whether or not they've
+        // been built yet, rather than have the entry grow once it's in the cache.
+        bytes += 72L * maze.getWalls().size();
+        bytes += 24L * maze.getRooms().size();
+        return bytes;
+    }
+
+    private static String describe(Object parameters) {
+        String description = parameters.toString();
+        if (description.equals(parameters.getClass().getName() + "@" + Integer.toHexString(parameters.hashCode()))) {
+            throw new IllegalArgumentException(
+                    parameters.getClass().getName() + " must override toString() to describe its parameters");
+        }
+        return description;
+    }
+
+    private static String describe(Rectangle boundingBox) {
+        return String.format("[%d, %d, %d, %d]", boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height);
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder output = new StringBuilder();
+            for (byte b : digest) {
+                output.append(String.format("%02x", b));
+            }
+            return output.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Reads a maze written by writeMaze(...), or returns null if there is no such
+     * file or it can't be read.
+     */
+    private static Maze readMaze(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return MazeReader.read(file);
+        } catch (IOException ex) {
+            // A damaged (or outdated) file just means the maze is generated again
+            return null;
+        }
+    }
+
+    /**
+     * Writes the maze under a temporary name and then moves it into place, so
+     * readers never see a half-written maze.
+     *
+     * Returns false, leaving nothing behind, if the maze couldn't be written: a full
+     * disk or an unwritable directory only costs the disk tier, not the maze.
+     */
+    private static boolean writeMaze(Path file, Maze maze) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "maze", ".tmp");
+            if (maze instanceof GridMaze) {
+                MazeWriter.writeGrid((GridMaze) maze, temp);
+            } else {
+                MazeWriter.write(maze, temp);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                // A reader may then catch the file half-moved, but a file that can't
+                // be read just means the maze is generated again
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException ex) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException deleteFailure) {
+                    // Nothing more can be done; the write has already failed
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Entry {
+        public final Maze maze;
+        public final long bytes;
+
+        public Entry(Maze maze, long bytes) {
+            this.maze = maze;
+            this.bytes = bytes;
+        }
+    }
+}
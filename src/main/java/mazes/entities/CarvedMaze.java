@@ -0,0 +1,91 @@
+package mazes.entities;
+
+import datastructures.interfaces.ISet;
+
+import java.awt.*;
+
+/**
+ * A maze made by removing walls from a base maze, stored as just a reference
+ * to the base maze plus one bit per wall saying whether it is still present.
+ *
+ * The rooms, untouchable walls and wall numbering all come from the base maze,
+ * so any number of carved variants of one base maze can share it. getWalls()
+ * is a read-only view over the bits rather than a copy.
+ *
+ * Carvers expect a maze with every wall present, so a CarvedMaze should not
+ * itself be handed to a carver as a base maze.
+ */
+public class CarvedMaze extends Maze {
+    private Maze base;
+    private WallBitSet presentWalls;
+
+    // Created on first use; two threads may both create it, and either view will do
+    private volatile ISet<Wall> walls;
+
+    /**
+     * @param base  the maze whose walls are numbered by 'presentWalls'; if it is itself
+     *              a CarvedMaze, its own base is used (the numbering is the same)
+     * @param presentWalls  the ids of the base maze's walls that are still present
+     * @throws IllegalArgumentException  if presentWalls is not sized for the base maze's numbering
+     */
+    public CarvedMaze(Maze base, WallBitSet presentWalls) {
+        if (base instanceof CarvedMaze) {
+            base = ((CarvedMaze) base).base;
+        }
+        if (presentWalls.size() != base.numWallIds()) {
+            throw new IllegalArgumentException();
+        }
+        this.base = base;
+        this.presentWalls = presentWalls;
+    }
+
+    /**
+     * Returns the maze this one was carved from.
+     */
+    public Maze getBase() {
+        return this.base;
+    }
+
+    @Override
+    public ISet<Room> getRooms() {
+        return this.base.getRooms();
+    }
+
+    @Override
+    public ISet<Wall> getWalls() {
+        if (this.walls == null) {
+            this.walls = new WallSetView(this.base, this.presentWalls);
+        }
+        return this.walls;
+    }
+
+    @Override
+    public ISet<Wall> getUntouchableWalls() {
+        return this.base.getUntouchableWalls();
+    }
+
+    @Override
+    public int numWallIds() {
+        return this.base.numWallIds();
+    }
+
+    @Override
+    public Wall getWall(int wallId) {
+        return this.base.getWall(wallId);
+    }
+
+    @Override
+    public int getWallId(Wall wall) {
+        return this.base.getWallId(wall);
+    }
+
+    @Override
+    public WallBitSet getPresentWalls() {
+        return this.presentWalls;
+    }
+
+    @Override
+    public Room getRoom(Point point) {
+        return this.base.getRoom(point);
+    }
+}
@@ -0,0 +1,64 @@
+package mazes.entities;
+
+import java.awt.*;
+import java.util.function.IntFunction;
+
+/**
+ * For each cell of a uniform grid, the list of numbered items filed under it, stored
+ * CSR-style in two int arrays: the items of cell c are getItem(getStart(c)) up to, but
+ * not including, getItem(getStart(c + 1)), in increasing order.
+ *
+ * Cells are numbered row * numColumns + column. This is the storage shared by the
+ * spatial indexes over rooms (RoomGrid) and walls (WallIndex); each decides for itself
+ * how large its cells are and which cells an item overlaps.
+ */
+public class CellLists {
+    private final int[] starts;
+    private final int[] items;
+
+    /**
+     * Files each item 0 to numItems - 1 under every cell in the range cellRanges returns
+     * for it: columns x to x + width and rows y to y + height, inclusive. The function is
+     * called twice per item, once to count and once to fill.
+     */
+    public CellLists(int numColumns, int numRows, int numItems, IntFunction<Rectangle> cellRanges) {
+        int numCells = numColumns * numRows;
+
+        // Count each cell's items, turn the counts into offsets, then fill
+        this.starts = new int[numCells + 1];
+        for (int item = 0; item < numItems; item++) {
+            Rectangle cells = cellRanges.apply(item);
+            for (int row = cells.y; row <= cells.y + cells.height; row++) {
+                for (int column = cells.x; column <= cells.x + cells.width; column++) {
+                    this.starts[row * numColumns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < numCells; cell++) {
+            this.starts[cell + 1] += this.starts[cell];
+        }
+        int[] next = new int[numCells];
+        System.arraycopy(this.starts, 0, next, 0, numCells);
+        this.items = new int[this.starts[numCells]];
+        for (int item = 0; item < numItems; item++) {
+            Rectangle cells = cellRanges.apply(item);
+            for (int row = cells.y; row <= cells.y + cells.height; row++) {
+                for (int column = cells.x; column <= cells.x + cells.width; column++) {
+                    this.items[next[row * numColumns + column]++] = item;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the first item of the given cell; passing the number of
+     * cells returns the total number of entries.
+     */
+    public int getStart(int cell) {
+        return this.starts[cell];
+    }
+
+    public int getItem(int position) {
+        return this.items[position];
+    }
+}
@@ -0,0 +1,336 @@
+package mazes.entities;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+
+import java.awt.*;
+
+/**
+ * A grid maze stored implicitly: rooms are identified by their (x, y) cell and
+ * walls by which of them are open, so the whole maze is just one bit per wall.
+ *
+ * Room and Wall objects are only created when a caller asks for them: getRooms()
+ * and getWalls() are views that create each one as it is iterated over, and
+ * nothing is kept afterwards. Code that only works with cells and wall ids never
+ * pays for them, and even code that does never holds more than a few at once.
+ *
+ * Rooms are numbered y * numColumns + x. Walls are numbered as follows: first
+ * the wall east of every cell that has an east neighbor, row by row; then the
+ * wall south of every cell that has a south neighbor, row by row.
+ *
+ * The geometry of the rooms and walls is exactly the same as GridGenerator
+ * used to build, so the materialized objects are equal to the old ones.
+ */
+public class GridMaze extends Maze {
+    private int numRows;
+    private int numColumns;
+    private Rectangle boundingBox;
+    private double xDelta;
+    private double yDelta;
+
+    // A wall's bit is set if it has been removed. The east walls come first,
+    // so the two halves are the east and south openings respectively.
+    private WallBitSet openWalls;
+
+    // Created on first use; two threads may both create it, and either view will do
+    private volatile ISet<Wall> walls;
+
+    /**
+     * Creates a grid maze with every wall present.
+     *
+     * @throws IllegalArgumentException  if numRows or numColumns is not positive
+     */
+    public GridMaze(int numRows, int numColumns, Rectangle boundingBox) {
+        this(numRows, numColumns, boundingBox, null);
+    }
+
+    private GridMaze(int numRows, int numColumns, Rectangle boundingBox, WallBitSet openWalls) {
+        if (numRows <= 0 || numColumns <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.boundingBox = new Rectangle(boundingBox);
+        this.xDelta = 1.0 * boundingBox.width / numColumns;
+        this.yDelta = 1.0 * boundingBox.height / numRows;
+        this.openWalls = openWalls == null ? new WallBitSet(this.numWallIds()) : openWalls;
+    }
+
+    public int getNumRows() {
+        return this.numRows;
+    }
+
+    public int getNumColumns() {
+        return this.numColumns;
+    }
+
+    public Rectangle getBoundingBox() {
+        return new Rectangle(this.boundingBox);
+    }
+
+    /**
+     * Returns the number of rooms; rooms are numbered 0 to numRooms() - 1.
+     */
+    public int numRooms() {
+        return this.numRows * this.numColumns;
+    }
+
+    /**
+     * Returns the number of walls between rooms, open or not; walls are
+     * numbered 0 to numWallIds() - 1.
+     */
+    @Override
+    public int numWallIds() {
+        return this.numEastWalls() + (this.numRows - 1) * this.numColumns;
+    }
+
+    private int numEastWalls() {
+        return this.numRows * (this.numColumns - 1);
+    }
+
+    public int roomId(int x, int y) {
+        return y * this.numColumns + x;
+    }
+
+    public int roomX(int roomId) {
+        return roomId % this.numColumns;
+    }
+
+    public int roomY(int roomId) {
+        return roomId / this.numColumns;
+    }
+
+    /**
+     * Returns the id of the wall east of cell (x, y), which must not be in the last column.
+     */
+    public int eastWallId(int x, int y) {
+        return y * (this.numColumns - 1) + x;
+    }
+
+    /**
+     * Returns the id of the wall south of cell (x, y), which must not be in the last row.
+     */
+    public int southWallId(int x, int y) {
+        return this.numEastWalls() + y * this.numColumns + x;
+    }
+
+    /**
+     * Returns true if the given wall runs between two horizontally adjacent rooms.
+     */
+    public boolean isEastWall(int wallId) {
+        return wallId < this.numEastWalls();
+    }
+
+    /**
+     * Returns the room west of (or above) the given wall.
+     */
+    public int getWallRoom1(int wallId) {
+        if (this.isEastWall(wallId)) {
+            int x = wallId % (this.numColumns - 1);
+            int y = wallId / (this.numColumns - 1);
+            return this.roomId(x, y);
+        }
+        return wallId - this.numEastWalls();
+    }
+
+    /**
+     * Returns the room east of (or below) the given wall.
+     */
+    public int getWallRoom2(int wallId) {
+        if (this.isEastWall(wallId)) {
+            return this.getWallRoom1(wallId) + 1;
+        }
+        return wallId - this.numEastWalls() + this.numColumns;
+    }
+
+    /**
+     * Returns true if the given wall has been removed.
+     */
+    public boolean isOpen(int wallId) {
+        return this.openWalls.get(wallId);
+    }
+
+    public boolean isEastOpen(int x, int y) {
+        return this.openWalls.get(this.eastWallId(x, y));
+    }
+
+    public boolean isSouthOpen(int x, int y) {
+        return this.openWalls.get(this.southWallId(x, y));
+    }
+
+    /**
+     * Returns a copy of this maze with every wall in the given set opened as
+     * well. This maze is not modified.
+     *
+     * @throws IllegalArgumentException  if the set is not sized for numWallIds()
+     */
+    public GridMaze withOpenings(WallBitSet wallIds) {
+        return new GridMaze(this.numRows, this.numColumns, this.boundingBox, this.openWalls.or(wallIds));
+    }
+
+    @Override
+    public WallBitSet getPresentWalls() {
+        return WallBitSet.allSet(this.numWallIds()).andNot(this.openWalls);
+    }
+
+    /**
+     * Returns the x coordinate of the left edge of column x. Passing numColumns
+     * returns the right edge of the last column.
+     */
+    public int getColumnEdge(int x) {
+        return this.xMin(x);
+    }
+
+    /**
+     * Returns the y coordinate of the top edge of row y. Passing numRows returns
+     * the bottom edge of the last row.
+     */
+    public int getRowEdge(int y) {
+        return this.yMin(y);
+    }
+
+    private int xMin(int x) {
+        return (int) Math.round(x * this.xDelta + this.boundingBox.x);
+    }
+
+    private int yMin(int y) {
+        return (int) Math.round(y * this.yDelta + this.boundingBox.y);
+    }
+
+    /**
+     * Returns a new Room object for cell (x, y).
+     */
+    public Room getRoom(int x, int y) {
+        int xMin = this.xMin(x);
+        int xMax = this.xMin(x + 1);
+        int yMin = this.yMin(y);
+        int yMax = this.yMin(y + 1);
+
+        Point center = new Point(
+                (int) Math.round((xMin + xMax) / 2.0),
+                (int) Math.round((yMin + yMax) / 2.0));
+        Polygon polygon = new Polygon(
+                new int[]{xMin, xMax, xMax, xMin},
+                new int[]{yMin, yMin, yMax, yMax},
+                4);
+        return new Room(center, polygon);
+    }
+
+    /**
+     * Returns a new Room object for the given room id.
+     */
+    public Room getRoom(int roomId) {
+        return this.getRoom(this.roomX(roomId), this.roomY(roomId));
+    }
+
+    /**
+     * Returns a new Wall object for the given wall id, whether or not it is open.
+     */
+    @Override
+    public Wall getWall(int wallId) {
+        int room1 = this.getWallRoom1(wallId);
+        int x = this.roomX(room1);
+        int y = this.roomY(room1);
+        Room west = this.getRoom(x, y);
+
+        // Matches GridGenerator: the wall belongs to the room east of (or
+        // below) it, and lies along that room's west (or north) edge
+        if (this.isEastWall(wallId)) {
+            Room east = this.getRoom(x + 1, y);
+            int[] xs = east.getPolygon().xpoints;
+            int[] ys = east.getPolygon().ypoints;
+            return new Wall(east, west, new LineSegment(new Point(xs[3], ys[3]), new Point(xs[0], ys[0])));
+        } else {
+            Room south = this.getRoom(x, y + 1);
+            int[] xs = south.getPolygon().xpoints;
+            int[] ys = south.getPolygon().ypoints;
+            return new Wall(south, west, new LineSegment(new Point(xs[0], ys[0]), new Point(xs[1], ys[1])));
+        }
+    }
+
+    /**
+     * Returns the id of the given wall, or -1 if it isn't a wall of this maze.
+     */
+    @Override
+    public int getWallId(Wall wall) {
+        int room1 = this.getRoomId(wall.getRoom1().getCenter());
+        int room2 = this.getRoomId(wall.getRoom2().getCenter());
+        if (room1 < 0 || room2 < 0) {
+            return -1;
+        }
+        int first = Math.min(room1, room2);
+        int second = Math.max(room1, room2);
+        int x = this.roomX(first);
+        int y = this.roomY(first);
+        if (second == first + 1 && x < this.numColumns - 1) {
+            return this.eastWallId(x, y);
+        } else if (second == first + this.numColumns) {
+            return this.southWallId(x, y);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of the room containing the given point, or -1 if the
+     * point is outside the maze.
+     */
+    public int getRoomId(Point point) {
+        int x = this.findCell(point.x, this.boundingBox.x, this.xDelta, this.numColumns, true);
+        int y = this.findCell(point.y, this.boundingBox.y, this.yDelta, this.numRows, false);
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        return this.roomId(x, y);
+    }
+
+    // Cell i spans [min(i), min(i + 1)), where the bounds are rounded just as
+    // they are in getRoom(); the first guess may be one off because of that
+    private int findCell(int coordinate, int origin, double delta, int count, boolean horizontal) {
+        int cell = (int) Math.floor((coordinate - origin) / delta);
+        cell = Math.max(0, Math.min(count - 1, cell));
+        int min = horizontal ? this.xMin(cell) : this.yMin(cell);
+        int max = horizontal ? this.xMin(cell + 1) : this.yMin(cell + 1);
+        if (coordinate < min) {
+            cell--;
+        } else if (coordinate >= max) {
+            cell++;
+        }
+        if (cell < 0 || cell >= count) {
+            return -1;
+        }
+        return cell;
+    }
+
+    @Override
+    public Room getRoom(Point point) {
+        int roomId = this.getRoomId(point);
+        return roomId < 0 ? null : this.getRoom(roomId);
+    }
+
+    /**
+     * Returns a read-only view of every room, in room id order.
+     */
+    @Override
+    public ISet<Room> getRooms() {
+        return new GridRoomSetView(this);
+    }
+
+    /**
+     * Returns a read-only view of the walls that are still present.
+     */
+    @Override
+    public ISet<Wall> getWalls() {
+        if (this.walls == null) {
+            this.walls = new WallSetView(this, this.getPresentWalls());
+        }
+        return this.walls;
+    }
+
+    /**
+     * Grid mazes never have any untouchable walls.
+     */
+    @Override
+    public ISet<Wall> getUntouchableWalls() {
+        return new ChainedHashSet<>();
+    }
+}
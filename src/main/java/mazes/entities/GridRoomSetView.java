@@ -0,0 +1,64 @@
+package mazes.entities;
+
+import datastructures.interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only ISet of every room in a GridMaze. Nothing is stored: each Room is
+ * created as it is iterated over, and membership is decided by arithmetic.
+ */
+class GridRoomSetView implements ISet<Room> {
+    private final GridMaze maze;
+
+    public GridRoomSetView(GridMaze maze) {
+        this.maze = maze;
+    }
+
+    @Override
+    public void add(Room item) {
+        throw new UnsupportedOperationException("This set of rooms is read-only");
+    }
+
+    @Override
+    public void remove(Room item) {
+        throw new UnsupportedOperationException("This set of rooms is read-only");
+    }
+
+    @Override
+    public boolean contains(Room item) {
+        if (item == null) {
+            return false;
+        }
+        int roomId = this.maze.getRoomId(item.getCenter());
+        return roomId >= 0 && this.maze.getRoom(roomId).equals(item);
+    }
+
+    @Override
+    public int size() {
+        return this.maze.numRooms();
+    }
+
+    @Override
+    public Iterator<Room> iterator() {
+        return new RoomIterator();
+    }
+
+    private class RoomIterator implements Iterator<Room> {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < GridRoomSetView.this.maze.numRooms();
+        }
+
+        @Override
+        public Room next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return GridRoomSetView.this.maze.getRoom(this.next++);
+        }
+    }
+}
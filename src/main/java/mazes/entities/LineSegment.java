@@ -37,6 +37,20 @@ public class LineSegment {
                 (int) Math.round((start.y + end.y) / 2.0));
     }
 
+    /**
+     * Returns whether 'b' lies on the line segment from 'a' to 'c', ends included.
+     *
+     * If so, a cubic curve from 'a' to 'c' with both control points at 'b' is just that
+     * line segment; ImageDrawer and SvgWriter both draw such curves as straight lines,
+     * and use this so they agree on which ones are.
+     */
+    public static boolean isBetween(Point a, Point b, Point c) {
+        long cross = (long) (b.x - a.x) * (c.y - a.y) - (long) (b.y - a.y) * (c.x - a.x);
+        long dot = (long) (b.x - a.x) * (c.x - a.x) + (long) (b.y - a.y) * (c.y - a.y);
+        long lengthSquared = (long) (c.x - a.x) * (c.x - a.x) + (long) (c.y - a.y) * (c.y - a.y);
+        return cross == 0 && dot >= 0 && dot <= lengthSquared;
+    }
+
     /**
      * Returns the point located at one end of the line.
      */
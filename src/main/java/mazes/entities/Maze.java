@@ -1,5 +1,7 @@
 package mazes.entities;
 
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
 import datastructures.interfaces.ISet;
 
 import java.awt.*;
@@ -12,12 +14,26 @@ public class Maze {
     private ISet<Wall> walls;
     private ISet<Wall> untouchableWalls;
 
+    // Built on first use; see getWallId(...) and getRoom(Point). A maze may be shared
+    // between threads (see MazeCache), so each is built under the maze's lock and
+    // published through a volatile field, and is never modified afterwards.
+    private volatile WallTable wallTable;
+    private volatile RoomTable roomTable;
+
     public Maze(ISet<Room> rooms, ISet<Wall> walls, ISet<Wall> untouchableWalls) {
         this.rooms = rooms;
         this.walls = walls;
         this.untouchableWalls = untouchableWalls;
     }
 
+    /**
+     * For subclasses that don't store their rooms and walls as sets, and
+     * instead override the getters below.
+     */
+    protected Maze() {
+        this(null, null, null);
+    }
+
     /**
      * Returns the set of all walls in the maze.
      */
@@ -42,18 +58,120 @@ public class Maze {
         return this.untouchableWalls;
     }
 
+    /**
+     * Returns the number of wall ids; walls are numbered 0 to numWallIds() - 1.
+     *
+     * The removable walls of a maze are numbered in the iteration order of
+     * getWalls() the first time any of the numbering methods is called. Mazes
+     * derived from a base maze (such as a CarvedMaze) share its numbering, so
+     * a wall has the same id in the base maze and in all of its variants.
+     */
+    public int numWallIds() {
+        return this.getWallTable().walls.length;
+    }
+
+    /**
+     * Returns the wall with the given id.
+     *
+     * @throws IndexOutOfBoundsException  if the id is not between 0 and numWallIds() - 1
+     */
+    public Wall getWall(int wallId) {
+        return this.getWallTable().walls[wallId];
+    }
+
+    /**
+     * Returns the id of the given wall, or -1 if it isn't one of the numbered walls.
+     */
+    public int getWallId(Wall wall) {
+        IDictionary<Wall, Integer> wallIds = this.getWallTable().wallIds;
+        if (!wallIds.containsKey(wall)) {
+            return -1;
+        }
+        return wallIds.get(wall);
+    }
+
+    /**
+     * Returns the ids of every wall still present in this maze.
+     *
+     * The returned set may be shared with the maze, and must not be modified.
+     */
+    public WallBitSet getPresentWalls() {
+        return WallBitSet.allSet(this.numWallIds());
+    }
+
+    private WallTable getWallTable() {
+        WallTable table = this.wallTable;
+        if (table == null) {
+            synchronized (this) {
+                table = this.wallTable;
+                if (table == null) {
+                    table = new WallTable(this.getWalls());
+                    this.wallTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
     /**
      * Returns the room containing the given point.
      *
      * Returns 'null' if there does not exist a room under that point
      * for some reason.
+     *
+     * The first lookup builds a spatial index over the rooms; after that,
+     * each lookup only tests the few rooms near the point.
      */
     public Room getRoom(Point point) {
-        for (Room room : this.rooms) {
-            if (room.contains(point)) {
-                return room;
+        RoomTable table = this.roomTable;
+        if (table == null) {
+            synchronized (this) {
+                table = this.roomTable;
+                if (table == null) {
+                    table = new RoomTable(this.getRooms());
+                    this.roomTable = table;
+                }
+            }
+        }
+        Room[] rooms = table.rooms;
+        int roomId = table.grid.findRoom(point, id -> rooms[id].contains(point));
+        return roomId < 0 ? null : rooms[roomId];
+    }
+
+    /**
+     * The wall numbering: each wall by id, and each id by wall.
+     */
+    private static class WallTable {
+        public final Wall[] walls;
+        public final IDictionary<Wall, Integer> wallIds;
+
+        public WallTable(ISet<Wall> allWalls) {
+            this.walls = new Wall[allWalls.size()];
+            this.wallIds = new ChainedHashDictionary<>();
+            int wallId = 0;
+            for (Wall wall : allWalls) {
+                this.walls[wallId] = wall;
+                this.wallIds.put(wall, wallId);
+                wallId++;
+            }
+        }
+    }
+
+    /**
+     * The rooms, numbered in iteration order, and the spatial index over them.
+     */
+    private static class RoomTable {
+        public final Room[] rooms;
+        public final RoomGrid grid;
+
+        public RoomTable(ISet<Room> allRooms) {
+            this.rooms = new Room[allRooms.size()];
+            int roomId = 0;
+            for (Room room : allRooms) {
+                this.rooms[roomId] = room;
+                roomId++;
             }
+            this.grid = new RoomGrid(this.rooms.length, id -> this.rooms[id].getPolygon().getBounds());
         }
-        return null;
     }
 }
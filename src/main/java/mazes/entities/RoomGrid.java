@@ -0,0 +1,88 @@
+package mazes.entities;
+
+import java.awt.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * A uniform grid over the bounding boxes of rooms numbered 0 to numRooms - 1, used
+ * to find the room containing a point without testing every room.
+ *
+ * Each room is filed under every grid cell its bounding box overlaps. A lookup
+ * then only tests the rooms filed under the cell containing the point. With
+ * roughly one cell per room, that is a handful of rooms no matter how many
+ * there are in total.
+ *
+ * The grid holds only room ids, so it works the same whether the rooms are objects
+ * on the heap (see Maze.getRoom) or records in a file (see MappedMaze). Rooms within
+ * a cell are tested in increasing order of id, so lookups return exactly what a
+ * linear scan in id order would.
+ */
+public class RoomGrid {
+    private Rectangle bounds;
+    private int numColumns;
+    private int numRows;
+    private double cellWidth;
+    private double cellHeight;
+    private CellLists cells;
+
+    /**
+     * @param roomBounds  returns the bounding box of the given room; it is called
+     *                    three times per room, so it should be cheap
+     */
+    public RoomGrid(int numRooms, IntFunction<Rectangle> roomBounds) {
+        this.bounds = new Rectangle();
+        for (int roomId = 0; roomId < numRooms; roomId++) {
+            if (roomId == 0) {
+                this.bounds = new Rectangle(roomBounds.apply(roomId));
+            } else {
+                this.bounds.add(roomBounds.apply(roomId));
+            }
+        }
+
+        // Aim for about one cell per room, shaped like the overall bounds
+        double aspect = Math.max(1, this.bounds.width) / (double) Math.max(1, this.bounds.height);
+        this.numColumns = Math.max(1, (int) Math.round(Math.sqrt(Math.max(1, numRooms) * aspect)));
+        this.numRows = Math.max(1, (int) Math.round(Math.sqrt(Math.max(1, numRooms) / aspect)));
+        this.cellWidth = (this.bounds.width + 1) / (double) this.numColumns;
+        this.cellHeight = (this.bounds.height + 1) / (double) this.numRows;
+
+        this.cells = new CellLists(this.numColumns, this.numRows, numRooms, roomId -> {
+            Rectangle box = roomBounds.apply(roomId);
+            int firstColumn = this.columnOf(box.x);
+            int firstRow = this.rowOf(box.y);
+            return new Rectangle(firstColumn, firstRow,
+                    this.columnOf(box.x + box.width) - firstColumn, this.rowOf(box.y + box.height) - firstRow);
+        });
+    }
+
+    /**
+     * Returns the id of the first room filed under the cell containing the point that
+     * 'matches' accepts, or -1 if there is none or the point is outside every room's
+     * bounding box.
+     *
+     * To find the room containing the point, pass a test of whether the room contains it.
+     */
+    public int findRoom(Point point, IntPredicate matches) {
+        if (!this.bounds.contains(point)) {
+            return -1;
+        }
+        int cell = this.rowOf(point.y) * this.numColumns + this.columnOf(point.x);
+        for (int i = this.cells.getStart(cell); i < this.cells.getStart(cell + 1); i++) {
+            if (matches.test(this.cells.getItem(i))) {
+                return this.cells.getItem(i);
+            }
+        }
+        return -1;
+    }
+
+    private int columnOf(int x) {
+        int column = (int) ((x - this.bounds.x) / this.cellWidth);
+        return Math.max(0, Math.min(this.numColumns - 1, column));
+    }
+
+    private int rowOf(int y) {
+        int row = (int) ((y - this.bounds.y) / this.cellHeight);
+        return Math.max(0, Math.min(this.numRows - 1, row));
+    }
+}
@@ -0,0 +1,197 @@
+package mazes.entities;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size set of wall ids, stored as one bit per wall.
+ *
+ * Wall ids come from the numbering of some base maze (see Maze.getWallId), so
+ * many carved variants of one base maze can each be kept as a WallBitSet:
+ * a maze with a million walls costs about 125 KB per variant.
+ */
+public class WallBitSet {
+    private static final int BITS_PER_WORD = 64;
+
+    private long[] words;
+    private int size;
+
+    /**
+     * Creates an empty set able to hold the wall ids 0 to size - 1.
+     *
+     * @throws IllegalArgumentException  if size is negative
+     */
+    public WallBitSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        this.words = new long[(size + BITS_PER_WORD - 1) / BITS_PER_WORD];
+    }
+
+    private WallBitSet(int size, long[] words) {
+        this.size = size;
+        this.words = words;
+    }
+
+    /**
+     * Returns a set containing every wall id from 0 to size - 1.
+     *
+     * @throws IllegalArgumentException  if size is negative
+     */
+    public static WallBitSet allSet(int size) {
+        WallBitSet output = new WallBitSet(size);
+        for (int i = 0; i < output.words.length; i++) {
+            output.words[i] = -1L;
+        }
+        output.clearUnusedBits();
+        return output;
+    }
+
+    /**
+     * Returns a set of the given size holding the wall ids whose bits are set in
+     * 'words', as returned by toLongArray(). The array is copied.
+     *
+     * @throws IllegalArgumentException  if size is negative, the array isn't exactly
+     *                                   long enough for it, or a bit past size is set
+     */
+    public static WallBitSet valueOf(int size, long[] words) {
+        if (size < 0 || words.length != (size + BITS_PER_WORD - 1) / BITS_PER_WORD) {
+            throw new IllegalArgumentException();
+        }
+        WallBitSet output = new WallBitSet(size, words.clone());
+        output.clearUnusedBits();
+        if (!Arrays.equals(output.words, words)) {
+            throw new IllegalArgumentException("Wall ids past the end of the set");
+        }
+        return output;
+    }
+
+    /**
+     * Returns a copy of the bits of this set: wall id i is bit i % 64 of word i / 64.
+     */
+    public long[] toLongArray() {
+        return this.words.clone();
+    }
+
+    /**
+     * Returns the number of wall ids this set can hold (not the number it contains).
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean get(int wallId) {
+        this.checkIndex(wallId);
+        return (this.words[wallId / BITS_PER_WORD] & (1L << wallId)) != 0;
+    }
+
+    public void set(int wallId) {
+        this.checkIndex(wallId);
+        this.words[wallId / BITS_PER_WORD] |= 1L << wallId;
+    }
+
+    public void clear(int wallId) {
+        this.checkIndex(wallId);
+        this.words[wallId / BITS_PER_WORD] &= ~(1L << wallId);
+    }
+
+    /**
+     * Returns the number of wall ids contained in this set.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : this.words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the smallest wall id contained in this set that is at least
+     * 'from', or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        int wordIndex = from / BITS_PER_WORD;
+        if (wordIndex >= this.words.length) {
+            return -1;
+        }
+        long word = this.words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            wordIndex++;
+            if (wordIndex == this.words.length) {
+                return -1;
+            }
+            word = this.words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns a new set containing every wall id in this set that is not in the
+     * other one. Neither set is modified.
+     *
+     * @throws IllegalArgumentException  if the two sets have different sizes
+     */
+    public WallBitSet andNot(WallBitSet other) {
+        if (other.size != this.size) {
+            throw new IllegalArgumentException();
+        }
+        long[] output = new long[this.words.length];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = this.words[i] & ~other.words[i];
+        }
+        return new WallBitSet(this.size, output);
+    }
+
+    /**
+     * Returns a new set containing every wall id in either set. Neither set is modified.
+     *
+     * @throws IllegalArgumentException  if the two sets have different sizes
+     */
+    public WallBitSet or(WallBitSet other) {
+        if (other.size != this.size) {
+            throw new IllegalArgumentException();
+        }
+        long[] output = new long[this.words.length];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = this.words[i] | other.words[i];
+        }
+        return new WallBitSet(this.size, output);
+    }
+
+    private void checkIndex(int wallId) {
+        if (wallId < 0 || wallId >= this.size) {
+            throw new IndexOutOfBoundsException("Wall id " + wallId + " out of range for size " + this.size);
+        }
+    }
+
+    // Keeps the bits past 'size' in the last word zero, so cardinality(),
+    // equals() and the like never see them
+    private void clearUnusedBits() {
+        int used = this.size % BITS_PER_WORD;
+        if (used != 0) {
+            this.words[this.words.length - 1] &= (1L << used) - 1;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        WallBitSet that = (WallBitSet) o;
+
+        if (this.size != that.size) { return false; }
+        return Arrays.equals(this.words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.size + Arrays.hashCode(this.words);
+    }
+}
@@ -0,0 +1,67 @@
+package mazes.entities;
+
+import datastructures.interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only ISet of walls backed by a WallBitSet over some maze's wall
+ * numbering. No walls are copied: the view costs nothing beyond the bitset.
+ */
+class WallSetView implements ISet<Wall> {
+    private final Maze numbering;
+    private final WallBitSet wallIds;
+    private final int size;
+
+    public WallSetView(Maze numbering, WallBitSet wallIds) {
+        this.numbering = numbering;
+        this.wallIds = wallIds;
+        this.size = wallIds.cardinality();
+    }
+
+    @Override
+    public void add(Wall item) {
+        throw new UnsupportedOperationException("This set of walls is read-only");
+    }
+
+    @Override
+    public void remove(Wall item) {
+        throw new UnsupportedOperationException("This set of walls is read-only");
+    }
+
+    @Override
+    public boolean contains(Wall item) {
+        int wallId = this.numbering.getWallId(item);
+        return wallId >= 0 && this.wallIds.get(wallId);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Iterator<Wall> iterator() {
+        return new WallIterator();
+    }
+
+    private class WallIterator implements Iterator<Wall> {
+        private int next = WallSetView.this.wallIds.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+            return this.next >= 0;
+        }
+
+        @Override
+        public Wall next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Wall wall = WallSetView.this.numbering.getWall(this.next);
+            this.next = WallSetView.this.wallIds.nextSetBit(this.next + 1);
+            return wall;
+        }
+    }
+}
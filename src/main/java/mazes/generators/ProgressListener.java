@@ -0,0 +1,32 @@
+package mazes.generators;
+
+/**
+ * Receives reports of how far a maze generator or carver has got.
+ *
+ * Reports come from the thread doing the work, every so often rather than at every
+ * step, so listeners should return quickly. A listener may stop the work early by
+ * throwing an unchecked exception (a CancellationException, say), which is passed
+ * straight on to whoever asked for the maze.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * A listener that ignores every report.
+     */
+    public static final ProgressListener NONE = fraction -> {
+        // Do nothing
+    };
+
+    /**
+     * Called with the fraction of the work done so far, between 0 and 1.
+     */
+    public void progress(double fraction);
+
+    /**
+     * Returns a listener for one step of a larger job, which reports that step's
+     * progress to this listener scaled to lie between 'from' and 'to'.
+     */
+    public default ProgressListener range(double from, double to) {
+        return fraction -> this.progress(from + (to - from) * fraction);
+    }
+}
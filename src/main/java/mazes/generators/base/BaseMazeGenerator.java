@@ -4,8 +4,10 @@ import datastructures.concrete.DoubleLinkedList;
 import datastructures.interfaces.IList;
 import mazes.entities.Maze;
 import mazes.entities.LineSegment;
+import mazes.generators.ProgressListener;
 
 import java.awt.*;
+import java.util.SplittableRandom;
 
 /**
  * A class responsible for returning an initial maze with walls present between every single room.
@@ -16,8 +18,31 @@ import java.awt.*;
 public abstract class BaseMazeGenerator {
     /**
      * Generates an initial 'maze'.
+     *
+     * Any randomness comes from the seed, so the same generator, bounding box and
+     * seed always produce the same maze.
      */
-    public abstract Maze generateBaseMaze(Rectangle boundingBox);
+    public abstract Maze generateBaseMaze(Rectangle boundingBox, long seed);
+
+    /**
+     * Same as above, but with a fresh random seed.
+     */
+    public Maze generateBaseMaze(Rectangle boundingBox) {
+        return this.generateBaseMaze(boundingBox, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Same as generateBaseMaze(boundingBox, seed), but reports its progress to the
+     * given listener along the way.
+     *
+     * By default only the end is reported; generators that can take a while override
+     * this to report more often.
+     */
+    public Maze generateBaseMaze(Rectangle boundingBox, long seed, ProgressListener progress) {
+        Maze maze = this.generateBaseMaze(boundingBox, seed);
+        progress.progress(1.0);
+        return maze;
+    }
 
     protected IList<LineSegment> polygonToLineSegment(Polygon polygon) {
         IList<LineSegment> output = new DoubleLinkedList<>();
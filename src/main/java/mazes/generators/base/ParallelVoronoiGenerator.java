@@ -0,0 +1,368 @@
+package mazes.generators.base;
+
+import kn.uni.voronoitreemap.datastructure.OpenList;
+import kn.uni.voronoitreemap.diagram.PowerDiagram;
+import kn.uni.voronoitreemap.j2d.PolygonSimple;
+import kn.uni.voronoitreemap.j2d.Site;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.generators.ProgressListener;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the same kind of maze as VoronoiGenerator, but splits the bounding box
+ * into square tiles and computes a separate, much smaller diagram for each tile on a
+ * pool of worker threads. This is meant for mazes with hundreds of thousands of rooms
+ * or more, where a single diagram over every site is the bottleneck.
+ *
+ * Each tile's diagram includes the sites in a margin around the tile, and a cell is
+ * only accepted once that margin provably contains every site that could cut it: every
+ * corner of the cell must be at least as close to the cell's own site as it is to the
+ * edge of the margin. Cells that fail this check are recomputed with a margin twice as
+ * wide, until the margin covers the whole maze. Every cell is therefore the one a single
+ * global diagram would produce, up to floating-point error.
+ *
+ * That error matters where neighbouring cells come from different tiles: each tile
+ * computes the vertex they share separately, and two values a hair apart can round to
+ * different ints, which would lose the wall between them. So before rounding, every
+ * vertex is snapped to the first vertex found within SNAP_DISTANCE of it, and both cells
+ * round the very same value. Vertices are then rounded just as VoronoiGenerator rounds
+ * them, which absorbs the error in all but vanishingly rare cases, so the mazes match.
+ */
+public class ParallelVoronoiGenerator extends BaseMazeGenerator {
+    // Far below a pixel, but far above the error in a computed vertex
+    private static final double SNAP_DISTANCE = 1e-6;
+
+    private VoronoiGenerator sequential;
+    private int numRooms;
+    private int minimumWallLength;
+    private int minimumSpaceFromBoundingBox;
+    private int tileSize;
+    private int numThreads;
+
+    /**
+     * @param numRooms  the number of rooms the graph should contain
+     * @param sampleRate  how many times the algorithm should try and find a good position for a new node
+     * @param minimumWallLength  if a generated wall is less then this length, we don't connect the two adjacent rooms
+     * @param minimumSpaceFromBoundingBox  how far away the center of the room should be from the bounding box
+     * @param sampling  how the room centers are placed
+     * @param tileSize  the width and height of each tile, in pixels
+     * @param numThreads  how many tiles to compute at once
+     */
+    public ParallelVoronoiGenerator(int numRooms, int sampleRate, int minimumWallLength,
+                                    int minimumSpaceFromBoundingBox, VoronoiGenerator.Sampling sampling,
+                                    int tileSize, int numThreads) {
+        if (tileSize <= 0 || numThreads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.sequential = new VoronoiGenerator(
+                numRooms, sampleRate, minimumWallLength, minimumSpaceFromBoundingBox, sampling);
+        this.numRooms = numRooms;
+        this.minimumWallLength = minimumWallLength;
+        this.minimumSpaceFromBoundingBox = minimumSpaceFromBoundingBox;
+        this.tileSize = tileSize;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Same as above, except it uses Poisson-disk sampling and one thread per available processor.
+     */
+    public ParallelVoronoiGenerator(int numRooms, int sampleRate, int minimumWallLength,
+                                    int minimumSpaceFromBoundingBox, int tileSize) {
+        this(numRooms, sampleRate, minimumWallLength, minimumSpaceFromBoundingBox,
+                VoronoiGenerator.Sampling.POISSON_DISK, tileSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public Maze generateBaseMaze(Rectangle boundingBox, long seed) {
+        Rectangle centerBoundingBox = new Rectangle(
+                boundingBox.x + this.minimumSpaceFromBoundingBox,
+                boundingBox.y + this.minimumSpaceFromBoundingBox,
+                boundingBox.width - 2 * this.minimumSpaceFromBoundingBox,
+                boundingBox.height - 2 * this.minimumSpaceFromBoundingBox);
+
+        OpenList sites = this.sequential.generateCells(centerBoundingBox, new SplittableRandom(seed), ProgressListener.NONE);
+        Tiles tiles = new Tiles(sites, centerBoundingBox, this.tileSize);
+
+        // Cells are stored by site index, so the result doesn't depend on which tile finishes first
+        Site[] cells = new Site[sites.size];
+        ExecutorService executor = Executors.newFixedThreadPool(this.numThreads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int tile = 0; tile < tiles.numTiles(); tile++) {
+                int currentTile = tile;
+                results.add(executor.submit(() -> this.computeTile(tiles, currentTile, boundingBox, cells)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the maze", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to compute a tile of the maze", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return SharedEdgeMatcher.buildMaze(this.snapSharedVertices(cells), this.minimumWallLength);
+    }
+
+    /**
+     * Computes the cell of every site owned by the given tile, widening the margin
+     * around the tile until each of them is known to be exact.
+     */
+    private void computeTile(Tiles tiles, int tile, Rectangle boundingBox, Site[] cells) {
+        int[] remaining = tiles.sitesIn(tile);
+        int numRemaining = remaining.length;
+
+        Rectangle tileBox = tiles.bounds(tile);
+        double spacing = Math.sqrt((double) tiles.siteBox.width * tiles.siteBox.height / Math.max(1, this.numRooms));
+        int margin = (int) Math.ceil(Math.max(1.0, 3 * spacing));
+
+        while (numRemaining > 0) {
+            Rectangle halo = new Rectangle(
+                    tileBox.x - margin, tileBox.y - margin, tileBox.width + 2 * margin, tileBox.height + 2 * margin);
+            boolean coversEverything = halo.contains(tiles.siteBox);
+
+            // Copies of the sites, since neighbouring tiles compute their own polygons for the same sites
+            int[] haloSites = tiles.sitesIn(halo);
+            OpenList localSites = new OpenList();
+            for (int site : haloSites) {
+                Site original = tiles.sites.get(site);
+                localSites.add(new Site(original.getX(), original.getY()));
+            }
+
+            // Too few sites for a meaningful diagram; just widen the margin
+            boolean computed = haloSites.length >= 4 || coversEverything;
+            if (computed) {
+                PowerDiagram diagram = new PowerDiagram();
+                diagram.setSites(localSites);
+                diagram.setClipPoly(this.sequential.boundingBoxToPolygon(boundingBox));
+                diagram.computeDiagram();
+            }
+
+            int numStillRemaining = 0;
+            for (int i = 0; i < numRemaining; i++) {
+                int site = remaining[i];
+                Site local = localSites.get(Arrays.binarySearch(haloSites, site));
+                if (coversEverything || (computed && local.getPolygon() != null
+                        && isExact(local, halo, tiles.siteBox))) {
+                    cells[site] = local;
+                } else {
+                    remaining[numStillRemaining++] = site;
+                }
+            }
+            numRemaining = numStillRemaining;
+            margin *= 2;
+        }
+    }
+
+    /**
+     * Turns the cells into rooms, first moving every vertex onto the first vertex (in
+     * site order) within SNAP_DISTANCE of it, so that a vertex shared by cells from
+     * different tiles rounds the same way in all of them.
+     */
+    Room[] snapSharedVertices(Site[] cells) {
+        // The vertices kept so far, filed in a hash table of SNAP_DISTANCE-sized squares;
+        // each bucket is a linked list threaded through 'next'
+        int numVertices = 0;
+        for (Site cell : cells) {
+            numVertices += cell.getPolygon().length;
+        }
+        int[] buckets = new int[Integer.highestOneBit(Math.max(1, numVertices)) * 2];
+        Arrays.fill(buckets, -1);
+        int[] next = new int[numVertices];
+        double[] keptXs = new double[numVertices];
+        double[] keptYs = new double[numVertices];
+        int numKept = 0;
+
+        Room[] rooms = new Room[cells.length];
+        for (int site = 0; site < cells.length; site++) {
+            PolygonSimple polygon = cells[site].getPolygon();
+            double[] xs = Arrays.copyOf(polygon.getXPoints(), polygon.length);
+            double[] ys = Arrays.copyOf(polygon.getYPoints(), polygon.length);
+            for (int i = 0; i < polygon.length; i++) {
+                long column = (long) Math.floor(xs[i] / SNAP_DISTANCE);
+                long row = (long) Math.floor(ys[i] / SNAP_DISTANCE);
+                int match = -1;
+                for (long c = column - 1; c <= column + 1 && match < 0; c++) {
+                    for (long r = row - 1; r <= row + 1 && match < 0; r++) {
+                        for (int v = buckets[bucket(c, r, buckets.length)]; v >= 0 && match < 0; v = next[v]) {
+                            if (Math.abs(keptXs[v] - xs[i]) <= SNAP_DISTANCE
+                                    && Math.abs(keptYs[v] - ys[i]) <= SNAP_DISTANCE) {
+                                match = v;
+                            }
+                        }
+                    }
+                }
+
+                if (match >= 0) {
+                    xs[i] = keptXs[match];
+                    ys[i] = keptYs[match];
+                } else {
+                    int b = bucket(column, row, buckets.length);
+                    keptXs[numKept] = xs[i];
+                    keptYs[numKept] = ys[i];
+                    next[numKept] = buckets[b];
+                    buckets[b] = numKept;
+                    numKept++;
+                }
+            }
+
+            rooms[site] = this.sequential.toRoom(cells[site].getX(), cells[site].getY(), xs, ys, polygon.length);
+        }
+        return rooms;
+    }
+
+    private static int bucket(long column, long row, int numBuckets) {
+        long hash = column * 0x9E3779B97F4A7C15L + row;
+        return (int) ((hash ^ (hash >>> 32)) & (numBuckets - 1));
+    }
+
+    /**
+     * Returns true if no site outside the halo can be closer to any corner of the site's
+     * computed cell than the site itself is, which means no site outside the halo could
+     * have cut the cell. Sides of the halo that lie beyond every site don't count.
+     */
+    private static boolean isExact(Site site, Rectangle halo, Rectangle siteBox) {
+        PolygonSimple polygon = site.getPolygon();
+        double[] xs = polygon.getXPoints();
+        double[] ys = polygon.getYPoints();
+        for (int i = 0; i < polygon.length; i++) {
+            double dx = xs[i] - site.getX();
+            double dy = ys[i] - site.getY();
+            double reach = Math.sqrt(dx * dx + dy * dy);
+
+            if (halo.x > siteBox.x && xs[i] - halo.x < reach) {
+                return false;
+            }
+            if (halo.y > siteBox.y && ys[i] - halo.y < reach) {
+                return false;
+            }
+            if (halo.x + halo.width < siteBox.x + siteBox.width && halo.x + halo.width - xs[i] < reach) {
+                return false;
+            }
+            if (halo.y + halo.height < siteBox.y + siteBox.height && halo.y + halo.height - ys[i] < reach) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The sites, bucketed by the tile containing them.
+     */
+    private static class Tiles {
+        private final OpenList sites;
+        private final Rectangle siteBox;
+        private final int tileSize;
+        private final int numColumns;
+        private final int numRows;
+
+        // The sites in tile t are tileSites[tileStarts[t]] up to tileSites[tileStarts[t + 1]]
+        private final int[] tileStarts;
+        private final int[] tileSites;
+
+        public Tiles(OpenList sites, Rectangle siteBox, int tileSize) {
+            this.sites = sites;
+            this.siteBox = siteBox;
+            this.tileSize = tileSize;
+            this.numColumns = Math.max(1, (siteBox.width + tileSize - 1) / tileSize);
+            this.numRows = Math.max(1, (siteBox.height + tileSize - 1) / tileSize);
+
+            int[] siteTiles = new int[sites.size];
+            this.tileStarts = new int[this.numTiles() + 1];
+            for (int i = 0; i < sites.size; i++) {
+                Site site = sites.get(i);
+                siteTiles[i] = this.row(site.getY()) * this.numColumns + this.column(site.getX());
+                this.tileStarts[siteTiles[i] + 1]++;
+            }
+            for (int t = 0; t < this.numTiles(); t++) {
+                this.tileStarts[t + 1] += this.tileStarts[t];
+            }
+            this.tileSites = new int[sites.size];
+            int[] next = this.tileStarts.clone();
+            for (int i = 0; i < sites.size; i++) {
+                this.tileSites[next[siteTiles[i]]++] = i;
+            }
+        }
+
+        public int numTiles() {
+            return this.numColumns * this.numRows;
+        }
+
+        public Rectangle bounds(int tile) {
+            return new Rectangle(
+                    this.siteBox.x + (tile % this.numColumns) * this.tileSize,
+                    this.siteBox.y + (tile / this.numColumns) * this.tileSize,
+                    this.tileSize,
+                    this.tileSize);
+        }
+
+        /**
+         * Returns the indices of the sites owned by the tile, in increasing order.
+         */
+        public int[] sitesIn(int tile) {
+            return Arrays.copyOfRange(this.tileSites, this.tileStarts[tile], this.tileStarts[tile + 1]);
+        }
+
+        /**
+         * Returns the indices of every site inside the region, in increasing order.
+         */
+        public int[] sitesIn(Rectangle region) {
+            int firstColumn = this.column(region.x);
+            int lastColumn = this.column(region.x + region.width);
+            int firstRow = this.row(region.y);
+            int lastRow = this.row(region.y + region.height);
+
+            int count = 0;
+            int[] output = new int[16];
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int tile = row * this.numColumns + column;
+                    for (int i = this.tileStarts[tile]; i < this.tileStarts[tile + 1]; i++) {
+                        Site site = this.sites.get(this.tileSites[i]);
+                        if (region.contains(site.getX(), site.getY())) {
+                            if (count == output.length) {
+                                output = Arrays.copyOf(output, 2 * count);
+                            }
+                            output[count++] = this.tileSites[i];
+                        }
+                    }
+                }
+            }
+            output = Arrays.copyOf(output, count);
+            Arrays.sort(output);
+            return output;
+        }
+
+        private int column(double x) {
+            int column = (int) Math.floor((x - this.siteBox.x) / this.tileSize);
+            return Math.max(0, Math.min(this.numColumns - 1, column));
+        }
+
+        private int row(double y) {
+            int row = (int) Math.floor((y - this.siteBox.y) / this.tileSize);
+            return Math.max(0, Math.min(this.numRows - 1, row));
+        }
+    }
+
+    /**
+     * The mazes are the same as the ones VoronoiGenerator produces from the same
+     * parameters and seed, so this describes itself the same way.
+     */
+    @Override
+    public String toString() {
+        return this.sequential.toString();
+    }
+}
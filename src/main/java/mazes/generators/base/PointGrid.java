@@ -0,0 +1,116 @@
+package mazes.generators.base;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * A uniform grid of points inside a bounding box that answers "how far is the
+ * nearest point?" by searching outward from the query's cell, ring by ring,
+ * instead of measuring the distance to every point.
+ *
+ * Distances are computed exactly as Point.distance(...) computes them, so the
+ * answer is identical to a linear scan.
+ */
+class PointGrid {
+    private Rectangle boundingBox;
+    private double cellSize;
+    private int numColumns;
+    private int numRows;
+
+    // Each cell keeps a linked list of its points, threaded through 'next'
+    private int[] cellHeads;
+    private int[] next;
+    private int[] xs;
+    private int[] ys;
+    private int size;
+
+    /**
+     * @param expectedPoints  roughly how many points will be inserted; the grid is sized
+     *                        so there is about one point per cell
+     */
+    public PointGrid(Rectangle boundingBox, int expectedPoints) {
+        this.boundingBox = new Rectangle(boundingBox);
+        double area = Math.max(1.0, (double) boundingBox.width * boundingBox.height);
+        this.cellSize = Math.max(1.0, Math.sqrt(area / Math.max(1, expectedPoints)));
+        this.numColumns = Math.max(1, (int) Math.ceil((boundingBox.width + 1) / this.cellSize));
+        this.numRows = Math.max(1, (int) Math.ceil((boundingBox.height + 1) / this.cellSize));
+
+        this.cellHeads = new int[this.numColumns * this.numRows];
+        Arrays.fill(this.cellHeads, -1);
+        int capacity = Math.max(16, expectedPoints);
+        this.next = new int[capacity];
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.size = 0;
+    }
+
+    public void add(Point point) {
+        if (this.size == this.xs.length) {
+            this.next = Arrays.copyOf(this.next, 2 * this.size);
+            this.xs = Arrays.copyOf(this.xs, 2 * this.size);
+            this.ys = Arrays.copyOf(this.ys, 2 * this.size);
+        }
+        int cell = this.rowOf(point.y) * this.numColumns + this.columnOf(point.x);
+        this.xs[this.size] = point.x;
+        this.ys[this.size] = point.y;
+        this.next[this.size] = this.cellHeads[cell];
+        this.cellHeads[cell] = this.size;
+        this.size++;
+    }
+
+    /**
+     * Returns the distance from the target to the nearest point in the grid,
+     * or Double.MAX_VALUE if the grid is empty.
+     */
+    public double getClosestDistance(Point target) {
+        double bestDistance = Double.MAX_VALUE;
+        if (this.size == 0) {
+            return bestDistance;
+        }
+
+        int column = this.columnOf(target.x);
+        int row = this.rowOf(target.y);
+        int maxRing = Math.max(this.numColumns, this.numRows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            int top = row - ring;
+            int bottom = row + ring;
+            for (int r = Math.max(0, top); r <= Math.min(this.numRows - 1, bottom); r++) {
+                // Only the outline of the ring: full rows at the top and bottom,
+                // just the two end cells in between
+                boolean fullRow = r == top || r == bottom;
+                int step = fullRow ? 1 : 2 * ring;
+                for (int c = column - ring; c <= column + ring; c += Math.max(1, step)) {
+                    if (c >= 0 && c < this.numColumns) {
+                        bestDistance = this.closestInCell(r * this.numColumns + c, target, bestDistance);
+                    }
+                }
+            }
+
+            // Every cell in the next ring is at least 'ring' whole cells away
+            if (bestDistance <= ring * this.cellSize) {
+                break;
+            }
+        }
+        return bestDistance;
+    }
+
+    private double closestInCell(int cell, Point target, double bestDistance) {
+        for (int i = this.cellHeads[cell]; i >= 0; i = this.next[i]) {
+            double distance = target.distance(this.xs[i], this.ys[i]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+            }
+        }
+        return bestDistance;
+    }
+
+    private int columnOf(int x) {
+        int column = (int) ((x - this.boundingBox.x) / this.cellSize);
+        return Math.max(0, Math.min(this.numColumns - 1, column));
+    }
+
+    private int rowOf(int y) {
+        int row = (int) ((y - this.boundingBox.y) / this.cellSize);
+        return Math.max(0, Math.min(this.numRows - 1, row));
+    }
+}
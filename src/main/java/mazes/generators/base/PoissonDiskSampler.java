@@ -0,0 +1,203 @@
+package mazes.generators.base;
+
+import kn.uni.voronoitreemap.datastructure.OpenList;
+import kn.uni.voronoitreemap.j2d.Site;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Places points using Bridson's Poisson-disk sampling: no two points are
+ * closer than some radius, and the points fill the area evenly without
+ * looking like a regular grid.
+ *
+ * A background grid with cells small enough to hold at most one point means
+ * each candidate is checked against a constant number of nearby points, so
+ * sampling takes time linear in the number of points.
+ */
+class PoissonDiskSampler {
+    // Bridson's algorithm packs roughly 0.58 (10 candidates) to 0.63 (30
+    // candidates) points per radius squared. We start a little below that so
+    // the first attempt usually overshoots and the extras can just be dropped.
+    private static final double INITIAL_DENSITY = 0.55;
+    private static final int MAX_ATTEMPTS = 8;
+
+    // The radius is never shrunk below this density, which keeps the background
+    // grid to about ten cells per point however badly an attempt falls short
+    private static final double MIN_DENSITY = 0.2;
+
+    private SplittableRandom rand;
+    private int numCandidates;
+    private double radius;
+
+    /**
+     * @param numCandidates  how many new points to try around each point before giving up on it
+     */
+    public PoissonDiskSampler(SplittableRandom rand, int numCandidates) {
+        this.rand = rand;
+        this.numCandidates = Math.max(1, numCandidates);
+    }
+
+    /**
+     * Returns exactly 'numPoints' sites inside the bounding box, spread out as
+     * evenly as the box allows.
+     *
+     * The radius is shrunk until that many points fit, up to MAX_ATTEMPTS times.
+     * If they still don't (say, the box has no area, or only one candidate is tried
+     * around each point, so the sampling stops early), the rest are placed uniformly
+     * at random and may be closer than getRadius() to other points.
+     */
+    public OpenList sample(Rectangle boundingBox, int numPoints) {
+        double area = Math.max(1.0, (double) boundingBox.width * boundingBox.height);
+        double radius = Math.sqrt(INITIAL_DENSITY * area / Math.max(1, numPoints));
+        double minRadius = Math.sqrt(MIN_DENSITY * area / Math.max(1, numPoints));
+
+        Samples samples = this.sampleWithRadius(boundingBox, radius, numPoints);
+        for (int attempt = 1; samples.size < numPoints && attempt < MAX_ATTEMPTS; attempt++) {
+            // Too few points fit: shrink the radius by how far short we fell
+            radius = Math.max(minRadius, radius * 0.97 * Math.sqrt((double) samples.size / numPoints));
+            samples = this.sampleWithRadius(boundingBox, radius, numPoints);
+        }
+        this.radius = radius;
+
+        while (samples.size < numPoints) {
+            samples.add(boundingBox.x + this.rand.nextDouble() * boundingBox.width,
+                    boundingBox.y + this.rand.nextDouble() * boundingBox.height);
+        }
+
+        // Drop randomly chosen extras; spacing is unaffected
+        for (int i = 0; i < numPoints; i++) {
+            int j = i + this.rand.nextInt(samples.size - i);
+            samples.swap(i, j);
+        }
+
+        OpenList output = new OpenList();
+        for (int i = 0; i < numPoints; i++) {
+            output.add(new Site(samples.xs[i], samples.ys[i]));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the radius used by the last call to sample(...). No two points placed
+     * by Poisson-disk sampling are closer than this.
+     */
+    public double getRadius() {
+        return this.radius;
+    }
+
+    private Samples sampleWithRadius(Rectangle boundingBox, double radius, int expected) {
+        double cellSize = radius / Math.sqrt(2);
+        int numColumns = Math.max(1, (int) Math.ceil(boundingBox.width / cellSize));
+        int numRows = Math.max(1, (int) Math.ceil(boundingBox.height / cellSize));
+
+        // grid[cell] is one more than the index of the point in that cell, or 0
+        int[] grid = new int[numColumns * numRows];
+        Samples samples = new Samples(expected);
+        int[] active = new int[16];
+        int numActive = 0;
+
+        double startX = this.rand.nextDouble() * boundingBox.width;
+        double startY = this.rand.nextDouble() * boundingBox.height;
+        grid[(int) (startY / cellSize) * numColumns + (int) (startX / cellSize)] = 1;
+        samples.add(startX, startY);
+        active[numActive++] = 0;
+
+        double minDistanceSquared = radius * radius;
+        while (numActive > 0) {
+            int activeIndex = this.rand.nextInt(numActive);
+            int point = active[activeIndex];
+            boolean placed = false;
+
+            for (int i = 0; i < this.numCandidates && !placed; i++) {
+                // Uniform over the annulus between radius and 2 * radius
+                double angle = this.rand.nextDouble() * 2 * Math.PI;
+                double distance = Math.sqrt(this.rand.nextDouble() * 3 + 1) * radius;
+                double x = samples.xs[point] + distance * Math.cos(angle);
+                double y = samples.ys[point] + distance * Math.sin(angle);
+                if (x < 0 || y < 0 || x >= boundingBox.width || y >= boundingBox.height) {
+                    continue;
+                }
+
+                int column = (int) (x / cellSize);
+                int row = (int) (y / cellSize);
+                if (this.isFarEnough(grid, numColumns, numRows, samples, column, row, x, y, minDistanceSquared)) {
+                    grid[row * numColumns + column] = samples.size + 1;
+                    if (numActive == active.length) {
+                        active = Arrays.copyOf(active, 2 * active.length);
+                    }
+                    active[numActive++] = samples.size;
+                    samples.add(x, y);
+                    placed = true;
+                }
+            }
+
+            if (!placed) {
+                active[activeIndex] = active[--numActive];
+            }
+        }
+
+        samples.translate(boundingBox.x, boundingBox.y);
+        return samples;
+    }
+
+    private boolean isFarEnough(int[] grid, int numColumns, int numRows, Samples samples,
+                                int column, int row, double x, double y, double minDistanceSquared) {
+        // Any point within 'radius' lies at most two cells away
+        for (int r = Math.max(0, row - 2); r <= Math.min(numRows - 1, row + 2); r++) {
+            for (int c = Math.max(0, column - 2); c <= Math.min(numColumns - 1, column + 2); c++) {
+                int other = grid[r * numColumns + c] - 1;
+                if (other >= 0) {
+                    double dx = samples.xs[other] - x;
+                    double dy = samples.ys[other] - y;
+                    if (dx * dx + dy * dy < minDistanceSquared) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A growable pair of coordinate arrays.
+     */
+    private static class Samples {
+        private double[] xs;
+        private double[] ys;
+        private int size;
+
+        public Samples(int capacity) {
+            this.xs = new double[Math.max(16, capacity)];
+            this.ys = new double[Math.max(16, capacity)];
+            this.size = 0;
+        }
+
+        public void add(double x, double y) {
+            if (this.size == this.xs.length) {
+                this.xs = Arrays.copyOf(this.xs, 2 * this.size);
+                this.ys = Arrays.copyOf(this.ys, 2 * this.size);
+            }
+            this.xs[this.size] = x;
+            this.ys[this.size] = y;
+            this.size++;
+        }
+
+        public void swap(int i, int j) {
+            double x = this.xs[i];
+            double y = this.ys[i];
+            this.xs[i] = this.xs[j];
+            this.ys[i] = this.ys[j];
+            this.xs[j] = x;
+            this.ys[j] = y;
+        }
+
+        public void translate(double dx, double dy) {
+            for (int i = 0; i < this.size; i++) {
+                this.xs[i] += dx;
+                this.ys[i] += dy;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package mazes.generators.base;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Turns a set of room polygons into a maze by placing a wall along every edge
+ * that two polygons share.
+ *
+ * Shared edges are found by sorting rather than hashing: every polygon vertex is
+ * packed into a long and given an id by its position in the sorted list of distinct
+ * vertices, every edge becomes a long holding its two vertex ids, and two polygons
+ * share an edge exactly when they produce the same edge key. Only the edges that
+ * actually become walls ever get a LineSegment.
+ */
+final class SharedEdgeMatcher {
+    private SharedEdgeMatcher() {}
+
+    /**
+     * Returns a maze containing the given rooms, with a wall between every pair of rooms
+     * whose polygons share an edge. Walls no longer than 'minimumWallLength' are made
+     * untouchable.
+     */
+    public static Maze buildMaze(Room[] rooms, int minimumWallLength) {
+        int numEdges = 0;
+        for (Room room : rooms) {
+            numEdges += room.getPolygon().npoints;
+        }
+
+        // Number the distinct vertices
+        long[] vertices = new long[numEdges];
+        int index = 0;
+        for (Room room : rooms) {
+            Polygon polygon = room.getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                vertices[index++] = pack(polygon.xpoints[i], polygon.ypoints[i]);
+            }
+        }
+        int numVertices = sortUnique(vertices);
+
+        // Key every edge by its (smaller, larger) vertex ids
+        long[] edgeKeys = new long[numEdges];
+        index = 0;
+        for (Room room : rooms) {
+            Polygon polygon = room.getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                int j = (i + 1) % polygon.npoints;
+                long a = Arrays.binarySearch(vertices, 0, numVertices, pack(polygon.xpoints[i], polygon.ypoints[i]));
+                long b = Arrays.binarySearch(vertices, 0, numVertices, pack(polygon.xpoints[j], polygon.ypoints[j]));
+                edgeKeys[index++] = a <= b ? (a << 32) | b : (b << 32) | a;
+            }
+        }
+        long[] distinctEdges = edgeKeys.clone();
+        int numDistinctEdges = sortUnique(distinctEdges);
+
+        // The first room to produce an edge claims it; every later room sharing it gets a wall.
+        // (A polygon can repeat a zero-length edge after rounding; it never gets a wall to itself.)
+        int[] firstRoom = new int[numDistinctEdges];
+        Arrays.fill(firstRoom, -1);
+
+        ISet<Room> roomSet = new ChainedHashSet<>();
+        ISet<Wall> walls = new ChainedHashSet<>();
+        ISet<Wall> untouchableWalls = new ChainedHashSet<>();
+        index = 0;
+        for (int r = 0; r < rooms.length; r++) {
+            roomSet.add(rooms[r]);
+            Polygon polygon = rooms[r].getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                int edge = Arrays.binarySearch(distinctEdges, 0, numDistinctEdges, edgeKeys[index++]);
+                if (firstRoom[edge] == -1) {
+                    firstRoom[edge] = r;
+                } else if (firstRoom[edge] != r) {
+                    int j = (i + 1) % polygon.npoints;
+                    LineSegment seg = new LineSegment(
+                            new Point(polygon.xpoints[i], polygon.ypoints[i]),
+                            new Point(polygon.xpoints[j], polygon.ypoints[j]));
+                    Wall wall = new Wall(rooms[r], rooms[firstRoom[edge]], seg);
+                    if (seg.length() > minimumWallLength) {
+                        walls.add(wall);
+                    } else {
+                        untouchableWalls.add(wall);
+                    }
+                }
+            }
+        }
+
+        return new Maze(roomSet, walls, untouchableWalls);
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Sorts the array and moves its distinct values to the front, returning how many there are.
+     */
+    private static int sortUnique(long[] array) {
+        Arrays.sort(array);
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (size == 0 || array[size - 1] != array[i]) {
+                array[size++] = array[i];
+            }
+        }
+        return size;
+    }
+}
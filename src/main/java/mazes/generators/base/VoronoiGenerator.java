@@ -1,32 +1,46 @@
 package mazes.generators.base;
 
-import datastructures.concrete.ChainedHashSet;
-import datastructures.concrete.DoubleLinkedList;
-import datastructures.concrete.dictionaries.ChainedHashDictionary;
-import datastructures.interfaces.IDictionary;
-import datastructures.interfaces.IList;
-import datastructures.interfaces.ISet;
 import kn.uni.voronoitreemap.datastructure.OpenList;
 import kn.uni.voronoitreemap.diagram.PowerDiagram;
 import kn.uni.voronoitreemap.j2d.PolygonSimple;
 import kn.uni.voronoitreemap.j2d.Site;
 import mazes.entities.Maze;
 import mazes.entities.Room;
-import mazes.entities.Wall;
-import mazes.entities.LineSegment;
+import mazes.generators.ProgressListener;
 
 import java.awt.*;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Generates a maze where the rooms are randomly distributed across the
  * bounding box. Walls are placed equidistant between two adjacent rooms.
  */
 public class VoronoiGenerator extends BaseMazeGenerator {
+    /**
+     * How the room centers are placed.
+     */
+    public enum Sampling {
+        /**
+         * Each room is placed at whichever of 'sampleRate' random candidates is
+         * farthest from every room placed so far.
+         */
+        BEST_CANDIDATE,
+
+        /**
+         * Rooms are placed by Bridson's Poisson-disk sampling, trying 'sampleRate'
+         * candidates around each room. The spacing is similar to BEST_CANDIDATE,
+         * but it runs in linear time, so it suits very large mazes.
+         */
+        POISSON_DISK
+    }
+
+    private static final double VERTEX_PRECISION = 1e6;
+
     private int numRooms;
     private int sampleRate;
     private int minimumWallLength;
     private int minimumSpaceFromBoundingBox;
+    private Sampling sampling;
 
     /**
      * @param numRooms  the number of rooms the graph should contain
@@ -35,13 +49,28 @@ public class VoronoiGenerator extends BaseMazeGenerator {
      * @param minimumSpaceFromBoundingBox  how far away the center of the room should be from the bounding box
      */
     public VoronoiGenerator(int numRooms, int sampleRate, int minimumWallLength, int minimumSpaceFromBoundingBox) {
+        this(numRooms, sampleRate, minimumWallLength, minimumSpaceFromBoundingBox, Sampling.BEST_CANDIDATE);
+    }
+
+    /**
+     * Same as above, except the room centers are placed using the given sampling method.
+     */
+    public VoronoiGenerator(int numRooms, int sampleRate, int minimumWallLength, int minimumSpaceFromBoundingBox,
+                            Sampling sampling) {
         this.numRooms = numRooms;
         this.sampleRate = sampleRate;
         this.minimumWallLength = minimumWallLength;
         this.minimumSpaceFromBoundingBox = minimumSpaceFromBoundingBox;
+        this.sampling = sampling;
+    }
+
+    @Override
+    public Maze generateBaseMaze(Rectangle boundingBox, long seed) {
+        return this.generateBaseMaze(boundingBox, seed, ProgressListener.NONE);
     }
 
-    public Maze generateBaseMaze(Rectangle boundingBox) {
+    @Override
+    public Maze generateBaseMaze(Rectangle boundingBox, long seed, ProgressListener progress) {
         Rectangle centerBoundingBox = new Rectangle(
                 boundingBox.x + this.minimumSpaceFromBoundingBox,
                 boundingBox.y + this.minimumSpaceFromBoundingBox,
@@ -49,7 +78,7 @@ public class VoronoiGenerator extends BaseMazeGenerator {
                 boundingBox.height - 2 * this.minimumSpaceFromBoundingBox);
 
         // Generate initial room locations
-        OpenList sites = this.generateCells(centerBoundingBox);
+        OpenList sites = this.generateCells(centerBoundingBox, new SplittableRandom(seed), progress.range(0.0, 0.4));
         PolygonSimple boundingPolygon = this.boundingBoxToPolygon(boundingBox);
 
         // Run Voronoi
@@ -57,41 +86,22 @@ public class VoronoiGenerator extends BaseMazeGenerator {
         diagram.setSites(sites);
         diagram.setClipPoly(boundingPolygon);
         diagram.computeDiagram();
+        progress.progress(0.8);
 
-        // Convert sites into rooms
-        ISet<Room> rooms = new ChainedHashSet<>();
-        IDictionary<Point, Room> pointsToSite = new ChainedHashDictionary<>();
+        // Convert sites into rooms, then place walls along the edges they share
+        Room[] rooms = new Room[sites.size];
+        int index = 0;
         for (Site site : sites) {
-            Room room = this.siteToRoom(site);
-            pointsToSite.put(room.getCenter(), room);
-            rooms.add(room);
+            rooms[index++] = this.siteToRoom(site);
         }
+        progress.progress(0.9);
 
-        // Convert sites into walls; build edges
-        ISet<Wall> walls = new ChainedHashSet<>();
-        ISet<Wall> untouchableWalls = new ChainedHashSet<>();
-        IDictionary<LineSegment, Point> edgeToPoints = new ChainedHashDictionary<>();
-        for (Room room : rooms) {
-            Point vertex = room.getCenter();
-            for (LineSegment seg : this.polygonToLineSegment(room.getPolygon())) {
-                if (!edgeToPoints.containsKey(seg)) {
-                    edgeToPoints.put(seg, vertex);
-                } else {
-                    Point otherVertex = edgeToPoints.get(seg);
-                    Wall wall = new Wall(pointsToSite.get(vertex), pointsToSite.get(otherVertex), seg);
-                    if (seg.length() > this.minimumWallLength) {
-                        walls.add(wall);
-                    } else {
-                        untouchableWalls.add(wall);
-                    }
-                }
-            }
-        }
-
-        return new Maze(rooms, walls, untouchableWalls);
+        Maze maze = SharedEdgeMatcher.buildMaze(rooms, this.minimumWallLength);
+        progress.progress(1.0);
+        return maze;
     }
 
-    private PolygonSimple boundingBoxToPolygon(Rectangle boundingBox) {
+    PolygonSimple boundingBoxToPolygon(Rectangle boundingBox) {
         PolygonSimple boundingPolygon = new PolygonSimple();
         boundingPolygon.add(boundingBox.getMinX(), boundingBox.getMinY());
         boundingPolygon.add(boundingBox.getMinX(), boundingBox.getMaxY());
@@ -100,33 +110,50 @@ public class VoronoiGenerator extends BaseMazeGenerator {
         return boundingPolygon;
     }
 
-    private Room siteToRoom(Site site) {
+    Room siteToRoom(Site site) {
         PolygonSimple oldPolygon = site.getPolygon();
+        return this.toRoom(site.getX(), site.getY(), oldPolygon.getXPoints(), oldPolygon.getYPoints(), oldPolygon.length);
+    }
 
-        Point center = new Point(round(site.getX()), round(site.getY()));
-        Polygon polygon = new Polygon(
-                roundArray(oldPolygon.getXPoints(), oldPolygon.length),
-                roundArray(oldPolygon.getYPoints(), oldPolygon.length),
-                oldPolygon.length);
-
-        return new Room(center, polygon);
+    /**
+     * Returns the room for a site at (siteX, siteY) whose cell has the given vertices.
+     *
+     * Vertices are rounded to a millionth before they're rounded to ints. Neighbouring
+     * cells are clipped separately, so the vertex they share can come out a hair
+     * different in each; without this, a vertex exactly halfway between two ints (as
+     * where the bisector of two integer sites crosses a grid line) could round up in
+     * one cell and down in the other, and the wall between them would be lost.
+     */
+    Room toRoom(double siteX, double siteY, double[] xs, double[] ys, int length) {
+        int[] roundedXs = new int[length];
+        int[] roundedYs = new int[length];
+        for (int i = 0; i < length; i++) {
+            roundedXs[i] = round(Math.rint(xs[i] * VERTEX_PRECISION) / VERTEX_PRECISION);
+            roundedYs[i] = round(Math.rint(ys[i] * VERTEX_PRECISION) / VERTEX_PRECISION);
+        }
+        return new Room(new Point(round(siteX), round(siteY)), new Polygon(roundedXs, roundedYs, length));
     }
 
-    private OpenList generateCells(Rectangle boundingBox) {
+    OpenList generateCells(Rectangle boundingBox, SplittableRandom rand, ProgressListener progress) {
+        if (this.sampling == Sampling.POISSON_DISK) {
+            OpenList output = new PoissonDiskSampler(rand, this.sampleRate).sample(boundingBox, this.numRooms);
+            progress.progress(1.0);
+            return output;
+        }
+
         OpenList output = new OpenList();
-        IList<Point> points = new DoubleLinkedList<>();
+        PointGrid points = new PointGrid(boundingBox, this.numRooms);
 
-        Random rand = new Random();
         for (int i = 0; i < this.numRooms; i++) {
             double bestDistance = 0;
             Point bestPoint = null;
 
             for (int j = 0; j < this.sampleRate; j++) {
-                int randX = this.nextInt(rand, boundingBox.x, boundingBox.x + boundingBox.width);
-                int randY = this.nextInt(rand, boundingBox.y, boundingBox.y + boundingBox.height);
+                int randX = rand.nextInt(boundingBox.x, boundingBox.x + boundingBox.width);
+                int randY = rand.nextInt(boundingBox.y, boundingBox.y + boundingBox.height);
                 Point candidate = new Point(randX, randY);
 
-                double distance = this.getClosest(candidate, points);
+                double distance = points.getClosestDistance(candidate);
                 if (distance > bestDistance) {
                     bestDistance = distance;
                     bestPoint = candidate;
@@ -136,24 +163,19 @@ public class VoronoiGenerator extends BaseMazeGenerator {
             assert bestPoint != null;
             output.add(new Site(bestPoint.x, bestPoint.y));
             points.add(bestPoint);
-        }
-
-        return output;
-    }
 
-    private double getClosest(Point target, IList<Point> coords) {
-        double bestDistance = Double.MAX_VALUE;
-        for (Point point : coords) {
-            double distance = point.distance(target);
-            if (distance < bestDistance) {
-                bestDistance = distance;
+            if (i % 256 == 255) {
+                progress.progress((double) (i + 1) / this.numRooms);
             }
         }
 
-        return bestDistance;
+        progress.progress(1.0);
+        return output;
     }
 
-    private int nextInt(Random rand, int min, int max) {
-        return rand.nextInt(max - min) + min;
+    @Override
+    public String toString() {
+        return String.format("VoronoiGenerator(%d, %d, %d, %d, %s)", this.numRooms, this.sampleRate,
+                this.minimumWallLength, this.minimumSpaceFromBoundingBox, this.sampling);
     }
 }
@@ -0,0 +1,64 @@
+package mazes.generators.maze;
+
+import mazes.entities.GridMaze;
+import mazes.generators.base.GridGenerator;
+
+import java.awt.*;
+
+/**
+ * Measures how long each carver takes to carve a large grid maze, against
+ * KruskalMazeCarver, which carves through Room and Wall objects and a Graph.
+ *
+ * Run with no arguments to carve GridGenerator(2000, 2000), or with '<grid size>'
+ * for a different size. Each carver is run a few times on the same base maze and
+ * the best time is reported; KruskalMazeCarver only runs once, since it is far
+ * slower. A carver that runs out of memory is reported as such, and the others
+ * still run.
+ */
+public class CarverBenchmark {
+    private static final int ROUNDS = 3;
+
+    private GridMaze base;
+
+    public CarverBenchmark(int gridSize) {
+        this.base = (GridMaze) new GridGenerator(gridSize, gridSize)
+                .generateBaseMaze(new Rectangle(0, 0, 10 * gridSize, 10 * gridSize), 0);
+    }
+
+    /**
+     * Returns the best time, in seconds, over the given number of rounds of carving.
+     */
+    private double measure(MazeCarver carver, int rounds) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            carver.generateMaze(this.base, round);
+            best = Math.min(best, (System.nanoTime() - start) / 1e9);
+        }
+        return best;
+    }
+
+    private void report(MazeCarver carver, int rounds) {
+        try {
+            double seconds = this.measure(carver, rounds);
+            System.out.printf("%-28s %8.2f s %,14.0f rooms/s%n",
+                    carver, seconds, this.base.numRooms() / seconds);
+        } catch (OutOfMemoryError ex) {
+            System.out.printf("%-28s out of memory%n", carver);
+        }
+    }
+
+    public static void main(String[] args) {
+        int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        CarverBenchmark benchmark = new CarverBenchmark(gridSize);
+        System.out.printf("GridGenerator(%d, %d): %,d rooms, %,d walls, %d MB max heap%n",
+                gridSize, gridSize, benchmark.base.numRooms(), benchmark.base.numWallIds(),
+                Runtime.getRuntime().maxMemory() >> 20);
+
+        benchmark.report(new ShuffledKruskalMazeCarver(), ROUNDS);
+        benchmark.report(new DepthFirstMazeCarver(), ROUNDS);
+        benchmark.report(new WilsonMazeCarver(), ROUNDS);
+        benchmark.report(new WilsonMazeCarver(0.3), ROUNDS);
+        benchmark.report(new KruskalMazeCarver(), 1);
+    }
+}
@@ -0,0 +1,99 @@
+package mazes.generators.maze;
+
+import mazes.entities.WallBitSet;
+import mazes.generators.ProgressListener;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Carves out a maze using a randomized depth-first search (the "recursive
+ * backtracker"). The resulting mazes have few branches and long corridors.
+ *
+ * The search keeps its own int stack of room ids rather than recursing, so
+ * it can carve grids with tens of millions of rooms without overflowing the
+ * call stack.
+ */
+public class DepthFirstMazeCarver extends IndexedMazeCarver {
+    @Override
+    WallBitSet carve(MazeIndex index, SplittableRandom rand, ProgressListener progress) {
+        int numRooms = index.numRooms();
+
+        WallBitSet toRemove = new WallBitSet(index.numWalls());
+        BitSet visited = new BitSet(numRooms);
+
+        // Every room is pushed at most once, so the stack never needs to grow
+        int[] stack = new int[numRooms];
+        int numVisited = 0;
+
+        // Start a new search from every room not yet reached, in case the
+        // maze has more than one connected component
+        for (int startRoom = 0; startRoom < numRooms; startRoom++) {
+            if (visited.get(startRoom)) {
+                continue;
+            }
+            int stackSize = 0;
+            stack[stackSize++] = startRoom;
+            visited.set(startRoom);
+            numVisited++;
+
+            while (stackSize > 0) {
+                int room = stack[stackSize - 1];
+                int wallId = this.pickUnvisitedWall(index, visited, room, rand);
+                if (wallId < 0) {
+                    // Dead end: backtrack
+                    stackSize--;
+                } else {
+                    int next = index.getOtherRoom(wallId, room);
+                    visited.set(next);
+                    toRemove.set(wallId);
+                    stack[stackSize++] = next;
+
+                    numVisited++;
+                    if (numVisited % 4096 == 0) {
+                        progress.progress((double) numVisited / numRooms);
+                    }
+                }
+            }
+        }
+
+        progress.progress(1.0);
+        return toRemove;
+    }
+
+    /**
+     * Returns a uniformly random wall leading from the given room to a room
+     * that hasn't been visited yet, or -1 if there is no such wall.
+     */
+    private int pickUnvisitedWall(MazeIndex index, BitSet visited, int room, SplittableRandom rand) {
+        int degree = index.getDegree(room);
+
+        int numUnvisited = 0;
+        for (int i = 0; i < degree; i++) {
+            int wallId = index.getAdjacentWall(room, i);
+            if (!visited.get(index.getOtherRoom(wallId, room))) {
+                numUnvisited++;
+            }
+        }
+        if (numUnvisited == 0) {
+            return -1;
+        }
+
+        int choice = rand.nextInt(numUnvisited);
+        for (int i = 0; i < degree; i++) {
+            int wallId = index.getAdjacentWall(room, i);
+            if (!visited.get(index.getOtherRoom(wallId, room))) {
+                if (choice == 0) {
+                    return wallId;
+                }
+                choice--;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    @Override
+    public String toString() {
+        return "DepthFirstMazeCarver()";
+    }
+}
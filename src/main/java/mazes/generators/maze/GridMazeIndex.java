@@ -0,0 +1,104 @@
+package mazes.generators.maze;
+
+import mazes.entities.GridMaze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+
+/**
+ * A MazeIndex over a GridMaze, using the grid's own room and wall ids.
+ *
+ * Every wall id of the grid is included, open or not, since carvers start
+ * from a maze with every wall present. Nothing is stored: adjacency is worked
+ * out arithmetically.
+ */
+class GridMazeIndex implements MazeIndex {
+    private GridMaze maze;
+    private int numColumns;
+    private int numRows;
+
+    public GridMazeIndex(GridMaze maze) {
+        this.maze = maze;
+        this.numColumns = maze.getNumColumns();
+        this.numRows = maze.getNumRows();
+    }
+
+    @Override
+    public int numRooms() {
+        return this.maze.numRooms();
+    }
+
+    @Override
+    public int numWalls() {
+        return this.maze.numWallIds();
+    }
+
+    @Override
+    public Room getRoom(int roomId) {
+        return this.maze.getRoom(roomId);
+    }
+
+    @Override
+    public Wall getWall(int wallId) {
+        return this.maze.getWall(wallId);
+    }
+
+    @Override
+    public int getRoom1(int wallId) {
+        return this.maze.getWallRoom1(wallId);
+    }
+
+    @Override
+    public int getRoom2(int wallId) {
+        return this.maze.getWallRoom2(wallId);
+    }
+
+    @Override
+    public int getDegree(int roomId) {
+        int x = roomId % this.numColumns;
+        int y = roomId / this.numColumns;
+        int degree = 0;
+        if (x > 0) {
+            degree++;
+        }
+        if (x < this.numColumns - 1) {
+            degree++;
+        }
+        if (y > 0) {
+            degree++;
+        }
+        if (y < this.numRows - 1) {
+            degree++;
+        }
+        return degree;
+    }
+
+    @Override
+    public int getAdjacentWall(int roomId, int i) {
+        // Neighbors are listed west, east, north, south, skipping any that
+        // fall outside the grid
+        int x = roomId % this.numColumns;
+        int y = roomId / this.numColumns;
+        if (x > 0) {
+            if (i == 0) {
+                return this.maze.eastWallId(x - 1, y);
+            }
+            i--;
+        }
+        if (x < this.numColumns - 1) {
+            if (i == 0) {
+                return this.maze.eastWallId(x, y);
+            }
+            i--;
+        }
+        if (y > 0) {
+            if (i == 0) {
+                return this.maze.southWallId(x, y - 1);
+            }
+            i--;
+        }
+        if (y < this.numRows - 1 && i == 0) {
+            return this.maze.southWallId(x, y);
+        }
+        throw new IndexOutOfBoundsException();
+    }
+}
@@ -0,0 +1,47 @@
+package mazes.generators.maze;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+import mazes.entities.WallBitSet;
+import mazes.generators.ProgressListener;
+
+import java.util.SplittableRandom;
+
+/**
+ * A carver that works on room and wall ids rather than on Room and Wall objects.
+ *
+ * Subclasses only need to decide which wall ids to remove. Grid mazes are then
+ * carved without creating any Room or Wall objects at all.
+ */
+public abstract class IndexedMazeCarver implements MazeCarver {
+    /**
+     * Returns the ids of every wall in the index that should be removed, drawing
+     * every random choice from the given generator and reporting progress to the
+     * given listener.
+     */
+    abstract WallBitSet carve(MazeIndex index, SplittableRandom rand, ProgressListener progress);
+
+    @Override
+    public ISet<Wall> returnWallsToRemove(Maze maze, long seed) {
+        MazeIndex index = MazeIndex.of(maze);
+        WallBitSet removed = this.carve(index, new SplittableRandom(seed), ProgressListener.NONE);
+
+        ISet<Wall> toRemove = new ChainedHashSet<>();
+        for (int wallId = removed.nextSetBit(0); wallId >= 0; wallId = removed.nextSetBit(wallId + 1)) {
+            toRemove.add(index.getWall(wallId));
+        }
+        return toRemove;
+    }
+
+    @Override
+    public WallBitSet returnWallIdsToRemove(Maze maze, long seed) {
+        return this.carve(MazeIndex.of(maze), new SplittableRandom(seed), ProgressListener.NONE);
+    }
+
+    @Override
+    public WallBitSet returnWallIdsToRemove(Maze maze, long seed, ProgressListener progress) {
+        return this.carve(MazeIndex.of(maze), new SplittableRandom(seed), progress);
+    }
+}
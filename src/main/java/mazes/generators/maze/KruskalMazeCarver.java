@@ -1,13 +1,15 @@
 package mazes.generators.maze;
 
-import datastructures.concrete.ChainedHashSet;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
 import datastructures.interfaces.ISet;
 import mazes.entities.Maze;
 import mazes.entities.Room;
 import mazes.entities.Wall;
-import java.util.Random;
 import misc.graphs.Graph;
 
+import java.util.SplittableRandom;
+
 /**
  * Carves out a maze based on Kruskal's algorithm.
  *
@@ -15,31 +17,28 @@ import misc.graphs.Graph;
  */
 public class KruskalMazeCarver implements MazeCarver {
     @Override
-    public ISet<Wall> returnWallsToRemove(Maze maze) {
-        // Note: make sure that the input maze remains unmodified after this method is over.
-        //
-        // In particular, if you call 'wall.setDistance()' at any point, make sure to
-        // call 'wall.resetDistanceToOriginal()' on the same wall before returning.
+    public ISet<Wall> returnWallsToRemove(Maze maze, long seed) {
+        // Note: the input maze is never modified. The random weights live in a
+        // dictionary local to this call and are handed to the graph as a weight
+        // override, so several carvers may safely share the same base maze.
 
-        Random rand = new Random();
-        ISet<Wall> toRemove = new ChainedHashSet<>();
+        SplittableRandom rand = new SplittableRandom(seed);
 
-        // creates edges with random weight
+        // assigns every wall a random weight
+        IDictionary<Wall, Double> randomWeights = new ChainedHashDictionary<>();
         for (Wall wall : maze.getWalls()) {
-            double randDistance = rand.nextInt(200);
-            wall.setDistance(randDistance);
+            randomWeights.put(wall, (double) rand.nextInt(200));
         }
 
-        // use the random weight edges to create a graph and run MST
-        Graph<Room, Wall> graph = new Graph<>(maze.getRooms(), maze.getWalls());
-        toRemove = graph.findMinimumSpanningTree();
-
-        // reset the edges to the original distance
-        for (Wall wall : maze.getWalls()) {
-            wall.resetDistanceToOriginal();
-        }
+        // use the random weights to create a graph and run MST
+        Graph<Room, Wall> graph = new Graph<>(maze.getRooms(), maze.getWalls(), randomWeights::get);
 
         // return to remove any wall that was part of the MST to create maze
-        return toRemove;
+        return graph.findMinimumSpanningTree();
+    }
+
+    @Override
+    public String toString() {
+        return "KruskalMazeCarver()";
     }
 }
@@ -1,9 +1,14 @@
 package mazes.generators.maze;
 
-import datastructures.concrete.ChainedHashSet;
 import datastructures.interfaces.ISet;
+import mazes.entities.CarvedMaze;
+import mazes.entities.GridMaze;
 import mazes.entities.Maze;
 import mazes.entities.Wall;
+import mazes.entities.WallBitSet;
+import mazes.generators.ProgressListener;
+
+import java.util.SplittableRandom;
 
 /**
  * Represents a class that accepts some initial maze created by a BaseMazeGenerator,
@@ -15,28 +20,94 @@ public interface MazeCarver {
      *
      * Returns a list of every single wall that should be removed to form an
      * actually valid maze.
+     *
+     * Any randomness comes from the seed, so the same carver, maze and seed
+     * always remove the same walls.
+     */
+    public ISet<Wall> returnWallsToRemove(Maze maze, long seed);
+
+    /**
+     * Same as above, but with a fresh random seed.
      */
-    public ISet<Wall> returnWallsToRemove(Maze maze);
+    public default ISet<Wall> returnWallsToRemove(Maze maze) {
+        return this.returnWallsToRemove(maze, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Same as above, but returns the ids of the walls to remove, in the maze's
+     * own wall numbering (see Maze.getWallId).
+     *
+     * By default this numbers the walls returned by returnWallsToRemove(...);
+     * carvers that already work with ids can return them directly instead.
+     */
+    public default WallBitSet returnWallIdsToRemove(Maze maze, long seed) {
+        WallBitSet toRemove = new WallBitSet(maze.numWallIds());
+        for (Wall wall : this.returnWallsToRemove(maze, seed)) {
+            int wallId = maze.getWallId(wall);
+            if (wallId >= 0) {
+                toRemove.set(wallId);
+            }
+        }
+        return toRemove;
+    }
+
+    /**
+     * Same as above, but reports its progress to the given listener along the way.
+     *
+     * By default only the end is reported; carvers that can take a while override
+     * this to report more often.
+     */
+    public default WallBitSet returnWallIdsToRemove(Maze maze, long seed, ProgressListener progress) {
+        WallBitSet toRemove = this.returnWallIdsToRemove(maze, seed);
+        progress.progress(1.0);
+        return toRemove;
+    }
 
     /**
      * Exists a "maze" where there exists a wall between every single room,
      * and returns a new maze that's actually solvable/contains paths
      * between rooms.
+     *
+     * The new maze shares its rooms and wall numbering with the initial one,
+     * and stores only one bit per wall.
      */
-    public default Maze generateMaze(Maze initialMaze) {
-        // Note: this method is already implemented for you. You do not
-        // need to modify it (though you should make sure you understand
-        // what it's doing).
-
-        ISet<Wall> toRemove = this.returnWallsToRemove(initialMaze);
+    public default Maze generateMaze(Maze initialMaze, long seed) {
+        return this.generateMaze(initialMaze, seed, ProgressListener.NONE);
+    }
 
-        ISet<Wall> newWalls = new ChainedHashSet<>();
-        for (Wall wall : initialMaze.getWalls()) {
-            if (!toRemove.contains(wall)) {
-                newWalls.add(wall);
-            }
+    /**
+     * Same as above, but reports the carver's progress to the given listener along the way.
+     */
+    public default Maze generateMaze(Maze initialMaze, long seed, ProgressListener progress) {
+        WallBitSet toRemove = this.returnWallIdsToRemove(initialMaze, seed, progress);
+        if (initialMaze instanceof GridMaze) {
+            return ((GridMaze) initialMaze).withOpenings(toRemove);
         }
 
-        return new Maze(initialMaze.getRooms(), newWalls, initialMaze.getUntouchableWalls());
+        // The surviving walls are found word-by-word on the bitsets, rather
+        // than by looking up every wall in a hash set
+        return new CarvedMaze(initialMaze, initialMaze.getPresentWalls().andNot(toRemove));
+    }
+
+    /**
+     * Same as above, but keeps the result in the compact GridMaze form by
+     * opening the removed walls.
+     */
+    public default GridMaze generateMaze(GridMaze initialMaze, long seed) {
+        return initialMaze.withOpenings(this.returnWallIdsToRemove(initialMaze, seed));
+    }
+
+    /**
+     * Same as generateMaze(Maze, long), but with a fresh random seed.
+     */
+    public default Maze generateMaze(Maze initialMaze) {
+        return this.generateMaze(initialMaze, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Same as generateMaze(GridMaze, long), but with a fresh random seed.
+     */
+    public default GridMaze generateMaze(GridMaze initialMaze) {
+        return this.generateMaze(initialMaze, new SplittableRandom().nextLong());
     }
 }
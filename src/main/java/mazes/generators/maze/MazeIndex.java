@@ -0,0 +1,62 @@
+package mazes.generators.maze;
+
+import mazes.entities.GridMaze;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+
+/**
+ * Numbers the rooms and removable walls of a maze so carvers can work with
+ * plain ints instead of hashing Room and Wall objects in their inner loops.
+ *
+ * Rooms are numbered 0 to numRooms() - 1 and walls 0 to numWalls() - 1.
+ */
+interface MazeIndex {
+    /**
+     * Returns an index over the given maze. Grid mazes are indexed directly,
+     * without creating any Room or Wall objects.
+     */
+    public static MazeIndex of(Maze maze) {
+        if (maze instanceof GridMaze) {
+            return new GridMazeIndex((GridMaze) maze);
+        }
+        return new ObjectMazeIndex(maze);
+    }
+
+    public int numRooms();
+
+    public int numWalls();
+
+    public Room getRoom(int roomId);
+
+    public Wall getWall(int wallId);
+
+    /**
+     * Returns the id of the first room the given wall separates.
+     */
+    public int getRoom1(int wallId);
+
+    /**
+     * Returns the id of the other room the given wall separates.
+     */
+    public int getRoom2(int wallId);
+
+    /**
+     * Returns the id of the room on the other side of the given wall.
+     */
+    public default int getOtherRoom(int wallId, int roomId) {
+        int room1 = this.getRoom1(wallId);
+        return room1 == roomId ? this.getRoom2(wallId) : room1;
+    }
+
+    /**
+     * Returns the number of walls touching the given room.
+     */
+    public int getDegree(int roomId);
+
+    /**
+     * Returns the id of the i-th wall touching the given room, where
+     * 0 <= i < getDegree(roomId).
+     */
+    public int getAdjacentWall(int roomId, int i);
+}
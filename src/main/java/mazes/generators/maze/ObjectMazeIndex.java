@@ -0,0 +1,109 @@
+package mazes.generators.maze;
+
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+
+/**
+ * A MazeIndex over any maze, built by numbering its Room and Wall objects.
+ *
+ * Rooms are numbered in the iteration order of the maze's set of rooms, and
+ * walls use the maze's own wall numbering. The maze itself is never modified.
+ *
+ * The walls touching each room are kept in one flat array (compressed sparse
+ * row form): the walls of room r are adjacentWalls[adjacencyOffsets[r]] up to,
+ * but not including, adjacentWalls[adjacencyOffsets[r + 1]].
+ */
+class ObjectMazeIndex implements MazeIndex {
+    private Room[] rooms;
+    private Wall[] walls;
+    private int[] wallRoom1;
+    private int[] wallRoom2;
+    private int[] adjacencyOffsets;
+    private int[] adjacentWalls;
+
+    public ObjectMazeIndex(Maze maze) {
+        this.rooms = new Room[maze.getRooms().size()];
+        IDictionary<Room, Integer> roomIds = new ChainedHashDictionary<>();
+        int roomId = 0;
+        for (Room room : maze.getRooms()) {
+            this.rooms[roomId] = room;
+            roomIds.put(room, roomId);
+            roomId++;
+        }
+
+        this.walls = new Wall[maze.numWallIds()];
+        this.wallRoom1 = new int[this.walls.length];
+        this.wallRoom2 = new int[this.walls.length];
+        for (int wallId = 0; wallId < this.walls.length; wallId++) {
+            Wall wall = maze.getWall(wallId);
+            this.walls[wallId] = wall;
+            this.wallRoom1[wallId] = roomIds.get(wall.getRoom1());
+            this.wallRoom2[wallId] = roomIds.get(wall.getRoom2());
+        }
+
+        this.buildAdjacency();
+    }
+
+    private void buildAdjacency() {
+        // Count the walls of each room, then turn the counts into start offsets
+        this.adjacencyOffsets = new int[this.rooms.length + 1];
+        for (int wallId = 0; wallId < this.walls.length; wallId++) {
+            this.adjacencyOffsets[this.wallRoom1[wallId] + 1]++;
+            this.adjacencyOffsets[this.wallRoom2[wallId] + 1]++;
+        }
+        for (int roomId = 0; roomId < this.rooms.length; roomId++) {
+            this.adjacencyOffsets[roomId + 1] += this.adjacencyOffsets[roomId];
+        }
+
+        int[] next = new int[this.rooms.length];
+        System.arraycopy(this.adjacencyOffsets, 0, next, 0, this.rooms.length);
+        this.adjacentWalls = new int[2 * this.walls.length];
+        for (int wallId = 0; wallId < this.walls.length; wallId++) {
+            this.adjacentWalls[next[this.wallRoom1[wallId]]++] = wallId;
+            this.adjacentWalls[next[this.wallRoom2[wallId]]++] = wallId;
+        }
+    }
+
+    @Override
+    public int numRooms() {
+        return this.rooms.length;
+    }
+
+    @Override
+    public int numWalls() {
+        return this.walls.length;
+    }
+
+    @Override
+    public Room getRoom(int roomId) {
+        return this.rooms[roomId];
+    }
+
+    @Override
+    public Wall getWall(int wallId) {
+        return this.walls[wallId];
+    }
+
+    @Override
+    public int getRoom1(int wallId) {
+        return this.wallRoom1[wallId];
+    }
+
+    @Override
+    public int getRoom2(int wallId) {
+        return this.wallRoom2[wallId];
+    }
+
+    @Override
+    public int getDegree(int roomId) {
+        return this.adjacencyOffsets[roomId + 1] - this.adjacencyOffsets[roomId];
+    }
+
+    @Override
+    public int getAdjacentWall(int roomId, int i) {
+        return this.adjacentWalls[this.adjacencyOffsets[roomId] + i];
+    }
+}
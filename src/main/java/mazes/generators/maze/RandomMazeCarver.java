@@ -5,7 +5,7 @@ import datastructures.interfaces.ISet;
 import mazes.entities.Maze;
 import mazes.entities.Wall;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Randomly removes edges with a certain percent probability
@@ -18,8 +18,8 @@ public class RandomMazeCarver implements MazeCarver {
     }
 
     @Override
-    public ISet<Wall> returnWallsToRemove(Maze maze) {
-        Random rand = new Random();
+    public ISet<Wall> returnWallsToRemove(Maze maze, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
 
         ISet<Wall> toRemove = new ChainedHashSet<>();
         for (Wall wall : maze.getWalls()) {
@@ -29,4 +29,9 @@ public class RandomMazeCarver implements MazeCarver {
         }
         return toRemove;
     }
+
+    @Override
+    public String toString() {
+        return String.format("RandomMazeCarver(%s)", this.probabilityOfKeepingEdge);
+    }
 }
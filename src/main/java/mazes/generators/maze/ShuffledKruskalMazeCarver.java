@@ -0,0 +1,54 @@
+package mazes.generators.maze;
+
+import datastructures.concrete.IntDisjointSet;
+import mazes.entities.WallBitSet;
+import mazes.generators.ProgressListener;
+
+import java.util.SplittableRandom;
+
+/**
+ * Carves out a maze using randomized Kruskal's algorithm.
+ *
+ * Rather than giving every wall a random weight and sorting, this carver
+ * shuffles the walls (every order is equally likely) and makes a single
+ * union-find pass over them, removing each wall that joins two rooms
+ * which aren't yet connected. No comparisons are made at all.
+ */
+public class ShuffledKruskalMazeCarver extends IndexedMazeCarver {
+    @Override
+    WallBitSet carve(MazeIndex index, SplittableRandom rand, ProgressListener progress) {
+        int numWalls = index.numWalls();
+
+        // Fisher-Yates shuffle of the wall ids
+        int[] order = new int[numWalls];
+        for (int i = 0; i < numWalls; i++) {
+            order[i] = i;
+        }
+        for (int i = numWalls - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        progress.progress(0.5);
+
+        IntDisjointSet forest = new IntDisjointSet(index.numRooms());
+        WallBitSet toRemove = new WallBitSet(index.numWalls());
+        for (int i = 0; i < numWalls; i++) {
+            int wallId = order[i];
+            if (forest.union(index.getRoom1(wallId), index.getRoom2(wallId))) {
+                toRemove.set(wallId);
+            }
+            if (i % 4096 == 4095) {
+                progress.progress(0.5 + 0.5 * (i + 1) / numWalls);
+            }
+        }
+        progress.progress(1.0);
+        return toRemove;
+    }
+
+    @Override
+    public String toString() {
+        return "ShuffledKruskalMazeCarver()";
+    }
+}
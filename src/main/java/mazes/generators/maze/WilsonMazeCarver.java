@@ -0,0 +1,151 @@
+package mazes.generators.maze;
+
+import datastructures.concrete.IntDisjointSet;
+import mazes.entities.WallBitSet;
+import mazes.generators.ProgressListener;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Carves out a maze using Wilson's algorithm, which picks uniformly at random
+ * among every possible spanning tree of the rooms. Unlike Kruskal's algorithm
+ * or a depth-first search, no maze shape is any more likely than another.
+ *
+ * Each room not yet in the maze starts a random walk that continues until it
+ * hits the maze. Loops are erased by remembering only the last wall taken out
+ * of each room (in an int array indexed by room id), so walks never allocate.
+ * The loop-free path is then added to the maze.
+ *
+ * The first walks are slow, because the maze is still small and hard to hit. So
+ * this carver can optionally begin with the Aldous-Broder algorithm, a single
+ * random walk that adds each room when it is first entered, and switch to
+ * Wilson's algorithm once a given fraction of the rooms are in the maze. The
+ * result is still a uniformly random spanning tree.
+ */
+public class WilsonMazeCarver extends IndexedMazeCarver {
+    private double aldousBroderFraction;
+
+    /**
+     * Creates a carver that runs Wilson's algorithm from the start.
+     */
+    public WilsonMazeCarver() {
+        this(0.0);
+    }
+
+    /**
+     * @param aldousBroderFraction  the fraction of rooms (between 0 and 1) to add using
+     *                              Aldous-Broder before switching to Wilson's algorithm
+     * @throws IllegalArgumentException  if aldousBroderFraction is not between 0 and 1
+     */
+    public WilsonMazeCarver(double aldousBroderFraction) {
+        if (aldousBroderFraction < 0.0 || aldousBroderFraction > 1.0) {
+            throw new IllegalArgumentException();
+        }
+        this.aldousBroderFraction = aldousBroderFraction;
+    }
+
+    @Override
+    WallBitSet carve(MazeIndex index, SplittableRandom rand, ProgressListener progress) {
+        int numRooms = index.numRooms();
+
+        WallBitSet toRemove = new WallBitSet(index.numWalls());
+        BitSet inMaze = new BitSet(numRooms);
+        if (numRooms == 0) {
+            progress.progress(1.0);
+            return toRemove;
+        }
+
+        // A walk can only end by hitting the maze, so every connected component
+        // needs a room of its own to start from. We use the first room of each.
+        IntDisjointSet components = new IntDisjointSet(numRooms);
+        for (int wallId = 0; wallId < index.numWalls(); wallId++) {
+            components.union(index.getRoom1(wallId), index.getRoom2(wallId));
+        }
+        BitSet componentStarted = new BitSet(numRooms);
+        int firstComponentSize = 0;
+        for (int room = 0; room < numRooms; room++) {
+            int component = components.findSet(room);
+            if (!componentStarted.get(component)) {
+                componentStarted.set(component);
+                inMaze.set(room);
+            }
+            if (component == components.findSet(0)) {
+                firstComponentSize++;
+            }
+        }
+
+        // Aldous-Broder never leaves the component it starts in, so it can't
+        // be asked to cover more rooms than that component has
+        int aldousBroderRooms = Math.min(firstComponentSize, (int) (this.aldousBroderFraction * numRooms));
+        this.runAldousBroder(index, inMaze, aldousBroderRooms, toRemove, rand);
+        progress.progress((double) aldousBroderRooms / numRooms);
+
+        int[] nextWall = new int[numRooms];
+        for (int room = 0; room < numRooms; room++) {
+            if (!inMaze.get(room)) {
+                this.runLoopErasedWalk(index, inMaze, nextWall, room, toRemove, rand);
+            }
+            if (room % 4096 == 4095) {
+                // Every room up to this one is in the maze by now, as are the Aldous-Broder rooms
+                progress.progress(Math.max((double) aldousBroderRooms, room + 1.0) / numRooms);
+            }
+        }
+
+        progress.progress(1.0);
+        return toRemove;
+    }
+
+    /**
+     * Walks randomly from room 0 (which is already in the maze), adding every
+     * room to the maze the first time it is entered, until the maze contains
+     * 'targetRooms' rooms out of room 0's component.
+     */
+    private void runAldousBroder(MazeIndex index, BitSet inMaze, int targetRooms, WallBitSet toRemove,
+                                 SplittableRandom rand) {
+        int room = 0;
+        int numAdded = 1;
+        while (numAdded < targetRooms) {
+            int wallId = this.pickRandomWall(index, room, rand);
+            int next = index.getOtherRoom(wallId, room);
+            if (!inMaze.get(next)) {
+                inMaze.set(next);
+                toRemove.set(wallId);
+                numAdded++;
+            }
+            room = next;
+        }
+    }
+
+    /**
+     * Walks randomly from the given room until it hits the maze, then adds the
+     * walk (minus any loops) to the maze.
+     */
+    private void runLoopErasedWalk(MazeIndex index, BitSet inMaze, int[] nextWall, int start, WallBitSet toRemove,
+                                   SplittableRandom rand) {
+        // Revisiting a room overwrites its exit, which erases the loop in between
+        int room = start;
+        while (!inMaze.get(room)) {
+            int wallId = this.pickRandomWall(index, room, rand);
+            nextWall[room] = wallId;
+            room = index.getOtherRoom(wallId, room);
+        }
+
+        room = start;
+        while (!inMaze.get(room)) {
+            inMaze.set(room);
+            int wallId = nextWall[room];
+            toRemove.set(wallId);
+            room = index.getOtherRoom(wallId, room);
+        }
+    }
+
+    private int pickRandomWall(MazeIndex index, int room, SplittableRandom rand) {
+        return index.getAdjacentWall(room, rand.nextInt(index.getDegree(room)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WilsonMazeCarver(%s)", this.aldousBroderFraction);
+    }
+}
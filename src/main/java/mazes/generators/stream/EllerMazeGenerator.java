@@ -0,0 +1,178 @@
+package mazes.generators.stream;
+
+import datastructures.concrete.IntDisjointSet;
+
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generates a grid maze one row at a time using Eller's algorithm.
+ *
+ * Unlike GridGenerator plus a MazeCarver, this never holds the whole maze: it
+ * remembers only which set each cell of the current row belongs to, so memory
+ * use is proportional to the number of columns no matter how many rows are
+ * produced. That makes it suitable for mazes which are unbounded in height --
+ * call nextRow() for as long as needed, then lastRow() to close the maze off.
+ *
+ * Every maze produced is a perfect maze: each pair of cells is connected by
+ * exactly one path.
+ *
+ * A generator produces a single maze; it is not safe to share between threads.
+ */
+public class EllerMazeGenerator {
+    private int numColumns;
+    private SplittableRandom rand;
+
+    // The set each cell of the upcoming row has inherited from the row above,
+    // numbered 0 to numColumns - 1, or NO_SET if the cell starts a set of its own
+    private int[] setIds;
+    private long rowIndex;
+    private boolean finished;
+
+    private static final int NO_SET = -1;
+
+    /**
+     * @throws IllegalArgumentException  if numColumns is not positive
+     */
+    public EllerMazeGenerator(int numColumns) {
+        this(numColumns, new SplittableRandom());
+    }
+
+    /**
+     * Same as above, except the generator produces the same maze every time
+     * it is given the same seed.
+     */
+    public EllerMazeGenerator(int numColumns, long seed) {
+        this(numColumns, new SplittableRandom(seed));
+    }
+
+    private EllerMazeGenerator(int numColumns, SplittableRandom rand) {
+        if (numColumns <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.numColumns = numColumns;
+        this.rand = rand;
+        this.setIds = new int[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            this.setIds[i] = NO_SET;
+        }
+        this.rowIndex = 0;
+        this.finished = false;
+    }
+
+    /**
+     * Generates a maze with the given number of rows, handing each row to the
+     * given handler as soon as it is produced.
+     *
+     * @throws IllegalArgumentException  if numRows is not positive
+     * @throws IllegalStateException  if this generator has already produced its last row
+     */
+    public void generate(long numRows, Consumer<MazeRow> handler) {
+        if (numRows <= 0) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = 1; i < numRows; i++) {
+            handler.accept(this.nextRow());
+        }
+        handler.accept(this.lastRow());
+    }
+
+    /**
+     * Returns the next row of the maze. At least one cell of every set opens
+     * downward, so the maze can always be continued or closed off.
+     *
+     * @throws IllegalStateException  if this generator has already produced its last row
+     */
+    public MazeRow nextRow() {
+        if (this.finished) {
+            throw new IllegalStateException("The last row has already been generated");
+        }
+
+        // Cells that start a set of their own are given ids numColumns and up,
+        // so they can never collide with the inherited ids
+        IntDisjointSet sets = new IntDisjointSet(2 * this.numColumns);
+        boolean[] eastOpen = new boolean[this.numColumns - 1];
+        for (int col = 0; col < this.numColumns - 1; col++) {
+            if (this.rand.nextBoolean()) {
+                eastOpen[col] = sets.union(this.setOf(col), this.setOf(col + 1));
+            }
+        }
+
+        // Open each cell downward at random, then make sure every set opens
+        // downward at least once. For each set, the forced opening goes to a
+        // cell picked uniformly at random (reservoir sampling).
+        boolean[] southOpen = new boolean[this.numColumns];
+        boolean[] setOpensSouth = new boolean[2 * this.numColumns];
+        int[] setSize = new int[2 * this.numColumns];
+        int[] candidate = new int[2 * this.numColumns];
+        for (int col = 0; col < this.numColumns; col++) {
+            int root = sets.findSet(this.setOf(col));
+            setSize[root]++;
+            if (this.rand.nextInt(setSize[root]) == 0) {
+                candidate[root] = col;
+            }
+            if (this.rand.nextBoolean()) {
+                southOpen[col] = true;
+                setOpensSouth[root] = true;
+            }
+        }
+        for (int col = 0; col < this.numColumns; col++) {
+            int root = sets.findSet(this.setOf(col));
+            if (!setOpensSouth[root]) {
+                southOpen[candidate[root]] = true;
+                setOpensSouth[root] = true;
+            }
+        }
+
+        // Carry sets down to the next row, renumbering them 0 to numColumns - 1
+        int[] newIds = new int[2 * this.numColumns];
+        for (int i = 0; i < newIds.length; i++) {
+            newIds[i] = NO_SET;
+        }
+        int nextId = 0;
+        int[] nextSetIds = new int[this.numColumns];
+        for (int col = 0; col < this.numColumns; col++) {
+            if (southOpen[col]) {
+                int root = sets.findSet(this.setOf(col));
+                if (newIds[root] == NO_SET) {
+                    newIds[root] = nextId;
+                    nextId++;
+                }
+                nextSetIds[col] = newIds[root];
+            } else {
+                nextSetIds[col] = NO_SET;
+            }
+        }
+        this.setIds = nextSetIds;
+
+        MazeRow row = new MazeRow(this.rowIndex, eastOpen, southOpen, false);
+        this.rowIndex++;
+        return row;
+    }
+
+    /**
+     * Returns the final row of the maze, which joins every remaining set so the
+     * whole maze is connected. No further rows may be generated afterwards.
+     *
+     * @throws IllegalStateException  if this generator has already produced its last row
+     */
+    public MazeRow lastRow() {
+        if (this.finished) {
+            throw new IllegalStateException("The last row has already been generated");
+        }
+
+        IntDisjointSet sets = new IntDisjointSet(2 * this.numColumns);
+        boolean[] eastOpen = new boolean[this.numColumns - 1];
+        for (int col = 0; col < this.numColumns - 1; col++) {
+            eastOpen[col] = sets.union(this.setOf(col), this.setOf(col + 1));
+        }
+
+        this.finished = true;
+        return new MazeRow(this.rowIndex, eastOpen, new boolean[this.numColumns], true);
+    }
+
+    private int setOf(int col) {
+        int id = this.setIds[col];
+        return id == NO_SET ? this.numColumns + col : id;
+    }
+}
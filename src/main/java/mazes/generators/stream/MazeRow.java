@@ -0,0 +1,63 @@
+package mazes.generators.stream;
+
+/**
+ * One row of a grid maze, as produced by a streaming generator.
+ *
+ * A row records which of the walls between horizontally adjacent cells are
+ * open, and which cells open downward into the next row. The outer border of
+ * the maze is always closed. The last row of a maze has no downward openings.
+ */
+public class MazeRow {
+    private long rowIndex;
+    private boolean[] eastOpen;
+    private boolean[] southOpen;
+    private boolean lastRow;
+
+    public MazeRow(long rowIndex, boolean[] eastOpen, boolean[] southOpen, boolean lastRow) {
+        this.rowIndex = rowIndex;
+        this.eastOpen = eastOpen;
+        this.southOpen = southOpen;
+        this.lastRow = lastRow;
+    }
+
+    /**
+     * Returns the index of this row; the first row of a maze has index 0.
+     */
+    public long getRowIndex() {
+        return this.rowIndex;
+    }
+
+    /**
+     * Returns the number of cells in this row.
+     */
+    public int getNumColumns() {
+        return this.southOpen.length;
+    }
+
+    /**
+     * Returns true if there is a passage between the given cell and the cell
+     * to its right (the cell in the next column).
+     *
+     * @throws IndexOutOfBoundsException  if column is not between 0 and getNumColumns() - 2
+     */
+    public boolean isEastOpen(int column) {
+        return this.eastOpen[column];
+    }
+
+    /**
+     * Returns true if there is a passage between the given cell and the cell
+     * below it (the same column in the next row).
+     *
+     * @throws IndexOutOfBoundsException  if column is not between 0 and getNumColumns() - 1
+     */
+    public boolean isSouthOpen(int column) {
+        return this.southOpen[column];
+    }
+
+    /**
+     * Returns true if this is the final row of the maze.
+     */
+    public boolean isLastRow() {
+        return this.lastRow;
+    }
+}
@@ -9,6 +9,7 @@ import mazes.entities.LineSegment;
 import java.awt.*;
 import java.awt.geom.Path2D;
 import java.awt.image.ImageObserver;
+import java.util.function.Consumer;
 
 /**
  * This class contains some useful utility methods for drawing to the plotting window.
@@ -18,6 +19,7 @@ import java.awt.image.ImageObserver;
  */
 public class ImageDrawer implements ImageObserver {
     private static final int UNKNOWN_DIMENSION = -1;
+    private static final int POINT_RADIUS = 4;
 
     private Graphics2D graphics;
     private int width = UNKNOWN_DIMENSION;
@@ -25,10 +27,27 @@ public class ImageDrawer implements ImageObserver {
 
     private int padding;
 
+    // Told about every region drawn over, once each drawing method finishes
+    private Consumer<Rectangle> onDirty;
+    private Rectangle dirty;
+    private int drawingDepth;
+
     /**
      * Creates a new ImageDrawer object based on the given panel.
      */
     public ImageDrawer(Image image, int padding) {
+        this(image, padding, null);
+    }
+
+    /**
+     * Same as above, but after each drawing method, passes the bounding rectangle of
+     * everything it drew to 'onDirty' (if it drew anything), so that only that part
+     * of the screen has to be repainted.
+     *
+     * Anything drawn directly through getGraphics() must be reported with markDirty(...).
+     */
+    public ImageDrawer(Image image, int padding, Consumer<Rectangle> onDirty) {
+        this.onDirty = onDirty;
         this.graphics = (Graphics2D) image.getGraphics();
         this.width = image.getWidth(this);
         this.height = image.getHeight(this);
@@ -60,6 +79,16 @@ public class ImageDrawer implements ImageObserver {
         return this.graphics;
     }
 
+    /**
+     * Reports that the given region of the image was drawn over by hand, through
+     * getGraphics().
+     */
+    public void markDirty(Rectangle region) {
+        this.startDrawing();
+        this.touch(region);
+        this.finishDrawing();
+    }
+
     /**
      * Returns the width of the window, in pixels.
      *
@@ -122,6 +151,7 @@ public class ImageDrawer implements ImageObserver {
     }
 
     public void drawMaze(Maze maze, boolean showEdges) {
+        this.startDrawing();
         Color originalColor = this.graphics.getColor();
         Stroke originalStroke = this.graphics.getStroke();
 
@@ -129,18 +159,24 @@ public class ImageDrawer implements ImageObserver {
         this.graphics.setStroke(new BasicStroke(4));
 
         this.graphics.draw(this.getBoundingBox());
+        this.touch(this.getBoundingBox());
+
+        // Walls are deliberately drawn one drawLine(...) at a time: Java2D draws a wide
+        // antialiased line as a parallelogram, which is several times quicker than
+        // stroking the same lines batched into one path (see RenderBenchmark)
         for (Wall wall : maze.getWalls()) {
             this.drawLineSegment(wall.getDividingLine());
-            if (showEdges) {
-                this.drawPath(wall);
-            }
         }
         for (Wall wall : maze.getUntouchableWalls()) {
             this.drawLineSegment(wall.getDividingLine());
         }
+        if (showEdges) {
+            this.drawBypasses(maze.getWalls());
+        }
 
         this.graphics.setColor(originalColor);
         this.graphics.setStroke(originalStroke);
+        this.finishDrawing();
     }
 
     public void drawLineSegment(LineSegment segment) {
@@ -148,7 +184,10 @@ public class ImageDrawer implements ImageObserver {
     }
 
     public void drawLineSegment(Point a, Point b) {
+        this.startDrawing();
         this.graphics.drawLine(a.x, a.y, b.x, b.y);
+        this.touch(new Rectangle(Math.min(a.x, b.x), Math.min(a.y, b.y), Math.abs(a.x - b.x), Math.abs(a.y - b.y)));
+        this.finishDrawing();
     }
 
     public void drawPath(Wall wall) {
@@ -158,12 +197,29 @@ public class ImageDrawer implements ImageObserver {
     }
 
     public void drawPath(IList<Wall> wallsBypassed) {
+        this.drawBypasses(wallsBypassed);
+    }
+
+    /**
+     * Draws every wall's two rooms as points, joined by a curve through the wall.
+     *
+     * Consecutive walls of a path share a room, whose point is only drawn once. When a
+     * wall's midpoint lies on the line between the two rooms (as it always does in a
+     * grid), the curve is exactly that line, and is drawn as one: see drawMaze(...).
+     * The other curves are all drawn with the same path object, reset for each one.
+     */
+    private void drawBypasses(Iterable<Wall> wallsBypassed) {
+        this.startDrawing();
         Color originalColor = this.graphics.getColor();
         Stroke originalStroke = this.graphics.getStroke();
 
         this.graphics.setColor(Color.RED);
         this.graphics.setStroke(new BasicStroke(2));
 
+        // A moveTo and a curveTo
+        Path2D.Float curve = new Path2D.Float(Path2D.WIND_NON_ZERO, 2);
+        Point previous1 = null;
+        Point previous2 = null;
         for (Wall wall : wallsBypassed) {
             LineSegment segment = wall.getDividingLine();
 
@@ -171,31 +227,89 @@ public class ImageDrawer implements ImageObserver {
             Point center2 = wall.getRoom2().getCenter();
             Point midpoint = segment.midpoint();
 
-            this.drawPoint(center1);
-            this.drawPoint(center2);
+            if (!center1.equals(previous1) && !center1.equals(previous2)) {
+                this.drawPoint(center1);
+            }
+            if (!center2.equals(previous1) && !center2.equals(previous2)) {
+                this.drawPoint(center2);
+            }
+            previous1 = center1;
+            previous2 = center2;
 
-            Path2D.Double path = new Path2D.Double();
-            path.moveTo(center1.x, center1.y);
-            path.curveTo(midpoint.x, midpoint.y, midpoint.x, midpoint.y, center2.x, center2.y);
-            this.graphics.draw(path);
+            if (LineSegment.isBetween(center1, midpoint, center2)) {
+                this.drawLineSegment(center1, center2);
+            } else {
+                curve.reset();
+                curve.moveTo(center1.x, center1.y);
+                curve.curveTo(midpoint.x, midpoint.y, midpoint.x, midpoint.y, center2.x, center2.y);
+                this.graphics.draw(curve);
+                this.touch(curve.getBounds());
+            }
         }
 
         this.graphics.setColor(originalColor);
         this.graphics.setStroke(originalStroke);
+        this.finishDrawing();
     }
 
     public void drawPoint(Point point) {
+        this.startDrawing();
         Color originalColor = this.graphics.getColor();
         this.graphics.setColor(Color.RED);
-        int radius = 4;
+        int radius = POINT_RADIUS;
         this.graphics.fillOval(point.x - radius, point.y - radius, radius * 2, radius * 2);
+        this.touch(new Rectangle(point.x - radius, point.y - radius, radius * 2, radius * 2));
         this.graphics.setColor(originalColor);
+        this.finishDrawing();
     }
 
     public void clear() {
+        this.startDrawing();
         Color originalColor = this.graphics.getColor();
         this.graphics.setColor(Color.WHITE);
         this.graphics.fillRect(0, 0, this.getWidth(), this.getHeight());
+        this.touch(new Rectangle(0, 0, this.getWidth(), this.getHeight()));
         this.graphics.setColor(originalColor);
+        this.finishDrawing();
+    }
+
+    /**
+     * Drawing methods call each other, so the dirty region is only reported once the
+     * outermost one finishes.
+     */
+    private void startDrawing() {
+        this.drawingDepth++;
+    }
+
+    private void finishDrawing() {
+        this.drawingDepth--;
+        if (this.drawingDepth == 0 && this.dirty != null) {
+            Rectangle region = this.dirty;
+            this.dirty = null;
+            if (this.onDirty != null) {
+                this.onDirty.accept(region);
+            }
+        }
+    }
+
+    /**
+     * Adds the given shape bounds to the dirty region, widened to cover the current
+     * stroke and antialiasing.
+     */
+    private void touch(Rectangle bounds) {
+        if (this.onDirty == null) {
+            return;
+        }
+        Stroke stroke = this.graphics.getStroke();
+        float strokeWidth = stroke instanceof BasicStroke ? ((BasicStroke) stroke).getLineWidth() : 1;
+        int margin = (int) Math.ceil(strokeWidth / 2) + 1;
+
+        Rectangle region = new Rectangle(bounds);
+        region.grow(margin, margin);
+        if (this.dirty == null) {
+            this.dirty = region;
+        } else {
+            this.dirty.add(region);
+        }
     }
 }
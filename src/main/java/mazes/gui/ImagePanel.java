@@ -1,15 +1,31 @@
 package mazes.gui;
 
+import mazes.render.MazeView;
+import mazes.render.Viewport;
+
 import javax.swing.*;
-import javax.swing.event.AncestorEvent;
-import javax.swing.event.AncestorListener;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 
+/**
+ * Shows an image, repainting only when and where it changes: drawers made by
+ * getImageDrawer() report the regions they draw over, and setImage(...) repaints
+ * everything. When nothing is being drawn, nothing is repainted.
+ *
+ * Once given a maze view with setView(...), the maze can be zoomed with the mouse
+ * wheel, panned by dragging, and reset by double-clicking; each of those redraws
+ * the image from the view.
+ */
 public class ImagePanel extends JPanel {
-    private static final int PADDING = 5;
-    private static final int DELAY = 100;  // In milliseconds
+    public static final int PADDING = 5;
+    // How much one notch of the mouse wheel zooms by
+    private static final double ZOOM_STEP = 1.25;
+
     private Image image;
-    private Timer timer;
+    private MazeView view;
+    private Viewport viewport;
 
     public ImagePanel(Image image) {
         super(true);
@@ -17,47 +33,113 @@ public class ImagePanel extends JPanel {
         this.setBackground(Color.WHITE);
         this.setPreferredSize(new Dimension(image.getWidth(this), image.getHeight(this)));
         this.setAlignmentX(Component.LEFT_ALIGNMENT);
-        this.timer = new Timer(DELAY, e -> this.repaint());
-        this.timer.start();
-        this.addAncestorListener(new Closer());
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private Point dragStart;
+
+            @Override
+            public void mousePressed(MouseEvent event) {
+                this.dragStart = event.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent event) {
+                if (ImagePanel.this.viewport != null && this.dragStart != null) {
+                    ImagePanel.this.viewport.pan(event.getX() - this.dragStart.x, event.getY() - this.dragStart.y);
+                    this.dragStart = event.getPoint();
+                    ImagePanel.this.redrawView();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent event) {
+                if (ImagePanel.this.viewport != null && event.getClickCount() == 2) {
+                    ImagePanel.this.viewport.fit();
+                    ImagePanel.this.redrawView();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent event) {
+                if (ImagePanel.this.viewport != null) {
+                    ImagePanel.this.viewport.zoom(Math.pow(ZOOM_STEP, -event.getPreciseWheelRotation()), event.getPoint());
+                    ImagePanel.this.redrawView();
+                }
+            }
+        };
+        this.addMouseListener(mouse);
+        this.addMouseMotionListener(mouse);
+        this.addMouseWheelListener(mouse);
     }
 
+    /**
+     * Returns a drawer for the image on screen, which repaints each region it draws over.
+     *
+     * If a view is set, the drawer draws in maze coordinates, through the current viewport.
+     */
     public ImageDrawer getImageDrawer() {
-        return new ImageDrawer(this.image, PADDING);
+        // repaint(...) may be called from any thread; Swing merges the regions and
+        // paints them on the event dispatch thread
+        Viewport current = this.viewport;
+        ImageDrawer drawer = new ImageDrawer(this.image, PADDING,
+                region -> this.repaint(current == null ? region : current.toScreen(region)));
+        if (current != null) {
+            drawer.getGraphics().transform(current.getTransform());
+        }
+        return drawer;
+    }
+
+    /**
+     * Returns a viewport showing the whole of an image the size of this one,
+     * as drawn with no zoom.
+     */
+    public Viewport createViewport() {
+        int width = this.image.getWidth(this);
+        int height = this.image.getHeight(this);
+        return new Viewport(new Rectangle(0, 0, width, height), width, height);
     }
 
     public Image getImage() {
         return this.image;
     }
 
+    public MazeView getView() {
+        return this.view;
+    }
+
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
         g2.drawImage(image, 0, 0, this);
     }
 
+    /**
+     * Shows the given image, which no longer belongs to any view.
+     */
     public void setImage(Image image) {
         this.image = image;
+        this.view = null;
+        this.viewport = null;
         this.repaint();
     }
 
-    private class Closer implements AncestorListener {
-        @Override
-        public void ancestorAdded(AncestorEvent event) {
-            // Do nothing
-        }
-
-        @Override
-        public void ancestorMoved(AncestorEvent event) {
-            // Do nothing
-        }
+    /**
+     * Shows the given image of the view, which must have been drawn through
+     * createViewport(), and lets the user zoom and pan around the view.
+     */
+    public void setView(MazeView view, Image image) {
+        this.setImage(image);
+        this.view = view;
+        this.viewport = this.createViewport();
+    }
 
-        @Override
-        public void ancestorRemoved(AncestorEvent event) {
-            if (ImagePanel.this.timer != null && ImagePanel.this.timer.isRunning()) {
-                ImagePanel.this.timer.stop();
-                ImagePanel.this.timer = null;
-            }
-        }
+    /**
+     * Redraws the whole image from the view, through the current viewport.
+     */
+    public void redrawView() {
+        ImageDrawer drawer = new ImageDrawer(this.image, PADDING);
+        drawer.clear();
+        this.view.draw(drawer.getGraphics(), this.viewport);
+        this.repaint();
     }
 }
@@ -5,9 +5,12 @@ import datastructures.interfaces.IDictionary;
 import mazes.generators.base.BaseMazeGenerator;
 import mazes.generators.base.GridGenerator;
 import mazes.generators.base.VoronoiGenerator;
+import mazes.generators.maze.DepthFirstMazeCarver;
 import mazes.generators.maze.KruskalMazeCarver;
 import mazes.generators.maze.MazeCarver;
 import mazes.generators.maze.RandomMazeCarver;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import mazes.generators.maze.WilsonMazeCarver;
 
 import javax.swing.*;
 import java.awt.*;
@@ -44,6 +47,9 @@ public class MainWindow extends JFrame {
         baseGenerators.put(
                 "Voronoi",
                 new VoronoiGenerator(800, 10, 10, 5));
+        baseGenerators.put(
+                "Voronoi (Poisson-disk)",
+                new VoronoiGenerator(800, 30, 10, 5, VoronoiGenerator.Sampling.POISSON_DISK));
 
         // This dictionary contains objects that are responsible for taking a
         // maze and removing or "carving out" walls to produce an actually-usable maze.
@@ -64,6 +70,15 @@ public class MainWindow extends JFrame {
         baseCarvers.put(
                 "Run (randomized) Kruskal",
                 new KruskalMazeCarver());
+        baseCarvers.put(
+                "Run (shuffled) Kruskal",
+                new ShuffledKruskalMazeCarver());
+        baseCarvers.put(
+                "Run (randomized) depth-first search",
+                new DepthFirstMazeCarver());
+        baseCarvers.put(
+                "Run Wilson (uniform spanning tree)",
+                new WilsonMazeCarver(0.3));
 
         // This actually launches the window itself and starts the program.
         EventQueue.invokeLater(() -> {
@@ -80,7 +95,6 @@ public class MainWindow extends JFrame {
     private String title;
     private int width;
     private int height;
-    private ImageDrawer drawer;
 
     private IDictionary<String, BaseMazeGenerator> baseGenerators;
     private IDictionary<String, MazeCarver> baseCarvers;
@@ -99,7 +113,7 @@ public class MainWindow extends JFrame {
         this.setupMainWindow();
 
         ImagePanel imagePanel = this.makeDrawingPane();
-        OptionsPanel optionsPanel = new OptionsPanel(this.drawer, this.baseGenerators, this.baseCarvers);
+        OptionsPanel optionsPanel = new OptionsPanel(imagePanel, this.baseGenerators, this.baseCarvers);
 
         imagePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
         optionsPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -138,8 +152,6 @@ public class MainWindow extends JFrame {
         g.setColor(Color.WHITE);
         g.fillRect(0, 0, width + 1, this.height + 1);
 
-        this.drawer = new ImageDrawer(image, 5);
-
         ImagePanel panel = new ImagePanel(image);
         panel.setAlignmentX(Component.LEFT_ALIGNMENT);
         return panel;
@@ -1,25 +1,30 @@
 package mazes.gui;
 
-import datastructures.concrete.ChainedHashSet;
 import datastructures.concrete.KVPair;
 import datastructures.interfaces.IDictionary;
 import datastructures.interfaces.IList;
-import datastructures.interfaces.ISet;
 import mazes.entities.Maze;
 import mazes.entities.Room;
 import mazes.entities.Wall;
+import mazes.generators.ProgressListener;
 import mazes.generators.base.BaseMazeGenerator;
 import mazes.generators.maze.MazeCarver;
+import mazes.render.MazeView;
+import mazes.render.Viewport;
+import mazes.solvers.MazeSolver;
 import misc.exceptions.NoPathExistsException;
-import misc.graphs.Graph;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ItemEvent;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 public class OptionsPanel extends JPanel {
-    private ImageDrawer drawer;
+    private ImagePanel imagePanel;
     private IDictionary<String, BaseMazeGenerator> baseGenerators;
     private IDictionary<String, MazeCarver> baseCarvers;
 
@@ -32,10 +37,16 @@ public class OptionsPanel extends JPanel {
     private Room start;
     private Room end;
 
-    public OptionsPanel(ImageDrawer drawer, 
+    private JButton findPathButton;
+    private JProgressBar progressBar;
+
+    // The generation or solving currently running off the event dispatch thread, if any
+    private SwingWorker<?, ?> worker;
+
+    public OptionsPanel(ImagePanel imagePanel,
                         IDictionary<String, BaseMazeGenerator> baseGenerators, 
                         IDictionary<String, MazeCarver> baseCarvers) {
-        this.drawer = drawer;
+        this.imagePanel = imagePanel;
         this.baseGenerators = baseGenerators;
         this.baseCarvers = baseCarvers;
 
@@ -73,10 +84,13 @@ public class OptionsPanel extends JPanel {
         generateMazeButton.addActionListener(this::generateMaze);
         this.add(generateMazeButton, 3, 0, GridBagConstraints.EAST);
 
-        JButton findPathButton = new JButton();
-        findPathButton.setText("Find shortest path");
-        findPathButton.addActionListener(this::drawShortestPath);
-        this.add(findPathButton, 3, 1, GridBagConstraints.EAST);
+        this.findPathButton = new JButton();
+        this.findPathButton.setText("Find shortest path");
+        this.findPathButton.addActionListener(this::drawShortestPath);
+        this.add(this.findPathButton, 3, 1, GridBagConstraints.EAST);
+
+        this.progressBar = new JProgressBar(0, 100);
+        this.add(this.progressBar, 1, 2, GridBagConstraints.WEST, GridBagConstraints.HORIZONTAL, 1.0);
     }
 
     private String[] getKeysAsArray(IDictionary<String, ?> dict) {
@@ -101,46 +115,193 @@ public class OptionsPanel extends JPanel {
         }
     }
 
+    /**
+     * Starts generating a new maze in the background, abandoning whatever was
+     * still running. The current maze stays on screen until the new one is drawn.
+     */
     private void generateMaze(ActionEvent event) {
-        this.drawer.clear();
-
         BaseMazeGenerator generator = this.baseGenerators.get(this.baseGeneratorName);
         MazeCarver carver = this.baseCarvers.get(this.baseCarverName);
 
-        Rectangle bound = drawer.getBoundingBox();
-        this.originalMaze = generator.generateBaseMaze(bound);
-        this.currentMaze = carver.generateMaze(this.originalMaze);
+        this.findPathButton.setEnabled(false);
+        this.startWorker(new GenerateWorker(
+                generator, carver, this.createOffscreenImage(), this.imagePanel.createViewport()));
+    }
 
-        this.start = this.currentMaze.getRoom(new Point(bound.x + 5, bound.y + 5));
-        this.end = this.currentMaze.getRoom(new Point(bound.x + bound.width - 5, bound.y + bound.height - 5));
+    /**
+     * Starts searching for the shortest path through the current maze in the background.
+     */
+    private void drawShortestPath(ActionEvent event) {
+        if (this.currentMaze == null) {
+            return;
+        }
+        this.startWorker(new SolveWorker(this.originalMaze, this.currentMaze, this.start, this.end));
+    }
 
-        this.drawer.drawMaze(this.currentMaze);
-        drawer.drawPoint(start.getCenter());
-        drawer.drawPoint(end.getCenter());
+    private void startWorker(SwingWorker<?, ?> newWorker) {
+        if (this.worker != null) {
+            this.worker.cancel(true);
+        }
+        this.worker = newWorker;
+        this.progressBar.setValue(0);
+        newWorker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName()) && newWorker == this.worker) {
+                this.progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        newWorker.execute();
     }
 
-    private void drawShortestPath(ActionEvent event) {
-        Graph<Room, Wall> graph = new Graph<>(
-                this.originalMaze.getRooms(),
-                this.subtract(this.originalMaze.getWalls(), this.currentMaze.getWalls()));
+    /**
+     * Returns a blank image the same size and type as the one on screen.
+     */
+    private BufferedImage createOffscreenImage() {
+        Image image = this.imagePanel.getImage();
+        int type = image instanceof BufferedImage
+                ? ((BufferedImage) image).getType()
+                : BufferedImage.TYPE_INT_RGB;
+        return new BufferedImage(image.getWidth(null), image.getHeight(null), type);
+    }
+
+    /**
+     * Returns the result of a finished worker, or null if it failed (after telling the user).
+     */
+    private <T> T getResult(SwingWorker<T, ?> finished) {
         try {
-            IList<Wall> path = graph.findShortestPathBetween(this.start, this.end);
-            this.drawer.drawPath(path);
-        } catch (NoPathExistsException ex) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    "This maze seems to be unsolveable -- no path could be found between the start and the end!");
+            return finished.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof NoPathExistsException) {
+                JOptionPane.showMessageDialog(
+                        null,
+                        "This maze seems to be unsolveable -- no path could be found between the start and the end!");
+            } else {
+                JOptionPane.showMessageDialog(null, "Something went wrong: " + ex.getCause());
+            }
+            return null;
         }
     }
 
-    private <T> ISet<T> subtract(ISet<T> bigger, ISet<T> smaller) {
-        ISet<T> output = new ChainedHashSet<>();
-        for (T item : bigger) {
-            if (!smaller.contains(item)) {
-                output.add(item);
+    /**
+     * Generates, carves and draws a maze into its own image, then swaps that image
+     * onto the screen along with a view of the maze to zoom and pan around.
+     */
+    private class GenerateWorker extends SwingWorker<BufferedImage, Void> {
+        private BaseMazeGenerator generator;
+        private MazeCarver carver;
+        private BufferedImage image;
+        private Viewport viewport;
+
+        private Maze originalMaze;
+        private Maze currentMaze;
+        private Room start;
+        private Room end;
+        private MazeView view;
+
+        public GenerateWorker(BaseMazeGenerator generator, MazeCarver carver, BufferedImage image, Viewport viewport) {
+            this.generator = generator;
+            this.carver = carver;
+            this.image = image;
+            this.viewport = viewport;
+        }
+
+        @Override
+        protected BufferedImage doInBackground() {
+            ImageDrawer drawer = new ImageDrawer(this.image, ImagePanel.PADDING);
+            drawer.clear();
+
+            SplittableRandom rand = new SplittableRandom();
+            Rectangle bound = drawer.getBoundingBox();
+            this.originalMaze = this.generator.generateBaseMaze(bound, rand.nextLong(), this.progress(0.0, 0.6));
+            this.currentMaze = this.carver.generateMaze(this.originalMaze, rand.nextLong(), this.progress(0.6, 0.9));
+
+            this.start = this.currentMaze.getRoom(new Point(bound.x + 5, bound.y + 5));
+            this.end = this.currentMaze.getRoom(new Point(bound.x + bound.width - 5, bound.y + bound.height - 5));
+
+            this.view = new MazeView(this.currentMaze, bound);
+            this.view.addMarker(this.start.getCenter());
+            this.view.addMarker(this.end.getCenter());
+            this.view.draw(drawer.getGraphics(), this.viewport);
+            this.setProgress(100);
+            return this.image;
+        }
+
+        /**
+         * Returns a listener that shows progress between 'from' and 'to', and stops
+         * the generator or carver once this worker is cancelled.
+         */
+        private ProgressListener progress(double from, double to) {
+            ProgressListener listener = fraction -> {
+                if (this.isCancelled()) {
+                    throw new CancellationException();
+                }
+                this.setProgress((int) Math.max(0, Math.min(100, Math.round(100 * fraction))));
+            };
+            return listener.range(from, to);
+        }
+
+        @Override
+        protected void done() {
+            if (this.isCancelled() || OptionsPanel.this.worker != this) {
+                return;
+            }
+            OptionsPanel.this.worker = null;
+            if (OptionsPanel.this.getResult(this) == null) {
+                // The previous maze is still on screen, and can still be solved
+                OptionsPanel.this.findPathButton.setEnabled(OptionsPanel.this.currentMaze != null);
+                return;
+            }
+
+            OptionsPanel.this.originalMaze = this.originalMaze;
+            OptionsPanel.this.currentMaze = this.currentMaze;
+            OptionsPanel.this.start = this.start;
+            OptionsPanel.this.end = this.end;
+            OptionsPanel.this.imagePanel.setView(this.view, this.image);
+            OptionsPanel.this.findPathButton.setEnabled(true);
+        }
+    }
+
+    /**
+     * Finds the shortest path through a maze, then draws it over the maze on screen.
+     */
+    private class SolveWorker extends SwingWorker<IList<Wall>, Void> {
+        private Maze originalMaze;
+        private Maze currentMaze;
+        private Room start;
+        private Room end;
+
+        public SolveWorker(Maze originalMaze, Maze currentMaze, Room start, Room end) {
+            this.originalMaze = originalMaze;
+            this.currentMaze = currentMaze;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected IList<Wall> doInBackground() {
+            IList<Wall> path = MazeSolver.findShortestPathBetween(
+                    this.originalMaze, this.currentMaze, this.start, this.end);
+            this.setProgress(100);
+            return path;
+        }
+
+        @Override
+        protected void done() {
+            if (this.isCancelled() || OptionsPanel.this.worker != this) {
+                return;
+            }
+            OptionsPanel.this.worker = null;
+            IList<Wall> path = OptionsPanel.this.getResult(this);
+            if (path != null) {
+                // Drawing one path is quick, so it's done right here on the image on screen,
+                // and only the part of the screen the path covers is repainted. The view
+                // keeps it too, to draw it again after zooming or panning.
+                OptionsPanel.this.imagePanel.getView().setPath(path);
+                OptionsPanel.this.imagePanel.getImageDrawer().drawPath(path);
             }
         }
-        return output;
     }
 
     private void add(JComponent component, int x, int y, int anchor, int fill, double weightX) {
@@ -0,0 +1,73 @@
+package mazes.io;
+
+import datastructures.interfaces.ISet;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A read-only ISet over a range of ids, creating each item only when it is
+ * iterated over. Membership is decided by a separate test, so nothing needs
+ * to be stored.
+ */
+class IndexedSetView<T> implements ISet<T> {
+    private int start;
+    private int end;
+    private IntFunction<T> items;
+    private Predicate<T> membership;
+
+    /**
+     * @param start  the first id in the set
+     * @param end  one past the last id in the set
+     * @param items  returns the item with the given id
+     * @param membership  returns true if the given item is in the set
+     */
+    public IndexedSetView(int start, int end, IntFunction<T> items, Predicate<T> membership) {
+        this.start = start;
+        this.end = end;
+        this.items = items;
+        this.membership = membership;
+    }
+
+    @Override
+    public void add(T item) {
+        throw new UnsupportedOperationException("This set is read-only");
+    }
+
+    @Override
+    public void remove(T item) {
+        throw new UnsupportedOperationException("This set is read-only");
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return item != null && this.membership.test(item);
+    }
+
+    @Override
+    public int size() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = IndexedSetView.this.start;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < IndexedSetView.this.end;
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return IndexedSetView.this.items.apply(this.next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,293 @@
+package mazes.io;
+
+import datastructures.interfaces.ISet;
+import mazes.entities.CellLists;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.RoomGrid;
+import mazes.entities.Wall;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only maze that reads straight from a memory-mapped file written by MazeWriter,
+ * instead of loading the file onto the heap.
+ *
+ * Opening the maze only maps the file and checks its header, so even a maze of several
+ * gigabytes opens at once, and every process mapping the same file shares one copy of
+ * it in the page cache. Room and Wall objects are created from the mapped bytes each
+ * time they are asked for and are never stored; two copies of the same room or wall
+ * are equal, but not the same object.
+ *
+ * The removable walls are numbered in the order they appear in the file.
+ *
+ * Finding a room by point, or the id of a given wall, builds a small int-only index
+ * the first time it's needed.
+ */
+public class MappedMaze extends Maze {
+    // Mapped buffers are limited to 2GB, so the file is mapped in segments. The header
+    // and every record size are multiples of 8 bytes, so each int field starts at a
+    // multiple of 4 and each long (the wall flags) at a multiple of 8; both divide the
+    // segment size, so no int or long straddles two segments.
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private MappedByteBuffer[] segments;
+    private MazeFileHeader header;
+    private int numRemovableWalls;
+
+    // Built on first use; see getRoom(Point) and getWallId(...)
+    private RoomGrid roomGrid;
+    private CellLists roomWalls;
+
+    private MappedMaze(MappedByteBuffer[] segments, MazeFileHeader header, int numRemovableWalls) {
+        this.segments = segments;
+        this.header = header;
+        this.numRemovableWalls = numRemovableWalls;
+    }
+
+    /**
+     * Maps the maze stored in the given file.
+     *
+     * The file must not be modified while the maze is in use.
+     *
+     * @throws IOException  if the file can't be read, isn't a maze file, was written by an
+     *                      unsupported version of the format, or is damaged
+     */
+    public static MappedMaze open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << SEGMENT_BITS));
+            }
+
+            if (segments.length == 0) {
+                throw new IOException("Not a maze file");
+            }
+            MazeFileHeader header = MazeFileHeader.read(segments[0].duplicate());
+            if (size != header.fileSize()) {
+                throw new IOException("Corrupt maze file: expected " + header.fileSize() + " bytes");
+            }
+
+            MappedMaze maze = new MappedMaze(segments, header, 0);
+            maze.numRemovableWalls = maze.countRemovableWalls();
+            return maze;
+        }
+    }
+
+    /**
+     * Returns the number of rooms; rooms are numbered 0 to numRooms() - 1.
+     */
+    public int numRooms() {
+        return this.header.numRooms;
+    }
+
+    /**
+     * Returns the room with the given id.
+     *
+     * @throws IndexOutOfBoundsException  if the id is not between 0 and numRooms() - 1
+     */
+    public Room getRoom(int roomId) {
+        this.checkIndex(roomId, this.header.numRooms);
+        long record = this.roomRecord(roomId);
+        int firstVertex = this.getInt(record + 8);
+        int numPoints = this.getInt(record + 12);
+
+        int[] xs = new int[numPoints];
+        int[] ys = new int[numPoints];
+        long vertex = this.header.verticesOffset() + (long) MazeFileHeader.VERTEX_BYTES * firstVertex;
+        for (int i = 0; i < numPoints; i++) {
+            xs[i] = this.getInt(vertex);
+            ys[i] = this.getInt(vertex + 4);
+            vertex += MazeFileHeader.VERTEX_BYTES;
+        }
+        return new Room(this.getCenter(roomId), new Polygon(xs, ys, numPoints));
+    }
+
+    /**
+     * Returns the center of the room with the given id, without reading its polygon.
+     *
+     * @throws IndexOutOfBoundsException  if the id is not between 0 and numRooms() - 1
+     */
+    public Point getCenter(int roomId) {
+        this.checkIndex(roomId, this.header.numRooms);
+        long record = this.roomRecord(roomId);
+        return new Point(this.getInt(record), this.getInt(record + 4));
+    }
+
+    /**
+     * Returns the id of the room containing the given point, or -1 if there is none.
+     */
+    public int getRoomId(Point point) {
+        return this.roomGrid().findRoom(point, roomId -> this.getRoom(roomId).contains(point));
+    }
+
+    @Override
+    public Room getRoom(Point point) {
+        int roomId = this.getRoomId(point);
+        return roomId < 0 ? null : this.getRoom(roomId);
+    }
+
+    @Override
+    public ISet<Room> getRooms() {
+        return new IndexedSetView<>(0, this.header.numRooms, this::getRoom,
+                room -> this.findRoomWithCenter(room.getCenter()) >= 0);
+    }
+
+    @Override
+    public ISet<Wall> getWalls() {
+        return new IndexedSetView<>(0, this.numRemovableWalls, this::readWall,
+                wall -> this.getWallId(wall) >= 0);
+    }
+
+    @Override
+    public ISet<Wall> getUntouchableWalls() {
+        return new IndexedSetView<>(this.numRemovableWalls, this.header.numWalls, this::readWall,
+                wall -> this.findWall(wall) >= this.numRemovableWalls);
+    }
+
+    @Override
+    public int numWallIds() {
+        return this.numRemovableWalls;
+    }
+
+    @Override
+    public Wall getWall(int wallId) {
+        this.checkIndex(wallId, this.numRemovableWalls);
+        return this.readWall(wallId);
+    }
+
+    @Override
+    public int getWallId(Wall wall) {
+        int index = this.findWall(wall);
+        return index < this.numRemovableWalls ? index : -1;
+    }
+
+    /**
+     * Returns the position of the wall in the file's wall table, or -1 if it isn't there.
+     */
+    private int findWall(Wall wall) {
+        this.buildWallIndex();
+        int room1 = this.findRoomWithCenter(wall.getRoom1().getCenter());
+        if (room1 < 0) {
+            return -1;
+        }
+
+        // Compare the raw records, so no candidate wall has to be created
+        Point room2 = wall.getRoom2().getCenter();
+        LineSegment line = wall.getDividingLine();
+        for (int i = this.roomWalls.getStart(room1); i < this.roomWalls.getStart(room1 + 1); i++) {
+            long record = this.header.wallsOffset() + (long) MazeFileHeader.WALL_BYTES * this.roomWalls.getItem(i);
+            if (this.getCenter(this.getInt(record + 4)).equals(room2)
+                    && this.getInt(record + 8) == line.start.x && this.getInt(record + 12) == line.start.y
+                    && this.getInt(record + 16) == line.end.x && this.getInt(record + 20) == line.end.y) {
+                return this.roomWalls.getItem(i);
+            }
+        }
+        return -1;
+    }
+
+    private Wall readWall(int index) {
+        long record = this.header.wallsOffset() + (long) MazeFileHeader.WALL_BYTES * index;
+        LineSegment line = new LineSegment(
+                new Point(this.getInt(record + 8), this.getInt(record + 12)),
+                new Point(this.getInt(record + 16), this.getInt(record + 20)));
+        return new Wall(this.getRoom(this.getInt(record)), this.getRoom(this.getInt(record + 4)), line);
+    }
+
+    /**
+     * Files every wall in the table under its first room, as a one-row grid with a
+     * column per room.
+     */
+    private synchronized void buildWallIndex() {
+        if (this.roomWalls != null) {
+            return;
+        }
+        this.roomWalls = new CellLists(this.header.numRooms, 1, this.header.numWalls,
+                index -> new Rectangle(this.wallRoom1(index), 0, 0, 0));
+    }
+
+    private int wallRoom1(int index) {
+        return this.getInt(this.header.wallsOffset() + (long) MazeFileHeader.WALL_BYTES * index);
+    }
+
+    /**
+     * Returns the id of the room centered on the point, or -1 if there is none.
+     */
+    private int findRoomWithCenter(Point center) {
+        return this.roomGrid().findRoom(center, roomId -> this.getCenter(roomId).equals(center));
+    }
+
+    // Room bounds include the center, so a room can be found by its center too, and
+    // are read from the file as the grid needs them rather than stored
+    private synchronized RoomGrid roomGrid() {
+        if (this.roomGrid == null) {
+            this.roomGrid = new RoomGrid(this.header.numRooms, this::getRoomBounds);
+        }
+        return this.roomGrid;
+    }
+
+    /**
+     * Returns the bounding box of the given room's polygon and center, without creating
+     * the polygon.
+     */
+    private Rectangle getRoomBounds(int roomId) {
+        long record = this.roomRecord(roomId);
+        int numPoints = this.getInt(record + 12);
+        long vertex = this.header.verticesOffset() + (long) MazeFileHeader.VERTEX_BYTES * this.getInt(record + 8);
+
+        Rectangle bounds = new Rectangle(this.getCenter(roomId));
+        for (int i = 0; i < numPoints; i++) {
+            bounds.add(this.getInt(vertex), this.getInt(vertex + 4));
+            vertex += MazeFileHeader.VERTEX_BYTES;
+        }
+        return bounds;
+    }
+
+    /**
+     * Checks that the untouchable walls all come after the removable ones, as
+     * MazeWriter writes them, and returns how many removable walls there are.
+     */
+    private int countRemovableWalls() throws IOException {
+        long flags = this.header.flagsOffset();
+        int numRemovable = this.header.numWalls;
+        for (int word = 0; word < this.header.numFlagWords(); word++) {
+            long bits = this.getLong(flags + 8L * word);
+            if (bits != 0) {
+                numRemovable = Math.min(numRemovable, word * 64 + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        for (int i = numRemovable; i < this.header.numWalls; i++) {
+            if ((this.getLong(flags + 8L * (i / 64)) & (1L << (i % 64))) == 0) {
+                throw new IOException("Corrupt maze file: untouchable walls must come last");
+            }
+        }
+        return numRemovable;
+    }
+
+    private long roomRecord(int roomId) {
+        return this.header.roomsOffset() + (long) MazeFileHeader.ROOM_BYTES * roomId;
+    }
+
+    private int getInt(long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    private long getLong(long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    private void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not between 0 and " + (size - 1));
+        }
+    }
+}
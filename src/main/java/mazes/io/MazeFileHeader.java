@@ -0,0 +1,113 @@
+package mazes.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The fixed-size header at the start of every maze file, and the layout of the
+ * sections that follow it.
+ *
+ * A maze file is, in order (every number is big-endian):
+ *
+ * - The header: the magic number, the format version, the number of rooms,
+ *   polygon vertices and walls, and padding up to HEADER_BYTES.
+ * - The room table: for each room, its center's x and y, the index of its
+ *   first vertex and its number of vertices (four ints).
+ * - The vertex table: the x and y of every polygon vertex, room by room (two ints).
+ * - The wall table: for each wall, the indices of its two rooms, then the start
+ *   and end of its dividing line (six ints). Removable walls come first.
+ * - The untouchable flags: one bit per wall, in longs, set if the wall is untouchable.
+ *
+ * Every record has a fixed size, so any room or wall can be found without reading
+ * the ones before it.
+ *
+ * A grid maze can instead be stored in the compact grid format (see
+ * MazeWriter.writeGrid), which holds just enough to rebuild the GridMaze:
+ *
+ * - The header: GRID_MAGIC, the format version, the number of rows and columns,
+ *   and the bounding box's x, y, width and height (eight ints, HEADER_BYTES in all).
+ * - The open flags: one bit per wall id of the grid, in longs, set if the wall is open.
+ */
+class MazeFileHeader {
+    public static final int MAGIC = 0x4D415A45; // "MAZE"
+    public static final int GRID_MAGIC = 0x47524944; // "GRID"
+    public static final int VERSION = 1;
+
+    public static final int HEADER_BYTES = 32;
+    public static final int ROOM_BYTES = 16;
+    public static final int VERTEX_BYTES = 8;
+    public static final int WALL_BYTES = 24;
+
+    public final int numRooms;
+    public final int numVertices;
+    public final int numWalls;
+
+    public MazeFileHeader(int numRooms, int numVertices, int numWalls) {
+        this.numRooms = numRooms;
+        this.numVertices = numVertices;
+        this.numWalls = numWalls;
+    }
+
+    /**
+     * Reads and checks the header at the buffer's current position.
+     *
+     * @throws IOException  if the buffer doesn't hold a maze file header of a supported version
+     */
+    public static MazeFileHeader read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a maze file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported maze file version " + version);
+        }
+        MazeFileHeader header = new MazeFileHeader(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        buffer.position(buffer.position() + HEADER_BYTES - 20);
+
+        if (header.numRooms < 0 || header.numVertices < 0 || header.numWalls < 0) {
+            throw new IOException("Corrupt maze file header");
+        }
+        return header;
+    }
+
+    /**
+     * Writes the header at the buffer's current position.
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(this.numRooms);
+        buffer.putInt(this.numVertices);
+        buffer.putInt(this.numWalls);
+        for (int i = 20; i < HEADER_BYTES; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    public long roomsOffset() {
+        return HEADER_BYTES;
+    }
+
+    public long verticesOffset() {
+        return this.roomsOffset() + (long) ROOM_BYTES * this.numRooms;
+    }
+
+    public long wallsOffset() {
+        return this.verticesOffset() + (long) VERTEX_BYTES * this.numVertices;
+    }
+
+    public long flagsOffset() {
+        return this.wallsOffset() + (long) WALL_BYTES * this.numWalls;
+    }
+
+    public int numFlagWords() {
+        return (this.numWalls + 63) / 64;
+    }
+
+    /**
+     * Returns the size of the whole file, in bytes.
+     */
+    public long fileSize() {
+        return this.flagsOffset() + 8L * this.numFlagWords();
+    }
+}
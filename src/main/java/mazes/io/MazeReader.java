@@ -0,0 +1,186 @@
+package mazes.io;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.entities.GridMaze;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.entities.WallBitSet;
+
+import java.awt.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads mazes written by MazeWriter.
+ *
+ * Each table is read in bulk straight into an int array, and rooms and walls are
+ * then built from the arrays. Nothing is parsed or looked up by key, which is what
+ * makes loading a maze much faster than generating it again.
+ */
+public class MazeReader {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+
+    private MazeReader(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    }
+
+    /**
+     * Reads the maze stored in the given file.
+     *
+     * A file written by MazeWriter.writeGrid(...) is read back as a GridMaze; any
+     * other maze file is read back as a plain Maze.
+     *
+     * @throws IOException  if the file can't be read, isn't a maze file, was written by an
+     *                      unsupported version of the format, or is damaged
+     */
+    public static Maze read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MazeReader(channel).readMaze();
+        }
+    }
+
+    private Maze readMaze() throws IOException {
+        this.buffer.limit(MazeFileHeader.HEADER_BYTES);
+        this.fill();
+        if (this.buffer.getInt(0) == MazeFileHeader.GRID_MAGIC) {
+            return this.readGridMaze();
+        }
+        MazeFileHeader header = MazeFileHeader.read(this.buffer);
+        if (this.channel.size() != header.fileSize()) {
+            throw new IOException("Corrupt maze file: expected " + header.fileSize() + " bytes");
+        }
+
+        if (header.numRooms > Integer.MAX_VALUE / 4 || header.numVertices > Integer.MAX_VALUE / 2
+                || header.numWalls > Integer.MAX_VALUE / 6) {
+            throw new IOException("Maze file is too large to load onto the heap");
+        }
+
+        int[] roomTable = this.readInts(4 * header.numRooms);
+        int[] vertexTable = this.readInts(2 * header.numVertices);
+        int[] wallTable = this.readInts(6 * header.numWalls);
+        long[] flags = this.readLongs(header.numFlagWords());
+
+        Room[] rooms = new Room[header.numRooms];
+        ISet<Room> roomSet = new ChainedHashSet<>();
+        for (int i = 0; i < header.numRooms; i++) {
+            int firstVertex = roomTable[4 * i + 2];
+            int numPoints = roomTable[4 * i + 3];
+            if (firstVertex < 0 || numPoints < 0 || firstVertex > header.numVertices - numPoints) {
+                throw new IOException("Corrupt maze file: bad vertices for room " + i);
+            }
+
+            int[] xs = new int[numPoints];
+            int[] ys = new int[numPoints];
+            for (int j = 0; j < numPoints; j++) {
+                xs[j] = vertexTable[2 * (firstVertex + j)];
+                ys[j] = vertexTable[2 * (firstVertex + j) + 1];
+            }
+            rooms[i] = new Room(new Point(roomTable[4 * i], roomTable[4 * i + 1]), new Polygon(xs, ys, numPoints));
+            roomSet.add(rooms[i]);
+        }
+
+        ISet<Wall> walls = new ChainedHashSet<>();
+        ISet<Wall> untouchableWalls = new ChainedHashSet<>();
+        for (int i = 0; i < header.numWalls; i++) {
+            int room1 = wallTable[6 * i];
+            int room2 = wallTable[6 * i + 1];
+            if (room1 < 0 || room1 >= header.numRooms || room2 < 0 || room2 >= header.numRooms) {
+                throw new IOException("Corrupt maze file: bad rooms for wall " + i);
+            }
+
+            LineSegment line = new LineSegment(
+                    new Point(wallTable[6 * i + 2], wallTable[6 * i + 3]),
+                    new Point(wallTable[6 * i + 4], wallTable[6 * i + 5]));
+            Wall wall = new Wall(rooms[room1], rooms[room2], line);
+            if ((flags[i / 64] & (1L << (i % 64))) != 0) {
+                untouchableWalls.add(wall);
+            } else {
+                walls.add(wall);
+            }
+        }
+
+        return new Maze(roomSet, walls, untouchableWalls);
+    }
+
+    private GridMaze readGridMaze() throws IOException {
+        this.buffer.getInt();
+        int version = this.buffer.getInt();
+        if (version != MazeFileHeader.VERSION) {
+            throw new IOException("Unsupported maze file version " + version);
+        }
+        int numRows = this.buffer.getInt();
+        int numColumns = this.buffer.getInt();
+        Rectangle boundingBox = new Rectangle(
+                this.buffer.getInt(), this.buffer.getInt(), this.buffer.getInt(), this.buffer.getInt());
+
+        // Room and wall ids must fit in an int
+        long numWallIds = (long) numRows * (numColumns - 1) + (long) (numRows - 1) * numColumns;
+        if (numRows <= 0 || numColumns <= 0 || numWallIds > Integer.MAX_VALUE
+                || (long) numRows * numColumns > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt maze file header");
+        }
+        int numFlagWords = (int) ((numWallIds + 63) / 64);
+        if (this.channel.size() != MazeFileHeader.HEADER_BYTES + 8L * numFlagWords) {
+            throw new IOException("Corrupt maze file: expected "
+                    + (MazeFileHeader.HEADER_BYTES + 8L * numFlagWords) + " bytes");
+        }
+
+        GridMaze maze = new GridMaze(numRows, numColumns, boundingBox);
+        try {
+            return maze.withOpenings(WallBitSet.valueOf((int) numWallIds, this.readLongs(numFlagWords)));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Corrupt maze file: flags past the last wall", ex);
+        }
+    }
+
+    private int[] readInts(int count) throws IOException {
+        int[] output = new int[count];
+        int index = 0;
+        while (index < count) {
+            int chunk = Math.min(count - index, BUFFER_BYTES / 4);
+            this.buffer.clear();
+            this.buffer.limit(4 * chunk);
+            this.fill();
+            this.buffer.asIntBuffer().get(output, index, chunk);
+            index += chunk;
+        }
+        return output;
+    }
+
+    private long[] readLongs(int count) throws IOException {
+        long[] output = new long[count];
+        int index = 0;
+        while (index < count) {
+            int chunk = Math.min(count - index, BUFFER_BYTES / 8);
+            this.buffer.clear();
+            this.buffer.limit(8 * chunk);
+            this.fill();
+            this.buffer.asLongBuffer().get(output, index, chunk);
+            index += chunk;
+        }
+        return output;
+    }
+
+    /**
+     * Reads from the file until the buffer is full up to its limit, then flips it for reading.
+     */
+    private void fill() throws IOException {
+        while (this.buffer.hasRemaining()) {
+            if (this.channel.read(this.buffer) < 0) {
+                throw new EOFException("Maze file ends early");
+            }
+        }
+        this.buffer.flip();
+    }
+}
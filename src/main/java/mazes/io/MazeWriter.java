@@ -0,0 +1,182 @@
+package mazes.io;
+
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.ISet;
+import mazes.entities.GridMaze;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.entities.WallBitSet;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes mazes in the binary format described in MazeFileHeader, which MazeReader
+ * reads back.
+ */
+public class MazeWriter {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+
+    private MazeWriter(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    }
+
+    /**
+     * Writes the maze to the given file, replacing anything already there.
+     *
+     * Only the maze's rooms, walls and untouchable walls are stored, so the maze read back
+     * is always a plain Maze, whatever kind of maze was written. To keep a GridMaze a
+     * GridMaze (and its file a fraction of the size), use writeGrid(...) instead.
+     */
+    public static void write(Maze maze, Path file) throws IOException {
+        try (FileChannel channel = open(file)) {
+            new MazeWriter(channel).writeMaze(maze);
+        }
+    }
+
+    /**
+     * Writes the grid maze to the given file in the compact grid format (see
+     * MazeFileHeader), replacing anything already there. MazeReader reads it back as
+     * a GridMaze; MappedMaze can't open it.
+     */
+    public static void writeGrid(GridMaze maze, Path file) throws IOException {
+        try (FileChannel channel = open(file)) {
+            new MazeWriter(channel).writeGridMaze(maze);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void writeGridMaze(GridMaze maze) throws IOException {
+        Rectangle box = maze.getBoundingBox();
+        this.buffer.putInt(MazeFileHeader.GRID_MAGIC);
+        this.buffer.putInt(MazeFileHeader.VERSION);
+        this.buffer.putInt(maze.getNumRows());
+        this.buffer.putInt(maze.getNumColumns());
+        this.buffer.putInt(box.x);
+        this.buffer.putInt(box.y);
+        this.buffer.putInt(box.width);
+        this.buffer.putInt(box.height);
+
+        // The open walls are exactly the ones no longer present
+        WallBitSet openWalls = WallBitSet.allSet(maze.numWallIds()).andNot(maze.getPresentWalls());
+        for (long word : openWalls.toLongArray()) {
+            this.ensure(8);
+            this.buffer.putLong(word);
+        }
+        this.flush();
+    }
+
+    private void writeMaze(Maze maze) throws IOException {
+        ISet<Room> rooms = maze.getRooms();
+        ISet<Wall> walls = maze.getWalls();
+        ISet<Wall> untouchableWalls = maze.getUntouchableWalls();
+
+        // A grid maze's rooms come out in room id order, and it can tell which room
+        // a wall belongs to by arithmetic, so they don't need to be hashed
+        ToIntFunction<Room> roomIds;
+        IDictionary<Room, Integer> roomIdTable = new ChainedHashDictionary<>();
+        if (maze instanceof GridMaze) {
+            GridMaze grid = (GridMaze) maze;
+            roomIds = room -> grid.getRoomId(room.getCenter());
+        } else {
+            for (Room room : rooms) {
+                roomIdTable.put(room, roomIdTable.size());
+            }
+            roomIds = roomIdTable::get;
+        }
+
+        int numVertices = 0;
+        for (Room room : rooms) {
+            numVertices += room.getPolygon().npoints;
+        }
+        MazeFileHeader header = new MazeFileHeader(
+                rooms.size(), numVertices, walls.size() + untouchableWalls.size());
+
+        this.ensure(MazeFileHeader.HEADER_BYTES);
+        header.write(this.buffer);
+
+        int firstVertex = 0;
+        for (Room room : rooms) {
+            this.ensure(MazeFileHeader.ROOM_BYTES);
+            this.buffer.putInt(room.getCenter().x);
+            this.buffer.putInt(room.getCenter().y);
+            this.buffer.putInt(firstVertex);
+            this.buffer.putInt(room.getPolygon().npoints);
+            firstVertex += room.getPolygon().npoints;
+        }
+
+        for (Room room : rooms) {
+            Polygon polygon = room.getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                this.ensure(MazeFileHeader.VERTEX_BYTES);
+                this.buffer.putInt(polygon.xpoints[i]);
+                this.buffer.putInt(polygon.ypoints[i]);
+            }
+        }
+
+        this.writeWalls(walls, roomIds);
+        this.writeWalls(untouchableWalls, roomIds);
+
+        // Untouchable walls were written last, so their flags are a run of set bits
+        for (int word = 0; word < header.numFlagWords(); word++) {
+            long bits = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                int wallId = word * 64 + bit;
+                if (wallId >= walls.size() && wallId < header.numWalls) {
+                    bits |= 1L << bit;
+                }
+            }
+            this.ensure(8);
+            this.buffer.putLong(bits);
+        }
+
+        this.flush();
+    }
+
+    private void writeWalls(ISet<Wall> walls, ToIntFunction<Room> roomIds) throws IOException {
+        for (Wall wall : walls) {
+            LineSegment line = wall.getDividingLine();
+            this.ensure(MazeFileHeader.WALL_BYTES);
+            this.buffer.putInt(roomIds.applyAsInt(wall.getRoom1()));
+            this.buffer.putInt(roomIds.applyAsInt(wall.getRoom2()));
+            this.buffer.putInt(line.start.x);
+            this.buffer.putInt(line.start.y);
+            this.buffer.putInt(line.end.x);
+            this.buffer.putInt(line.end.y);
+        }
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, writing out
+     * what it holds so far if it doesn't.
+     */
+    private void ensure(int numBytes) throws IOException {
+        if (this.buffer.remaining() < numBytes) {
+            this.flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,316 @@
+package mazes.io;
+
+import mazes.entities.GridMaze;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Draws mazes as SVG, for printing, the same way ImageDrawer draws them on screen.
+ *
+ * Everything is written straight to the writer as it's drawn, and only a handful of
+ * numbers are kept in between, so memory use doesn't depend on the size of the maze.
+ * Wall segments that continue one another are joined into one polyline, and
+ * segments that continue in the same direction are merged into one line. Walls are
+ * joined as they arrive, so how much this saves depends on the order they come in:
+ * grid mazes are written row by row and column by column, which merges every run of
+ * walls along a grid line into a single line. Polylines are written into <path>
+ * elements, at most MAX_POLYLINES_PER_ELEMENT each.
+ *
+ * close() finishes the document and closes the writer.
+ */
+public class SvgWriter implements Closeable {
+    public static final int MAX_POLYLINES_PER_ELEMENT = 1024;
+
+    private static final int WALL_WIDTH = 4;
+    private static final int PATH_WIDTH = 2;
+    private static final int POINT_RADIUS = 4;
+
+    private Writer out;
+    private Rectangle boundingBox;
+
+    // The <path> element being written, if any, and how many polylines it holds so far
+    private boolean inElement;
+    private int numPolylines;
+
+    // The polyline being written, if any: the point last written to it, and where it
+    // has been extended to since, in the same direction
+    private boolean inPolyline;
+    private int lastX;
+    private int lastY;
+    private int pendingX;
+    private int pendingY;
+
+    /**
+     * Starts an SVG document 'width' by 'height' units in size, whose maze bounding box
+     * is inset by 'padding' on every side, like ImageDrawer's.
+     */
+    public SvgWriter(Writer out, int width, int height, int padding) throws IOException {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        this.boundingBox = new Rectangle(padding, padding, width - 2 * padding, height - 2 * padding);
+
+        this.out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        this.out.write(String.format(
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">\n",
+                width, height, width, height));
+        this.out.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+    }
+
+    /**
+     * Returns the region in which the maze should be generated.
+     */
+    public Rectangle getBoundingBox() {
+        return new Rectangle(this.boundingBox);
+    }
+
+    /**
+     * Draws the bounding box and every wall of the maze.
+     */
+    public void drawMaze(Maze maze) throws IOException {
+        this.out.write(String.format(
+                "<g fill=\"none\" stroke=\"black\" stroke-width=\"%d\" stroke-linecap=\"square\">\n", WALL_WIDTH));
+        this.out.write(String.format("<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\"/>\n",
+                this.boundingBox.x, this.boundingBox.y, this.boundingBox.width, this.boundingBox.height));
+
+        if (maze instanceof GridMaze) {
+            this.writeGridWalls((GridMaze) maze);
+        } else {
+            for (Wall wall : maze.getWalls()) {
+                LineSegment segment = wall.getDividingLine();
+                this.addSegment(segment.start.x, segment.start.y, segment.end.x, segment.end.y);
+            }
+            for (Wall wall : maze.getUntouchableWalls()) {
+                LineSegment segment = wall.getDividingLine();
+                this.addSegment(segment.start.x, segment.start.y, segment.end.x, segment.end.y);
+            }
+        }
+        this.finishElement();
+        this.out.write("</g>\n");
+    }
+
+    /**
+     * Writes the walls still present along each grid line, straight from the grid's
+     * bits and without creating any Wall objects: the horizontal lines top to bottom,
+     * then the vertical lines left to right.
+     */
+    private void writeGridWalls(GridMaze maze) throws IOException {
+        for (int y = 1; y < maze.getNumRows(); y++) {
+            int lineY = maze.getRowEdge(y);
+            for (int x = 0; x < maze.getNumColumns(); x++) {
+                if (!maze.isSouthOpen(x, y - 1)) {
+                    this.addSegment(maze.getColumnEdge(x), lineY, maze.getColumnEdge(x + 1), lineY);
+                }
+            }
+        }
+        for (int x = 1; x < maze.getNumColumns(); x++) {
+            int lineX = maze.getColumnEdge(x);
+            for (int y = 0; y < maze.getNumRows(); y++) {
+                if (!maze.isEastOpen(x - 1, y)) {
+                    this.addSegment(lineX, maze.getRowEdge(y), lineX, maze.getRowEdge(y + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the path through the given walls: a point in each room, joined by curves
+     * through the walls, as ImageDrawer.drawPath draws it.
+     */
+    public void drawPath(Iterable<Wall> wallsBypassed) throws IOException {
+        this.out.write(String.format(
+                "<g fill=\"none\" stroke=\"red\" stroke-width=\"%d\" stroke-linecap=\"square\">\n", PATH_WIDTH));
+        // Each wall is drawn once the next one is known, to tell which way to walk through it
+        Wall previous = null;
+        for (Wall wall : wallsBypassed) {
+            if (previous != null) {
+                this.writeBypass(previous, wall);
+            }
+            previous = wall;
+        }
+        if (previous != null) {
+            this.writeBypass(previous, null);
+        }
+        this.finishElement();
+        this.out.write("</g>\n");
+
+        // Consecutive walls share a room, whose point is only drawn once
+        this.out.write("<g fill=\"red\">\n");
+        Point previous1 = null;
+        Point previous2 = null;
+        for (Wall wall : wallsBypassed) {
+            Point center1 = wall.getRoom1().getCenter();
+            Point center2 = wall.getRoom2().getCenter();
+            if (!center1.equals(previous1) && !center1.equals(previous2)) {
+                this.writePoint(center1);
+            }
+            if (!center2.equals(previous1) && !center2.equals(previous2)) {
+                this.writePoint(center2);
+            }
+            previous1 = center1;
+            previous2 = center2;
+        }
+        this.out.write("</g>\n");
+    }
+
+    /**
+     * Writes the curve through the given wall, carrying on the current polyline if it
+     * ends in one of the wall's rooms, or else starting a new one in the room that
+     * isn't shared with the next wall.
+     */
+    private void writeBypass(Wall wall, Wall next) throws IOException {
+        Point center1 = wall.getRoom1().getCenter();
+        Point center2 = wall.getRoom2().getCenter();
+        Point midpoint = wall.getDividingLine().midpoint();
+        boolean continues = this.inPolyline && (center1.x == this.pendingX && center1.y == this.pendingY
+                || center2.x == this.pendingX && center2.y == this.pendingY);
+        boolean reverse;
+        if (continues) {
+            reverse = center2.x == this.pendingX && center2.y == this.pendingY;
+        } else {
+            reverse = next != null && (center1.equals(next.getRoom1().getCenter())
+                    || center1.equals(next.getRoom2().getCenter()));
+        }
+        if (reverse) {
+            Point swap = center1;
+            center1 = center2;
+            center2 = swap;
+        }
+
+        if (LineSegment.isBetween(center1, midpoint, center2)) {
+            this.addSegment(center1.x, center1.y, center2.x, center2.y);
+        } else {
+            this.moveTo(center1.x, center1.y);
+            this.flushPending();
+            this.writeCommand(" C", midpoint.x, midpoint.y);
+            this.writeCommand(" ", midpoint.x, midpoint.y);
+            this.writeCommand(" ", center2.x, center2.y);
+            this.lastX = center2.x;
+            this.lastY = center2.y;
+            this.pendingX = center2.x;
+            this.pendingY = center2.y;
+        }
+    }
+
+    /**
+     * Draws a point, like ImageDrawer.drawPoint.
+     */
+    public void drawPoint(Point point) throws IOException {
+        this.out.write("<g fill=\"red\">");
+        this.writePoint(point);
+        this.out.write("</g>\n");
+    }
+
+    private void writePoint(Point point) throws IOException {
+        this.out.write(String.format("<circle cx=\"%d\" cy=\"%d\" r=\"%d\"/>\n", point.x, point.y, POINT_RADIUS));
+    }
+
+    /**
+     * Adds the line segment from (x1, y1) to (x2, y2) to the current polyline if it
+     * continues it, or else starts a new polyline.
+     */
+    private void addSegment(int x1, int y1, int x2, int y2) throws IOException {
+        if (this.inPolyline && x2 == this.pendingX && y2 == this.pendingY) {
+            this.lineTo(x1, y1);
+        } else {
+            this.moveTo(x1, y1);
+            this.lineTo(x2, y2);
+        }
+    }
+
+    /**
+     * Continues the current polyline from (x, y), or starts a new one there.
+     */
+    private void moveTo(int x, int y) throws IOException {
+        if (this.inPolyline && x == this.pendingX && y == this.pendingY) {
+            return;
+        }
+        this.finishPolyline();
+        if (!this.inElement) {
+            this.out.write("<path d=\"");
+            this.inElement = true;
+        } else {
+            this.out.write(' ');
+        }
+        this.writeCommand("M", x, y);
+        this.numPolylines++;
+        this.inPolyline = true;
+        this.lastX = x;
+        this.lastY = y;
+        this.pendingX = x;
+        this.pendingY = y;
+    }
+
+    /**
+     * Extends the current polyline to (x, y). If it carries straight on in the same
+     * direction, the point it reached before isn't written.
+     */
+    private void lineTo(int x, int y) throws IOException {
+        long cross = (long) (this.pendingX - this.lastX) * (y - this.lastY)
+                - (long) (this.pendingY - this.lastY) * (x - this.lastX);
+        long dot = (long) (this.pendingX - this.lastX) * (x - this.pendingX)
+                + (long) (this.pendingY - this.lastY) * (y - this.pendingY);
+        if (cross != 0 || dot < 0) {
+            this.flushPending();
+        }
+        this.pendingX = x;
+        this.pendingY = y;
+    }
+
+    /**
+     * Writes the point the current polyline has been extended to, if it isn't written yet.
+     */
+    private void flushPending() throws IOException {
+        if (this.pendingX != this.lastX || this.pendingY != this.lastY) {
+            this.writeCommand(" L", this.pendingX, this.pendingY);
+            this.lastX = this.pendingX;
+            this.lastY = this.pendingY;
+        }
+    }
+
+    /**
+     * Writes a path command and its point; this is called for nearly every wall, so it
+     * avoids String.format.
+     */
+    private void writeCommand(String command, int x, int y) throws IOException {
+        this.out.write(command);
+        this.out.write(Integer.toString(x));
+        this.out.write(' ');
+        this.out.write(Integer.toString(y));
+    }
+
+    private void finishPolyline() throws IOException {
+        if (!this.inPolyline) {
+            return;
+        }
+        this.flushPending();
+        this.inPolyline = false;
+        if (this.numPolylines >= MAX_POLYLINES_PER_ELEMENT) {
+            this.finishElement();
+        }
+    }
+
+    private void finishElement() throws IOException {
+        this.finishPolyline();
+        if (this.inElement) {
+            this.out.write("\"/>\n");
+            this.inElement = false;
+            this.numPolylines = 0;
+        }
+    }
+
+    /**
+     * Finishes the document and closes the writer.
+     */
+    @Override
+    public void close() throws IOException {
+        this.finishElement();
+        this.out.write("</svg>\n");
+        this.out.close();
+    }
+}
@@ -0,0 +1,274 @@
+package mazes.render;
+
+import datastructures.interfaces.IList;
+import mazes.cache.MazeCache;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.generators.base.BaseMazeGenerator;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.base.VoronoiGenerator;
+import mazes.generators.maze.DepthFirstMazeCarver;
+import mazes.generators.maze.KruskalMazeCarver;
+import mazes.generators.maze.MazeCarver;
+import mazes.generators.maze.RandomMazeCarver;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import mazes.generators.maze.WilsonMazeCarver;
+import mazes.gui.ImageDrawer;
+import mazes.gui.MainWindow;
+import mazes.solvers.MazeSolver;
+import misc.exceptions.NoPathExistsException;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates, carves, optionally solves and draws mazes straight to PNG files,
+ * without opening a window, so it also works on headless machines.
+ *
+ * Mazes are drawn exactly as the MainWindow draws them: the walls, the start and end
+ * rooms, and (if solving) the shortest path between them.
+ *
+ * renderAll(...) spreads the mazes over a pool of worker threads. Each worker draws
+ * into a single image of its own, which it clears and reuses for every maze.
+ *
+ * Run from the command line with no arguments to see the options.
+ */
+public class MazeRenderer {
+    private static final int PADDING = 5;
+
+    private BaseMazeGenerator generator;
+    private MazeCarver carver;
+    private int width;
+    private int height;
+    private boolean solve;
+
+    /**
+     * @param solve  whether to draw the shortest path from the start to the end
+     * @throws IllegalArgumentException  if the width or height is not positive
+     */
+    public MazeRenderer(BaseMazeGenerator generator, MazeCarver carver, int width, int height, boolean solve) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.generator = generator;
+        this.carver = carver;
+        this.width = width;
+        this.height = height;
+        this.solve = solve;
+    }
+
+    /**
+     * Returns a new image of the maze generated and carved with the given seed.
+     */
+    public BufferedImage render(long seed) {
+        BufferedImage image = this.createImage();
+        this.render(seed, new ImageDrawer(image, PADDING));
+        return image;
+    }
+
+    /**
+     * Renders the mazes with seeds firstSeed to firstSeed + count - 1 on 'numThreads'
+     * threads, writing each to 'maze-<seed>.png' in the given directory, and returns
+     * how many images were written per second.
+     *
+     * @throws IllegalArgumentException  if count is negative or numThreads is less than 1
+     * @throws IOException  if the directory can't be created or an image can't be written
+     */
+    public double renderAll(long firstSeed, int count, Path directory, int numThreads) throws IOException {
+        if (count < 0 || numThreads < 1) {
+            throw new IllegalArgumentException();
+        }
+        Files.createDirectories(directory);
+
+        long startTime = System.nanoTime();
+        AtomicLong nextSeed = new AtomicLong(firstSeed);
+        long endSeed = firstSeed + count;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                results.add(executor.submit(() -> this.runWorker(nextSeed, endSeed, directory)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering mazes", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw new IllegalStateException("Failed to render a maze", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return count / Math.max(seconds, 1e-9);
+    }
+
+    /**
+     * Takes seeds until there are none left, drawing every maze into the same image.
+     */
+    private void runWorker(AtomicLong nextSeed, long endSeed, Path directory) {
+        BufferedImage image = this.createImage();
+        ImageDrawer drawer = new ImageDrawer(image, PADDING);
+        for (long seed = nextSeed.getAndIncrement(); seed < endSeed; seed = nextSeed.getAndIncrement()) {
+            this.render(seed, drawer);
+            try {
+                ImageIO.write(image, "png", directory.resolve("maze-" + seed + ".png").toFile());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private void render(long seed, ImageDrawer drawer) {
+        drawer.clear();
+
+        Rectangle bound = drawer.getBoundingBox();
+        Maze baseMaze = this.generator.generateBaseMaze(bound, seed);
+        Maze maze = this.carver.generateMaze(baseMaze, MazeCache.carverSeed(seed));
+
+        Room start = maze.getRoom(new Point(bound.x + 5, bound.y + 5));
+        Room end = maze.getRoom(new Point(bound.x + bound.width - 5, bound.y + bound.height - 5));
+
+        drawer.drawMaze(maze);
+        drawer.drawPoint(start.getCenter());
+        drawer.drawPoint(end.getCenter());
+
+        if (this.solve) {
+            try {
+                IList<Wall> path = MazeSolver.findShortestPathBetween(baseMaze, maze, start, end);
+                drawer.drawPath(path);
+            } catch (NoPathExistsException ex) {
+                // Some carvers can leave the maze unsolvable; draw it without a path
+            }
+        }
+    }
+
+    /**
+     * Creates an image like the one MainWindow draws into.
+     */
+    private BufferedImage createImage() {
+        return new BufferedImage(this.width, this.height, BufferedImage.TYPE_BYTE_INDEXED);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        MazeRenderer renderer;
+        Path directory;
+        int count;
+        long seed = 0;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        try {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            directory = Paths.get(args[0]);
+            count = Integer.parseInt(args[1]);
+
+            String generatorName = "grid";
+            String carverName = "kruskal";
+            int width = MainWindow.DEFAULT_WIDTH;
+            int height = MainWindow.DEFAULT_HEIGHT;
+            boolean solve = false;
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--generator":
+                        generatorName = args[++i];
+                        break;
+                    case "--carver":
+                        carverName = args[++i];
+                        break;
+                    case "--size":
+                        String[] size = args[++i].split("x");
+                        width = Integer.parseInt(size[0]);
+                        height = Integer.parseInt(size[1]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--threads":
+                        numThreads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--solve":
+                        solve = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            renderer = new MazeRenderer(makeGenerator(generatorName), makeCarver(carverName), width, height, solve);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: MazeRenderer <output directory> <count> [--generator grid|voronoi|poisson]");
+            System.err.println("           [--carver kruskal|shuffled-kruskal|depth-first|wilson|random]");
+            System.err.println("           [--size <width>x<height>] [--seed <first seed>] [--threads <n>] [--solve]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            double imagesPerSecond = renderer.renderAll(seed, count, directory, numThreads);
+            System.out.printf("Rendered %d mazes to %s on %d threads (%.1f images/s)%n",
+                    count, directory, numThreads, imagesPerSecond);
+        } catch (IOException ex) {
+            System.err.println("Failed to write images: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the generator with the given command-line name, configured like MainWindow's.
+     */
+    private static BaseMazeGenerator makeGenerator(String name) {
+        switch (name) {
+            case "grid":
+                return new GridGenerator(40, 40);
+            case "voronoi":
+                return new VoronoiGenerator(800, 10, 10, 5);
+            case "poisson":
+                return new VoronoiGenerator(800, 30, 10, 5, VoronoiGenerator.Sampling.POISSON_DISK);
+            default:
+                throw new IllegalArgumentException("Unknown generator " + name);
+        }
+    }
+
+    /**
+     * Returns the carver with the given command-line name, configured like MainWindow's.
+     */
+    private static MazeCarver makeCarver(String name) {
+        switch (name) {
+            case "kruskal":
+                return new KruskalMazeCarver();
+            case "shuffled-kruskal":
+                return new ShuffledKruskalMazeCarver();
+            case "depth-first":
+                return new DepthFirstMazeCarver();
+            case "wilson":
+                return new WilsonMazeCarver(0.3);
+            case "random":
+                return new RandomMazeCarver(0.5);
+            default:
+                throw new IllegalArgumentException("Unknown carver " + name);
+        }
+    }
+}
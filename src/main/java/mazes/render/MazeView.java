@@ -0,0 +1,184 @@
+package mazes.render;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.interfaces.IList;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+import mazes.gui.ImageDrawer;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * A maze ready to be drawn through any viewport, however large the maze is.
+ *
+ * Only the walls that intersect the visible region are drawn, found through a
+ * WallIndex. When so many walls are visible that they would cover the screen
+ * anyway, the view draws a pre-rendered, lower-detail raster of the whole maze
+ * instead, scaled to fit; that raster is rendered once, the first time it's needed.
+ *
+ * Walls are drawn WALL_WIDTH pixels wide at normal size, and thinner (down to one
+ * pixel) when zoomed out. The markers and path are drawn like ImageDrawer draws them,
+ * and grow with the maze when zoomed in.
+ */
+public class MazeView {
+    public static final float WALL_WIDTH = 4;
+
+    // The longer side of the raster drawn when zoomed far out, in pixels
+    private static final int RASTER_SIZE = 2048;
+    // Draw the raster when there are fewer than this many screen pixels per visible wall
+    private static final int PIXELS_PER_WALL = 64;
+
+    private Rectangle boundingBox;
+    private WallIndex index;
+    private IList<Point> markers;
+    private IList<Wall> path;
+
+    private BufferedImage raster;
+    private double rasterScale;
+
+    /**
+     * @param boundingBox  the box the maze was generated in, drawn as its outline
+     */
+    public MazeView(Maze maze, Rectangle boundingBox) {
+        this.boundingBox = new Rectangle(boundingBox);
+        this.index = new WallIndex(maze);
+        this.markers = new DoubleLinkedList<>();
+        this.path = new DoubleLinkedList<>();
+
+        Rectangle extent = this.getExtent();
+        this.rasterScale = Math.min(1.0, (double) RASTER_SIZE / Math.max(extent.width, extent.height));
+    }
+
+    public Rectangle getBoundingBox() {
+        return new Rectangle(this.boundingBox);
+    }
+
+    public WallIndex getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Marks a point of the maze, such as the start or end room.
+     */
+    public void addMarker(Point point) {
+        this.markers.add(point);
+    }
+
+    /**
+     * Sets the path drawn over the maze, replacing any earlier one.
+     */
+    public void setPath(IList<Wall> path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns whether drawing through the given viewport would draw the low-detail
+     * raster, rather than the visible walls one by one.
+     */
+    public boolean drawsRaster(Viewport viewport) {
+        if (viewport.getScale() >= this.rasterScale) {
+            // The raster would look blurry
+            return false;
+        }
+        long screenPixels = (long) viewport.getScreenWidth() * viewport.getScreenHeight();
+        long visibleWalls = this.index.estimateIntersecting(viewport.getVisibleRegion());
+        return visibleWalls * PIXELS_PER_WALL > screenPixels;
+    }
+
+    /**
+     * Draws the maze as seen through the viewport onto the given graphics object,
+     * which should draw in screen pixels. The graphics object is left as it was.
+     */
+    public void draw(Graphics2D graphics, Viewport viewport) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            boolean useRaster = this.drawsRaster(viewport);
+            if (useRaster) {
+                this.drawRaster(g, viewport);
+            }
+            g.transform(viewport.getTransform());
+
+            float wallWidth = (float) Math.max(1.0, Math.min(WALL_WIDTH, WALL_WIDTH * viewport.getScale()));
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke((float) (wallWidth / viewport.getScale())));
+            g.draw(this.boundingBox);
+            if (!useRaster) {
+                this.drawWalls(g, viewport);
+            }
+
+            ImageDrawer drawer = new ImageDrawer(g, viewport.getScreenWidth(), viewport.getScreenHeight());
+            for (Point marker : this.markers) {
+                drawer.drawPoint(marker);
+            }
+            drawer.drawPath(this.path);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws the walls that intersect the visible region, in maze coordinates.
+     */
+    private void drawWalls(Graphics2D g, Viewport viewport) {
+        Rectangle visible = viewport.getVisibleRegion();
+        // Walls just off screen still reach onto it with their width
+        int margin = (int) Math.ceil(WALL_WIDTH / viewport.getScale()) + 1;
+        visible.grow(margin, margin);
+        this.index.forEachIntersecting(visible, segment -> g.drawLine(
+                this.index.getX1(segment), this.index.getY1(segment),
+                this.index.getX2(segment), this.index.getY2(segment)));
+    }
+
+    private void drawRaster(Graphics2D g, Viewport viewport) {
+        BufferedImage image = this.getRaster();
+        Rectangle extent = this.getExtent();
+        AffineTransform transform = viewport.getTransform();
+        transform.translate(extent.x, extent.y);
+        transform.scale(1 / this.rasterScale, 1 / this.rasterScale);
+
+        Graphics2D rasterGraphics = (Graphics2D) g.create();
+        rasterGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        rasterGraphics.drawImage(image, transform, null);
+        rasterGraphics.dispose();
+    }
+
+    /**
+     * Returns the raster of every wall, rendering it first if this is the first call.
+     */
+    private synchronized BufferedImage getRaster() {
+        if (this.raster == null) {
+            Rectangle extent = this.getExtent();
+            BufferedImage image = new BufferedImage(
+                    Math.max(1, (int) Math.ceil(extent.width * this.rasterScale)),
+                    Math.max(1, (int) Math.ceil(extent.height * this.rasterScale)),
+                    BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = image.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.scale(this.rasterScale, this.rasterScale);
+            g.translate(-extent.x, -extent.y);
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke((float) (1 / this.rasterScale)));
+            for (int segment = 0; segment < this.index.numSegments(); segment++) {
+                g.drawLine(this.index.getX1(segment), this.index.getY1(segment),
+                        this.index.getX2(segment), this.index.getY2(segment));
+            }
+            g.dispose();
+            this.raster = image;
+        }
+        return this.raster;
+    }
+
+    /**
+     * Returns the region covered by the walls, plus a little room for their width.
+     */
+    private Rectangle getExtent() {
+        Rectangle extent = this.index.numSegments() == 0 ? new Rectangle(this.boundingBox) : this.index.getBounds();
+        extent.grow(1, 1);
+        return extent;
+    }
+}
@@ -0,0 +1,146 @@
+package mazes.render;
+
+import datastructures.interfaces.IList;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.base.VoronoiGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import mazes.gui.ImageDrawer;
+import mazes.solvers.MazeSolver;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures how many walls per second ImageDrawer draws, against other ways of
+ * drawing the same thing.
+ *
+ * For walls, it compares drawMaze(...), which draws one line per wall, against
+ * stroking every wall as one Path2D. For paths, it compares drawPath(...) against
+ * drawing two ovals and a new curve per wall, as drawPath(...) used to, on the
+ * solution of the maze once carved.
+ *
+ * Run with no arguments for the default sizes, or with '<image size> <grid size>'
+ * (for example '2000 300' draws a 300x300 grid maze into a 2000x2000 image).
+ * Each case is warmed up first, and the best of several rounds is reported.
+ */
+public class RenderBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final int PATH_WALLS = 100000;
+
+    private BufferedImage image;
+    private ImageDrawer drawer;
+
+    public RenderBenchmark(int imageSize) {
+        this.image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+        this.drawer = new ImageDrawer(this.image, 5);
+    }
+
+    /**
+     * Draws the maze's walls by stroking them all as a single path.
+     */
+    private void drawMazeAsOnePath(Maze maze) {
+        Graphics2D g = this.drawer.getGraphics();
+        g.setColor(Color.BLACK);
+        g.setStroke(new BasicStroke(4));
+        g.draw(this.drawer.getBoundingBox());
+        Path2D.Float walls = new Path2D.Float(Path2D.WIND_NON_ZERO,
+                2 * (maze.getWalls().size() + maze.getUntouchableWalls().size()));
+        for (Wall wall : maze.getWalls()) {
+            LineSegment segment = wall.getDividingLine();
+            walls.moveTo(segment.start.x, segment.start.y);
+            walls.lineTo(segment.end.x, segment.end.y);
+        }
+        for (Wall wall : maze.getUntouchableWalls()) {
+            LineSegment segment = wall.getDividingLine();
+            walls.moveTo(segment.start.x, segment.start.y);
+            walls.lineTo(segment.end.x, segment.end.y);
+        }
+        g.draw(walls);
+    }
+
+    /**
+     * Draws a path as ImageDrawer.drawPath used to: two ovals and a new Path2D per wall.
+     */
+    private void drawPathAsBefore(IList<Wall> path) {
+        Graphics2D g = this.drawer.getGraphics();
+        g.setColor(Color.RED);
+        g.setStroke(new BasicStroke(2));
+        for (Wall wall : path) {
+            Point center1 = wall.getRoom1().getCenter();
+            Point center2 = wall.getRoom2().getCenter();
+            Point midpoint = wall.getDividingLine().midpoint();
+            g.fillOval(center1.x - 4, center1.y - 4, 8, 8);
+            g.fillOval(center2.x - 4, center2.y - 4, 8, 8);
+
+            Path2D.Double curve = new Path2D.Double();
+            curve.moveTo(center1.x, center1.y);
+            curve.curveTo(midpoint.x, midpoint.y, midpoint.x, midpoint.y, center2.x, center2.y);
+            g.draw(curve);
+        }
+    }
+
+    /**
+     * Returns the best rate, in walls per second, over several rounds of the given drawing.
+     */
+    private double measure(int numWalls, Runnable draw) {
+        double best = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            this.drawer.clear();
+            long start = System.nanoTime();
+            draw.run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.max(best, numWalls / Math.max(seconds, 1e-9));
+            }
+        }
+        return best;
+    }
+
+    private void compare(String name, Maze maze) {
+        int numWalls = maze.getWalls().size() + maze.getUntouchableWalls().size();
+        double current = this.measure(numWalls, () -> this.drawer.drawMaze(maze));
+        double alternative = this.measure(numWalls, () -> this.drawMazeAsOnePath(maze));
+        report(name + " walls", numWalls, "drawMaze", current, "one Path2D", alternative);
+
+        // The solution of the carved maze, drawn enough times to make up 100,000 walls
+        Rectangle bound = this.drawer.getBoundingBox();
+        Maze carved = new ShuffledKruskalMazeCarver().generateMaze(maze, 0);
+        IList<Wall> path = MazeSolver.findShortestPathBetween(maze, carved,
+                carved.getRoom(new Point(bound.x + 5, bound.y + 5)),
+                carved.getRoom(new Point(bound.x + bound.width - 5, bound.y + bound.height - 5)));
+        int repeats = Math.max(1, PATH_WALLS / Math.max(1, path.size()));
+        current = this.measure(path.size() * repeats, () -> {
+            for (int i = 0; i < repeats; i++) {
+                this.drawer.drawPath(path);
+            }
+        });
+        alternative = this.measure(path.size() * repeats, () -> {
+            for (int i = 0; i < repeats; i++) {
+                this.drawPathAsBefore(path);
+            }
+        });
+        report(name + " path", path.size() * repeats, "drawPath", current, "as before", alternative);
+    }
+
+    private static void report(String name, int numWalls,
+                               String currentName, double current, String alternativeName, double alternative) {
+        System.out.printf("%-14s %8d walls: %-8s %,12.0f walls/s, %-10s %,12.0f walls/s (drawer %.1fx faster)%n",
+                name, numWalls, currentName, current, alternativeName, alternative, current / alternative);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int imageSize = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int gridSize = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        RenderBenchmark benchmark = new RenderBenchmark(imageSize);
+        Rectangle box = benchmark.drawer.getBoundingBox();
+        benchmark.compare("grid", new GridGenerator(gridSize, gridSize).generateBaseMaze(box, 0));
+        benchmark.compare("voronoi", new VoronoiGenerator(gridSize * gridSize, 10, 0, 5).generateBaseMaze(box, 0));
+    }
+}
@@ -0,0 +1,275 @@
+package mazes.render;
+
+import mazes.gui.ImageDrawer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuts a maze view into square TILE_SIZE-pixel map tiles, addressed the usual
+ * z/x/y way: at zoom level z the maze is 2^z tiles across and 2^z tiles down,
+ * and tile (x, y) is x tiles from the left and y from the top.
+ *
+ * Every tile is drawn on its own, through an ImageDrawer and a viewport covering
+ * just that tile, so tiles may be requested from any number of threads at once.
+ * Up to 'capacity' tiles are cached, evicting the least recently used ones first.
+ * A missing tile whose four tiles on the next level up are all cached is made by
+ * shrinking those instead of drawing it; precompute(...) draws a whole level in
+ * parallel and fills in every level below it that way. Otherwise, only the tiles
+ * asked for are ever drawn.
+ */
+public class TileRenderer {
+    public static final int TILE_SIZE = 256;
+    // Tile coordinates are packed into a long: 6 bits of zoom, 29 each of x and y
+    public static final int MAX_ZOOM = 28;
+
+    private MazeView view;
+    private Rectangle world;
+    private int maxZoom;
+    private int capacity;
+
+    // In access order, so the first entry is always the least recently used
+    private LinkedHashMap<Long, BufferedImage> tiles;
+
+    private long hits;
+    private long renders;
+    private long downsamples;
+    private long evictions;
+
+    /**
+     * @param world    the region of the maze to cut into tiles, in maze coordinates;
+     *                 it's made square by extending it to the right or downwards
+     * @param maxZoom  the deepest zoom level, at which one tile covers at least one
+     *                 unit of the maze
+     * @throws IllegalArgumentException  if the world is empty, maxZoom is negative, more
+     *                                   than MAX_ZOOM or too deep for the world, or the
+     *                                   capacity is negative
+     */
+    public TileRenderer(MazeView view, Rectangle world, int maxZoom, int capacity) {
+        if (world.isEmpty() || maxZoom < 0 || maxZoom > MAX_ZOOM || capacity < 0
+                || (1L << maxZoom) > Math.max(world.width, world.height)) {
+            throw new IllegalArgumentException();
+        }
+        // Round the side up so that tiles at every level cover a whole number of units
+        long side = Math.max(world.width, world.height);
+        long unit = 1L << maxZoom;
+        side = (side + unit - 1) / unit * unit;
+        if (side > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+
+        this.view = view;
+        this.world = new Rectangle(world.x, world.y, (int) side, (int) side);
+        this.maxZoom = maxZoom;
+        this.capacity = capacity;
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public int getMaxZoom() {
+        return this.maxZoom;
+    }
+
+    /**
+     * Returns the region of the maze covered by the given tile, in maze coordinates.
+     *
+     * @throws IndexOutOfBoundsException  if there is no such tile
+     */
+    public Rectangle getTileBounds(int zoom, int x, int y) {
+        this.checkTile(zoom, x, y);
+        int size = this.world.width >> zoom;
+        return new Rectangle(this.world.x + x * size, this.world.y + y * size, size, size);
+    }
+
+    /**
+     * Returns the given tile, from the cache if possible. The image must not be modified.
+     *
+     * @throws IndexOutOfBoundsException  if there is no such tile
+     */
+    public BufferedImage getTile(int zoom, int x, int y) {
+        this.checkTile(zoom, x, y);
+        long key = key(zoom, x, y);
+        BufferedImage[] children = null;
+        synchronized (this) {
+            BufferedImage tile = this.tiles.get(key);
+            if (tile != null) {
+                this.hits++;
+                return tile;
+            }
+            if (zoom < this.maxZoom) {
+                children = this.getCachedChildren(zoom, x, y);
+            }
+        }
+
+        // Tiles are drawn outside the lock, so that several can be drawn at once. Two
+        // threads asking for the same new tile at once may both draw it; they draw the
+        // same picture either way.
+        BufferedImage tile = children != null ? downsample(children) : this.renderTile(zoom, x, y);
+        synchronized (this) {
+            if (children != null) {
+                this.downsamples++;
+            } else {
+                this.renders++;
+            }
+            this.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Draws every tile at the given zoom level on 'numThreads' threads, then makes every
+     * tile on each level below it by shrinking the tiles above, and caches them all.
+     *
+     * The cache should have room for all of those tiles: one at level 0, four at level 1,
+     * and so on. Any that were evicted before they were needed are drawn again.
+     *
+     * @throws IllegalArgumentException  if numThreads is less than 1
+     * @throws IndexOutOfBoundsException  if there is no such zoom level
+     */
+    public void precompute(int zoom, int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.checkTile(zoom, 0, 0);
+        int tilesAcross = 1 << zoom;
+        long numTiles = (long) tilesAcross * tilesAcross;
+        if (numTiles > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+
+        AtomicInteger nextTile = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                results.add(executor.submit(() -> {
+                    for (int tile = nextTile.getAndIncrement(); tile < numTiles; tile = nextTile.getAndIncrement()) {
+                        this.getTile(zoom, tile % tilesAcross, tile / tilesAcross);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering tiles", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to render a tile", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int level = zoom - 1; level >= 0; level--) {
+            for (int y = 0; y < 1 << level; y++) {
+                for (int x = 0; x < 1 << level; x++) {
+                    this.getTile(level, x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the given tile from scratch, ignoring and bypassing the cache.
+     *
+     * @throws IndexOutOfBoundsException  if there is no such tile
+     */
+    public BufferedImage renderTile(int zoom, int x, int y) {
+        Rectangle bounds = this.getTileBounds(zoom, x, y);
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        ImageDrawer drawer = new ImageDrawer(image, 0);
+        drawer.clear();
+        this.view.draw(drawer.getGraphics(), new Viewport(bounds, TILE_SIZE, TILE_SIZE));
+        drawer.getGraphics().dispose();
+        return image;
+    }
+
+    /**
+     * Returns how many tiles were found in the cache.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns how many tiles were drawn from the maze.
+     */
+    public synchronized long getRenders() {
+        return this.renders;
+    }
+
+    /**
+     * Returns how many tiles were made by shrinking the four tiles above them.
+     */
+    public synchronized long getDownsamples() {
+        return this.downsamples;
+    }
+
+    /**
+     * Returns how many tiles were dropped from the cache to make room for others.
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the four cached tiles covering the given tile on the next level up,
+     * in reading order, or null unless all four are cached.
+     */
+    private BufferedImage[] getCachedChildren(int zoom, int x, int y) {
+        BufferedImage[] children = new BufferedImage[4];
+        for (int i = 0; i < 4; i++) {
+            children[i] = this.tiles.get(key(zoom + 1, 2 * x + i % 2, 2 * y + i / 2));
+            if (children[i] == null) {
+                return null;
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Shrinks four tiles, in reading order, into one; each pixel becomes the average
+     * of the four pixels it covers.
+     */
+    private static BufferedImage downsample(BufferedImage[] children) {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        int half = TILE_SIZE / 2;
+        for (int i = 0; i < 4; i++) {
+            g.drawImage(children[i], i % 2 * half, i / 2 * half, half, half, null);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private void put(long key, BufferedImage tile) {
+        this.tiles.put(key, tile);
+        Iterator<Map.Entry<Long, BufferedImage>> iter = this.tiles.entrySet().iterator();
+        while (this.tiles.size() > this.capacity && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+            this.evictions++;
+        }
+    }
+
+    private void checkTile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > this.maxZoom || x < 0 || y < 0 || x >= 1 << zoom || y >= 1 << zoom) {
+            throw new IndexOutOfBoundsException(String.format("No tile %d/%d/%d", zoom, x, y));
+        }
+    }
+
+    private static long key(int zoom, int x, int y) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+}
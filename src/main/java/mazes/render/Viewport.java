@@ -0,0 +1,143 @@
+package mazes.render;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Which part of a maze is on screen, and how large: maps maze coordinates to
+ * screen pixels by scaling and then translating.
+ *
+ * The viewport starts out fitting the whole world on screen, and can be zoomed in
+ * up to MAX_ZOOM times further. It can be panned, but never so far that the centre
+ * of the screen leaves the world.
+ */
+public class Viewport {
+    public static final double MAX_ZOOM = 64;
+
+    private Rectangle world;
+    private int screenWidth;
+    private int screenHeight;
+
+    private double fitScale;
+    private double scale;
+    // screen = world * scale + offset
+    private double offsetX;
+    private double offsetY;
+
+    /**
+     * @param world  the region of the maze, in maze coordinates, that should fit the screen
+     * @throws IllegalArgumentException  if the world or screen is empty
+     */
+    public Viewport(Rectangle world, int screenWidth, int screenHeight) {
+        if (world.isEmpty() || screenWidth <= 0 || screenHeight <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.world = new Rectangle(world);
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.fit();
+    }
+
+    /**
+     * Zooms all the way out, so the whole world is on screen and centred.
+     */
+    public void fit() {
+        this.fitScale = Math.min(
+                (double) this.screenWidth / this.world.width,
+                (double) this.screenHeight / this.world.height);
+        this.scale = this.fitScale;
+        this.offsetX = (this.screenWidth - this.world.width * this.scale) / 2 - this.world.x * this.scale;
+        this.offsetY = (this.screenHeight - this.world.height * this.scale) / 2 - this.world.y * this.scale;
+    }
+
+    /**
+     * Zooms in by the given factor (or out, if it's less than 1), keeping the maze
+     * point under the given screen point where it is.
+     */
+    public void zoom(double factor, Point anchor) {
+        double newScale = Math.max(this.fitScale, Math.min(this.fitScale * MAX_ZOOM, this.scale * factor));
+        double worldX = (anchor.x - this.offsetX) / this.scale;
+        double worldY = (anchor.y - this.offsetY) / this.scale;
+        this.scale = newScale;
+        this.offsetX = anchor.x - worldX * newScale;
+        this.offsetY = anchor.y - worldY * newScale;
+        this.clamp();
+    }
+
+    /**
+     * Moves the maze by the given number of pixels across the screen.
+     */
+    public void pan(int dx, int dy) {
+        this.offsetX += dx;
+        this.offsetY += dy;
+        this.clamp();
+    }
+
+    private void clamp() {
+        double centerX = this.screenWidth / 2.0;
+        double centerY = this.screenHeight / 2.0;
+        this.offsetX = Math.max(centerX - this.world.getMaxX() * this.scale,
+                Math.min(centerX - this.world.x * this.scale, this.offsetX));
+        this.offsetY = Math.max(centerY - this.world.getMaxY() * this.scale,
+                Math.min(centerY - this.world.y * this.scale, this.offsetY));
+    }
+
+    /**
+     * Returns how many screen pixels one unit of maze takes up.
+     */
+    public double getScale() {
+        return this.scale;
+    }
+
+    /**
+     * Returns how far zoomed in this viewport is: 1 when the whole world fits the screen.
+     */
+    public double getZoom() {
+        return this.scale / this.fitScale;
+    }
+
+    public int getScreenWidth() {
+        return this.screenWidth;
+    }
+
+    public int getScreenHeight() {
+        return this.screenHeight;
+    }
+
+    /**
+     * Returns the transform from maze coordinates to screen pixels.
+     */
+    public AffineTransform getTransform() {
+        return new AffineTransform(this.scale, 0, 0, this.scale, this.offsetX, this.offsetY);
+    }
+
+    /**
+     * Returns the point of the maze under the given screen point.
+     */
+    public Point2D toWorld(Point screenPoint) {
+        return new Point2D.Double(
+                (screenPoint.x - this.offsetX) / this.scale,
+                (screenPoint.y - this.offsetY) / this.scale);
+    }
+
+    /**
+     * Returns the smallest rectangle of screen pixels covering the given region of the maze.
+     */
+    public Rectangle toScreen(Rectangle region) {
+        return this.getTransform().createTransformedShape(region).getBounds();
+    }
+
+    /**
+     * Returns the smallest rectangle, in maze coordinates, covering everything on screen.
+     */
+    public Rectangle getVisibleRegion() {
+        Rectangle2D visible = new Rectangle2D.Double(
+                -this.offsetX / this.scale,
+                -this.offsetY / this.scale,
+                this.screenWidth / this.scale,
+                this.screenHeight / this.scale);
+        return visible.getBounds();
+    }
+}
@@ -0,0 +1,186 @@
+package mazes.render;
+
+import mazes.entities.CellLists;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+
+import java.awt.*;
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid over the wall segments of a maze, for finding the walls that
+ * lie in some region without looking at all of them.
+ *
+ * The segments are copied into int arrays and numbered 0 to numSegments() - 1;
+ * each grid cell lists (in a CellLists) every segment whose bounding box overlaps it.
+ * Queries keep no state, so any number of threads may query the same index.
+ */
+public class WallIndex {
+    // Aim for this many segments per cell, on average
+    private static final int SEGMENTS_PER_CELL = 4;
+
+    private int[] x1;
+    private int[] y1;
+    private int[] x2;
+    private int[] y2;
+    private int numSegments;
+
+    private Rectangle bounds;
+    private int cellSize;
+    private int numColumns;
+    private int numRows;
+    private CellLists cells;
+
+    /**
+     * Indexes every wall of the maze, removable or not.
+     */
+    public WallIndex(Maze maze) {
+        int capacity = maze.getWalls().size() + maze.getUntouchableWalls().size();
+        this.x1 = new int[capacity];
+        this.y1 = new int[capacity];
+        this.x2 = new int[capacity];
+        this.y2 = new int[capacity];
+        this.numSegments = 0;
+        for (Wall wall : maze.getWalls()) {
+            this.addSegment(wall.getDividingLine());
+        }
+        for (Wall wall : maze.getUntouchableWalls()) {
+            this.addSegment(wall.getDividingLine());
+        }
+        this.buildGrid();
+    }
+
+    private void addSegment(LineSegment segment) {
+        this.x1[this.numSegments] = segment.start.x;
+        this.y1[this.numSegments] = segment.start.y;
+        this.x2[this.numSegments] = segment.end.x;
+        this.y2[this.numSegments] = segment.end.y;
+        this.numSegments++;
+    }
+
+    private void buildGrid() {
+        this.bounds = new Rectangle();
+        for (int i = 0; i < this.numSegments; i++) {
+            Rectangle box = this.getSegmentBounds(i);
+            if (i == 0) {
+                this.bounds = box;
+            } else {
+                this.bounds.add(box);
+            }
+        }
+
+        double area = Math.max(1.0, (double) (this.bounds.width + 1) * (this.bounds.height + 1));
+        double numCells = Math.max(1.0, (double) this.numSegments / SEGMENTS_PER_CELL);
+        this.cellSize = Math.max(1, (int) Math.ceil(Math.sqrt(area / numCells)));
+        this.numColumns = this.bounds.width / this.cellSize + 1;
+        this.numRows = this.bounds.height / this.cellSize + 1;
+
+        this.cells = new CellLists(this.numColumns, this.numRows, this.numSegments, segment -> {
+            Rectangle box = this.getSegmentBounds(segment);
+            int firstColumn = this.column(box.x);
+            int firstRow = this.row(box.y);
+            return new Rectangle(firstColumn, firstRow,
+                    this.column(box.x + box.width) - firstColumn, this.row(box.y + box.height) - firstRow);
+        });
+    }
+
+    public int numSegments() {
+        return this.numSegments;
+    }
+
+    /**
+     * Returns the smallest rectangle containing every segment.
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(this.bounds);
+    }
+
+    public int getX1(int segment) {
+        return this.x1[segment];
+    }
+
+    public int getY1(int segment) {
+        return this.y1[segment];
+    }
+
+    public int getX2(int segment) {
+        return this.x2[segment];
+    }
+
+    public int getY2(int segment) {
+        return this.y2[segment];
+    }
+
+    /**
+     * Passes the number of every segment whose bounding box intersects the given
+     * region to the visitor, once each, in no particular order.
+     */
+    public void forEachIntersecting(Rectangle region, IntConsumer visitor) {
+        if (this.numSegments == 0) {
+            return;
+        }
+        int minX = region.x;
+        int minY = region.y;
+        int maxX = region.x + region.width;
+        int maxY = region.y + region.height;
+        int firstColumn = this.column(minX);
+        int lastColumn = this.column(maxX);
+        int firstRow = this.row(minY);
+        int lastRow = this.row(maxY);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * this.numColumns + column;
+                for (int i = this.cells.getStart(cell); i < this.cells.getStart(cell + 1); i++) {
+                    int segment = this.cells.getItem(i);
+                    int segmentMinX = Math.min(this.x1[segment], this.x2[segment]);
+                    int segmentMinY = Math.min(this.y1[segment], this.y2[segment]);
+                    if (segmentMinX > maxX || Math.max(this.x1[segment], this.x2[segment]) < minX
+                            || segmentMinY > maxY || Math.max(this.y1[segment], this.y2[segment]) < minY) {
+                        continue;
+                    }
+                    // A segment spanning several cells is only reported from the first
+                    // of them that the query covers
+                    if (column == Math.max(firstColumn, this.column(segmentMinX))
+                            && row == Math.max(firstRow, this.row(segmentMinY))) {
+                        visitor.accept(segment);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns roughly how many segments lie in the given region, without visiting
+     * them: segments spanning several cells are counted more than once.
+     */
+    public int estimateIntersecting(Rectangle region) {
+        if (this.numSegments == 0) {
+            return 0;
+        }
+        int total = 0;
+        for (int row = this.row(region.y); row <= this.row(region.y + region.height); row++) {
+            int first = row * this.numColumns + this.column(region.x);
+            int last = row * this.numColumns + this.column(region.x + region.width);
+            total += this.cells.getStart(last + 1) - this.cells.getStart(first);
+        }
+        return total;
+    }
+
+    private Rectangle getSegmentBounds(int segment) {
+        int minX = Math.min(this.x1[segment], this.x2[segment]);
+        int minY = Math.min(this.y1[segment], this.y2[segment]);
+        return new Rectangle(minX, minY,
+                Math.max(this.x1[segment], this.x2[segment]) - minX,
+                Math.max(this.y1[segment], this.y2[segment]) - minY);
+    }
+
+    private int column(int x) {
+        return Math.max(0, Math.min(this.numColumns - 1, (x - this.bounds.x) / this.cellSize));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(this.numRows - 1, (y - this.bounds.y) / this.cellSize));
+    }
+}
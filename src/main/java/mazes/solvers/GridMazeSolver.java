@@ -0,0 +1,122 @@
+package mazes.solvers;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.interfaces.IList;
+import mazes.entities.GridMaze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import misc.exceptions.NoPathExistsException;
+
+import java.util.BitSet;
+
+/**
+ * Finds paths through a GridMaze by walking its open walls directly, without
+ * building a Graph or any Room and Wall objects along the way.
+ */
+public class GridMazeSolver {
+    private GridMazeSolver() {
+        // Static utility class
+    }
+
+    /**
+     * Returns the walls passed through on a path from the start room to the end
+     * room that crosses as few walls as possible. In a perfect maze this is the
+     * only path.
+     *
+     * The first wall in the output list is the one leading out of the start room;
+     * the last is the one leading into the end room. The list is empty if the
+     * start and end are the same room.
+     *
+     * @throws IllegalArgumentException  if either room is not part of the maze
+     * @throws NoPathExistsException  if there is no path from the start to the end
+     */
+    public static IList<Wall> findShortestPathBetween(GridMaze maze, Room start, Room end) {
+        int startId = maze.getRoomId(start.getCenter());
+        int endId = maze.getRoomId(end.getCenter());
+        if (startId < 0 || endId < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        IList<Wall> path = new DoubleLinkedList<>();
+        for (int wallId : findShortestPathBetween(maze, startId, endId)) {
+            path.add(maze.getWall(wallId));
+        }
+        return path;
+    }
+
+    /**
+     * Same as above, but takes and returns ids: the output holds the ids of the
+     * walls passed through, in order.
+     *
+     * @throws IndexOutOfBoundsException  if either room id is not part of the maze
+     * @throws NoPathExistsException  if there is no path from the start to the end
+     */
+    public static int[] findShortestPathBetween(GridMaze maze, int start, int end) {
+        int numRooms = maze.numRooms();
+        if (start < 0 || start >= numRooms || end < 0 || end >= numRooms) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // Breadth-first search, remembering the wall each room was entered through
+        int[] enteredThrough = new int[numRooms];
+        BitSet visited = new BitSet(numRooms);
+        int[] queue = new int[numRooms];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start;
+        visited.set(start);
+        while (head < tail && !visited.get(end)) {
+            int room = queue[head++];
+            int x = maze.roomX(room);
+            int y = maze.roomY(room);
+
+            if (x > 0 && maze.isEastOpen(x - 1, y)) {
+                tail = visit(room - 1, maze.eastWallId(x - 1, y), visited, enteredThrough, queue, tail);
+            }
+            if (x < maze.getNumColumns() - 1 && maze.isEastOpen(x, y)) {
+                tail = visit(room + 1, maze.eastWallId(x, y), visited, enteredThrough, queue, tail);
+            }
+            if (y > 0 && maze.isSouthOpen(x, y - 1)) {
+                tail = visit(room - maze.getNumColumns(), maze.southWallId(x, y - 1),
+                        visited, enteredThrough, queue, tail);
+            }
+            if (y < maze.getNumRows() - 1 && maze.isSouthOpen(x, y)) {
+                tail = visit(room + maze.getNumColumns(), maze.southWallId(x, y),
+                        visited, enteredThrough, queue, tail);
+            }
+        }
+
+        if (!visited.get(end)) {
+            throw new NoPathExistsException();
+        }
+
+        // Walk back from the end to count the path, then again to fill it in
+        int length = 0;
+        for (int room = end; room != start; room = otherRoom(maze, enteredThrough[room], room)) {
+            length++;
+        }
+        int[] path = new int[length];
+        int room = end;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = enteredThrough[room];
+            room = otherRoom(maze, path[i], room);
+        }
+        return path;
+    }
+
+    private static int visit(int room, int wallId, BitSet visited, int[] enteredThrough, int[] queue, int tail) {
+        if (!visited.get(room)) {
+            visited.set(room);
+            enteredThrough[room] = wallId;
+            queue[tail] = room;
+            return tail + 1;
+        }
+        return tail;
+    }
+
+    private static int otherRoom(GridMaze maze, int wallId, int room) {
+        int room1 = maze.getWallRoom1(wallId);
+        return room1 == room ? maze.getWallRoom2(wallId) : room1;
+    }
+}
@@ -0,0 +1,51 @@
+package mazes.solvers;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISet;
+import mazes.entities.GridMaze;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import misc.exceptions.NoPathExistsException;
+import misc.graphs.Graph;
+
+/**
+ * Finds paths through any carved maze, using GridMazeSolver for grids and a Graph
+ * of the removed walls for everything else.
+ */
+public class MazeSolver {
+    private MazeSolver() {
+        // Static utility class
+    }
+
+    /**
+     * Returns the walls passed through on the shortest path from the start room to the
+     * end room of 'maze', which was carved from 'baseMaze'. Only the walls the carver
+     * removed can be passed through.
+     *
+     * The first wall in the output list is the one leading out of the start room;
+     * the last is the one leading into the end room.
+     *
+     * @throws NoPathExistsException  if there is no path from the start to the end
+     */
+    public static IList<Wall> findShortestPathBetween(Maze baseMaze, Maze maze, Room start, Room end) {
+        if (maze instanceof GridMaze) {
+            return GridMazeSolver.findShortestPathBetween((GridMaze) maze, start, end);
+        }
+        Graph<Room, Wall> graph = new Graph<>(
+                baseMaze.getRooms(),
+                subtract(baseMaze.getWalls(), maze.getWalls()));
+        return graph.findShortestPathBetween(start, end);
+    }
+
+    private static <T> ISet<T> subtract(ISet<T> bigger, ISet<T> smaller) {
+        ISet<T> output = new ChainedHashSet<>();
+        for (T item : bigger) {
+            if (!smaller.contains(item)) {
+                output.add(item);
+            }
+        }
+        return output;
+    }
+}
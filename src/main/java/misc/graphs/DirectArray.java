@@ -0,0 +1,89 @@
+//   A fixed-length array of ints, longs or doubles stored outside the Java heap
+//   in direct ByteBuffers, so its contents are never scanned or moved by the GC
+//
+//   A single ByteBuffer holds at most 2GB, so the array is split into segments.
+//   The segment size is a multiple of every element width, so no element ever
+//   straddles two segments.
+
+package misc.graphs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+class DirectArray {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private ByteBuffer[] segments;
+    private int widthShift;
+    private long length;
+
+    // Creates an array of 'length' zeroed elements, each 2^widthShift bytes wide
+    //
+    // @throws IllegalArgumentException  if the length is negative
+    private DirectArray(long length, int widthShift) {
+        if (length < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.length = length;
+        this.widthShift = widthShift;
+
+        long numBytes = length << widthShift;
+        this.segments = new ByteBuffer[(int) ((numBytes + SEGMENT_MASK) >>> SEGMENT_BITS)];
+        for (int i = 0; i < this.segments.length; i++) {
+            long size = Math.min(numBytes - ((long) i << SEGMENT_BITS), 1L << SEGMENT_BITS);
+            this.segments[i] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public static DirectArray ofInts(long length) {
+        return new DirectArray(length, 2);
+    }
+
+    public static DirectArray ofLongs(long length) {
+        return new DirectArray(length, 3);
+    }
+
+    public static DirectArray ofDoubles(long length) {
+        return new DirectArray(length, 3);
+    }
+
+    public long length() {
+        return this.length;
+    }
+
+    // Returns how many bytes of native memory the array occupies
+    public long numBytes() {
+        return this.length << this.widthShift;
+    }
+
+    public int getInt(long index) {
+        long offset = index << 2;
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    public void setInt(long index, int value) {
+        long offset = index << 2;
+        this.segments[(int) (offset >>> SEGMENT_BITS)].putInt((int) (offset & SEGMENT_MASK), value);
+    }
+
+    public long getLong(long index) {
+        long offset = index << 3;
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    public void setLong(long index, long value) {
+        long offset = index << 3;
+        this.segments[(int) (offset >>> SEGMENT_BITS)].putLong((int) (offset & SEGMENT_MASK), value);
+    }
+
+    public double getDouble(long index) {
+        long offset = index << 3;
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].getDouble((int) (offset & SEGMENT_MASK));
+    }
+
+    public void setDouble(long index, double value) {
+        long offset = index << 3;
+        this.segments[(int) (offset >>> SEGMENT_BITS)].putDouble((int) (offset & SEGMENT_MASK), value);
+    }
+}
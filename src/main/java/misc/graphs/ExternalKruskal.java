@@ -0,0 +1,410 @@
+//   Finds the minimum spanning tree of a graph whose edges are stored in a file,
+//   without ever holding more than a fixed number of edges in memory
+//
+//   Edge files are a plain sequence of 16-byte records, big-endian:
+//     int vertex1, int vertex2, double weight
+//   Vertices are numbered from 0, and only as many vertices as the largest id
+//   seen are assumed. The MST is written out in the same format.
+//
+//   This is Kruskal's algorithm, done the external-memory way:
+//     1. The edges are read 'chunkEdges' at a time; each chunk is sorted by weight
+//        and written to its own temporary "run" file
+//     2. The runs are merged, at most MAX_FAN_IN at a time, using an ArrayHeap of
+//        the next edge from each run
+//     3. The final merge streams the edges, in ascending weight order, through a
+//        union-find over the vertex ids, writing out each edge that joins two trees
+//
+//   Memory use is about 24 bytes per chunk edge, 4 bytes per vertex, and one
+//   buffer per open run, however large the edge file is.
+
+package misc.graphs;
+
+import datastructures.concrete.ArrayHeap;
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.IntDisjointSet;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.IPriorityQueue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ExternalKruskal {
+    public static final int EDGE_BYTES = 16;
+
+    // How many runs are merged at once, which bounds the open files and buffers
+    public static final int MAX_FAN_IN = 64;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // Reads the edges in 'edgeFile' and writes the edges of its minimum spanning
+    // forest to 'output' (replacing anything already there), in ascending order of
+    // weight, and returns how many there are
+    //   Of edges with equal weights, the one earlier in the file is preferred
+    //   The temporary runs are kept in a directory next to the output file, and
+    //   are deleted before returning
+    //
+    // @throws IllegalArgumentException  if chunkEdges is less than 1
+    // @throws IOException
+    //   if either file can't be read or written
+    //   if the edge file's size isn't a multiple of EDGE_BYTES, or it has a negative vertex
+    public static long findMinimumSpanningTree(Path edgeFile, Path output, int chunkEdges) throws IOException {
+        if (chunkEdges < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        Path tempDirectory = Files.createTempDirectory(parent, "kruskal");
+        Throwable failure = null;
+        try {
+            IList<Path> runs = new DoubleLinkedList<>();
+            int numVertices = createRuns(edgeFile, tempDirectory, chunkEdges, runs);
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergeRuns(runs, tempDirectory);
+            }
+            return streamMinimumSpanningTree(runs, output, numVertices);
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            deleteDirectory(tempDirectory, failure);
+        }
+    }
+
+    // Deletes whatever runs are left in the directory, even if something went wrong
+    // half-way through a merge, and then the directory itself
+    //   A file that can't be deleted doesn't stop the others from being deleted
+    //   If 'failure' isn't null, any errors are added to it as suppressed exceptions,
+    //   so they don't hide it; otherwise the first error is thrown once all are tried
+    private static void deleteDirectory(Path directory, Throwable failure) throws IOException {
+        IOException cleanupFailure = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                try {
+                    Files.delete(file);
+                } catch (IOException ex) {
+                    cleanupFailure = addFailure(cleanupFailure, ex);
+                }
+            }
+        } catch (IOException ex) {
+            cleanupFailure = addFailure(cleanupFailure, ex);
+        }
+        try {
+            Files.delete(directory);
+        } catch (IOException ex) {
+            cleanupFailure = addFailure(cleanupFailure, ex);
+        }
+
+        if (cleanupFailure != null) {
+            if (failure == null) {
+                throw cleanupFailure;
+            }
+            failure.addSuppressed(cleanupFailure);
+        }
+    }
+
+    // Returns the first of the failures, with any later one added to it as suppressed
+    private static IOException addFailure(IOException first, IOException next) {
+        if (first == null) {
+            return next;
+        }
+        first.addSuppressed(next);
+        return first;
+    }
+
+    // Splits the edge file into sorted runs, adding them to 'runs' in file order,
+    // and returns the number of vertices (one more than the largest id seen)
+    private static int createRuns(Path edgeFile, Path tempDirectory, int chunkEdges, IList<Path> runs)
+            throws IOException {
+        try (EdgeReader reader = new EdgeReader(edgeFile, BUFFER_BYTES)) {
+            int capacity = (int) Math.min(chunkEdges, reader.numEdges());
+            int[] vertices1 = new int[capacity];
+            int[] vertices2 = new int[capacity];
+            double[] weights = new double[capacity];
+            int[] order = new int[capacity];
+            int[] scratch = new int[capacity];
+
+            int maxVertex = -1;
+            int size = 0;
+            while (reader.next()) {
+                if (reader.vertex1 < 0 || reader.vertex2 < 0) {
+                    throw new IOException("Corrupt edge file: negative vertex id");
+                }
+                maxVertex = Math.max(maxVertex, Math.max(reader.vertex1, reader.vertex2));
+                vertices1[size] = reader.vertex1;
+                vertices2[size] = reader.vertex2;
+                weights[size] = reader.weight;
+                size++;
+
+                if (size == capacity || !reader.hasNext()) {
+                    sortByWeight(order, scratch, weights, size);
+                    Path run = Files.createTempFile(tempDirectory, "run", ".edges");
+                    runs.add(run);
+                    try (EdgeWriter writer = new EdgeWriter(run)) {
+                        for (int i = 0; i < size; i++) {
+                            writer.write(vertices1[order[i]], vertices2[order[i]], weights[order[i]]);
+                        }
+                    }
+                    size = 0;
+                }
+            }
+            return maxVertex + 1;
+        }
+    }
+
+    // Merges every MAX_FAN_IN consecutive runs into one, deleting the old runs, and
+    // returns the new ones in the same order
+    private static IList<Path> mergeRuns(IList<Path> runs, Path tempDirectory) throws IOException {
+        IList<Path> merged = new DoubleLinkedList<>();
+        while (!runs.isEmpty()) {
+            IList<Path> group = new DoubleLinkedList<>();
+            while (!runs.isEmpty() && group.size() < MAX_FAN_IN) {
+                group.add(runs.delete(0));
+            }
+
+            Path run = Files.createTempFile(tempDirectory, "run", ".edges");
+            merged.add(run);
+            try (RunMerger merger = new RunMerger(group); EdgeWriter writer = new EdgeWriter(run)) {
+                while (merger.next()) {
+                    writer.write(merger.vertex1, merger.vertex2, merger.weight);
+                }
+            }
+            for (Path path : group) {
+                Files.delete(path);
+            }
+        }
+        return merged;
+    }
+
+    // Merges the runs, keeping every edge that joins two different trees, until
+    // either the edges run out or every vertex is in one tree
+    private static long streamMinimumSpanningTree(IList<Path> runs, Path output, int numVertices)
+            throws IOException {
+        IntDisjointSet forest = new IntDisjointSet(numVertices);
+        long numTreeEdges = 0;
+        try (RunMerger merger = new RunMerger(runs); EdgeWriter writer = new EdgeWriter(output)) {
+            while (numTreeEdges < numVertices - 1 && merger.next()) {
+                if (forest.union(merger.vertex1, merger.vertex2)) {
+                    writer.write(merger.vertex1, merger.vertex2, merger.weight);
+                    numTreeEdges++;
+                }
+            }
+        }
+        return numTreeEdges;
+    }
+
+    // Fills 'order' with the indices 0 to size - 1, sorted by weight
+    //   A bottom-up merge sort, so edges of equal weight stay in file order
+    private static void sortByWeight(int[] order, int[] scratch, double[] weights, int size) {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] from = order;
+        int[] to = scratch;
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int mid = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int left = low;
+                int right = mid;
+                for (int i = low; i < high; i++) {
+                    if (left < mid && (right >= high || Double.compare(weights[from[left]], weights[from[right]]) <= 0)) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] temp = from;
+            from = to;
+            to = temp;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, size);
+        }
+    }
+
+    // Reads the edges of several sorted runs as one sorted sequence
+    private static class RunMerger implements Closeable {
+        private IPriorityQueue<RunHead> heads;
+        private IList<EdgeReader> readers;
+
+        // The edge last returned by next()
+        public int vertex1;
+        public int vertex2;
+        public double weight;
+
+        public RunMerger(IList<Path> runs) throws IOException {
+            this.heads = new ArrayHeap<>();
+            this.readers = new DoubleLinkedList<>();
+            // Each run gets an equal share of the buffer space
+            int bufferBytes = Math.max(EDGE_BYTES, BUFFER_BYTES / Math.max(runs.size(), 1) / EDGE_BYTES * EDGE_BYTES);
+            int index = 0;
+            try {
+                for (Path run : runs) {
+                    EdgeReader reader = new EdgeReader(run, bufferBytes);
+                    this.readers.add(reader);
+                    if (reader.next()) {
+                        this.heads.insert(new RunHead(reader, index));
+                    }
+                    index++;
+                }
+            } catch (IOException ex) {
+                this.close();
+                throw ex;
+            }
+        }
+
+        public boolean next() throws IOException {
+            if (this.heads.isEmpty()) {
+                return false;
+            }
+            RunHead head = this.heads.removeMin();
+            this.vertex1 = head.vertex1;
+            this.vertex2 = head.vertex2;
+            this.weight = head.weight;
+
+            if (head.reader.next()) {
+                head.advance();
+                this.heads.insert(head);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (EdgeReader reader : this.readers) {
+                reader.close();
+            }
+        }
+    }
+
+    // The next edge of one run
+    //   Ties are broken by run, so edges of equal weight stay in file order
+    private static class RunHead implements Comparable<RunHead> {
+        public final EdgeReader reader;
+        public final int run;
+        public int vertex1;
+        public int vertex2;
+        public double weight;
+
+        public RunHead(EdgeReader reader, int run) {
+            this.reader = reader;
+            this.run = run;
+            this.advance();
+        }
+
+        // Copies the edge the reader just read
+        public void advance() {
+            this.vertex1 = this.reader.vertex1;
+            this.vertex2 = this.reader.vertex2;
+            this.weight = this.reader.weight;
+        }
+
+        @Override
+        public int compareTo(RunHead other) {
+            int byWeight = Double.compare(this.weight, other.weight);
+            return byWeight != 0 ? byWeight : Integer.compare(this.run, other.run);
+        }
+    }
+
+    // Reads an edge file one record at a time through a fixed-size buffer
+    private static class EdgeReader implements Closeable {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private long remaining;
+
+        // The edge last read by next()
+        public int vertex1;
+        public int vertex2;
+        public double weight;
+
+        public EdgeReader(Path file, int bufferBytes) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = this.channel.size();
+            if (size % EDGE_BYTES != 0) {
+                this.channel.close();
+                throw new IOException("Corrupt edge file: " + size + " bytes is not a whole number of edges");
+            }
+            this.remaining = size / EDGE_BYTES;
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+            this.buffer.limit(0);
+        }
+
+        public long numEdges() throws IOException {
+            return this.channel.size() / EDGE_BYTES;
+        }
+
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        public boolean next() throws IOException {
+            if (this.remaining == 0) {
+                return false;
+            }
+            if (this.buffer.remaining() < EDGE_BYTES) {
+                this.buffer.compact();
+                while (this.buffer.position() < EDGE_BYTES) {
+                    if (this.channel.read(this.buffer) < 0) {
+                        throw new IOException("Edge file ended early");
+                    }
+                }
+                this.buffer.flip();
+            }
+            this.vertex1 = this.buffer.getInt();
+            this.vertex2 = this.buffer.getInt();
+            this.weight = this.buffer.getDouble();
+            this.remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    // Writes an edge file through a fixed-size buffer
+    private static class EdgeWriter implements Closeable {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+
+        public EdgeWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+
+        public void write(int vertex1, int vertex2, double weight) throws IOException {
+            if (this.buffer.remaining() < EDGE_BYTES) {
+                this.flush();
+            }
+            this.buffer.putInt(vertex1);
+            this.buffer.putInt(vertex2);
+            this.buffer.putDouble(weight);
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+}
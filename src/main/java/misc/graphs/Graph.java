@@ -14,11 +14,12 @@ import datastructures.interfaces.IList;
 import datastructures.interfaces.IPriorityQueue;
 import datastructures.interfaces.ISet;
 import misc.exceptions.NoPathExistsException;
+import java.util.function.ToDoubleFunction;
 import static misc.Searcher.topKSort;
 
 public class Graph<V, E extends Edge<V> & Comparable<E>> {
     private IDictionary<V, IList<E>> adjacencyList;
-    private IDisjointSet<V> forestOfMSTs;
+    private ToDoubleFunction<E> weights;
     
     private IList<V> vertexInventory;
     private IList<E> edgeInventory;
@@ -31,8 +32,20 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
     //   if any of the edges have a negative weight
     //   if one of the edges connects to a vertex not present in the 'vertices' list
     public Graph(IList<V> vertices, IList<E> edges) {
+        this(vertices, edges, null);
+    }
+
+    // Same as above, except every edge is weighted by 'weights' instead of by
+    // its own getWeight(). The edges themselves are never modified, so several
+    // graphs may share the same edge objects with different weightings.
+    //   If 'weights' is null, each edge's own getWeight() is used
+    //
+    // @throws IllegalArgumentException:
+    //   if any of the edges have a negative weight
+    //   if one of the edges connects to a vertex not present in the 'vertices' list
+    public Graph(IList<V> vertices, IList<E> edges, ToDoubleFunction<E> weights) {
         this.adjacencyList = new ChainedHashDictionary<V, IList<E>>(); // Relations for all edges and vertices
-        this.forestOfMSTs = new ArrayDisjointSet<V>();
+        this.weights = weights;
         
         this.vertexInventory = new DoubleLinkedList<V>();
         this.edgeInventory = new DoubleLinkedList<E>();
@@ -52,14 +65,14 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
         // Update edgeInventory
         // Check for illegal edges
         for (E edge : edges) {
-            if (edge.getWeight() < 0) {
+            if (this.weightOf(edge) < 0) {
                 throw new IllegalArgumentException();
             }
             
             V vertex1 = edge.getVertex1();
             V vertex2 = edge.getVertex2();
             
-            if (!vertices.contains(vertex1) || !vertices.contains(vertex2)) {
+            if (!this.adjacencyList.containsKey(vertex1) || !this.adjacencyList.containsKey(vertex2)) {
                 throw new IllegalArgumentException();
             }
             
@@ -77,6 +90,10 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
         this(setToList(vertices), setToList(edges));
     }
 
+    public Graph(ISet<V> vertices, ISet<E> edges, ToDoubleFunction<E> weights) {
+        this(setToList(vertices), setToList(edges), weights);
+    }
+
     private static <T> IList<T> setToList(ISet<T> set) {
         IList<T> output = new DoubleLinkedList<>();
         for (T item : set) {
@@ -85,6 +102,14 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
         return output;
     }
 
+    // Returns the weight of the edge, honoring the weight override if one was given
+    private double weightOf(E edge) {
+        if (this.weights == null) {
+            return edge.getWeight();
+        }
+        return this.weights.applyAsDouble(edge);
+    }
+
     // Returns number of vertices within the graph
     public int numVertices() {
         return this.numOfVertices;
@@ -101,23 +126,22 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
     //   Assume the graph does not contain any unconnected components
     public ISet<E> findMinimumSpanningTree() {
         ISet<E> mst = new ChainedHashSet<>();
+        IDisjointSet<V> forestOfMSTs = new ArrayDisjointSet<V>();
         
         for (V vertex : this.vertexInventory) {
-            this.forestOfMSTs.makeSet(vertex);
+            forestOfMSTs.makeSet(vertex);
         }
         
-        IList<E> sortedEdges = topKSort(this.numOfEdges, this.edgeInventory);
-        
-        for (E edge : sortedEdges) {
+        for (E edge : this.sortEdgesByWeight()) {
             V vertex1 = edge.getVertex1();
             V vertex2 = edge.getVertex2();
             
-            int indexRoot1 = this.forestOfMSTs.findSet(vertex1);
-            int indexRoot2 = this.forestOfMSTs.findSet(vertex2);
+            int indexRoot1 = forestOfMSTs.findSet(vertex1);
+            int indexRoot2 = forestOfMSTs.findSet(vertex2);
             
             // Don't add edge if the two vertices are already grouped
             if (indexRoot1 != indexRoot2) {
-                this.forestOfMSTs.union(vertex1, vertex2);
+                forestOfMSTs.union(vertex1, vertex2);
                 mst.add(edge);
             }
         }
@@ -125,6 +149,26 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
         return mst;
     }
 
+    // Returns every edge in ascending order of weight
+    //   Without a weight override, the edges' own ordering is used directly
+    //   With one, each edge is paired with its weight (computed once) and the pairs are sorted
+    private IList<E> sortEdgesByWeight() {
+        if (this.weights == null) {
+            return topKSort(this.numOfEdges, this.edgeInventory);
+        }
+
+        IList<EWPair> pairs = new DoubleLinkedList<EWPair>();
+        for (E edge : this.edgeInventory) {
+            pairs.add(new EWPair(edge, this.weights.applyAsDouble(edge)));
+        }
+
+        IList<E> sortedEdges = new DoubleLinkedList<E>();
+        for (EWPair pair : topKSort(this.numOfEdges, pairs)) {
+            sortedEdges.add(pair.getE());
+        }
+        return sortedEdges;
+    }
+
     // Returns the edges that make up the shortest path from the start to the end
     // 
     // The first edge in the output list should be the edge leading out
@@ -207,7 +251,7 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
                     // Since edges are undirected, need to specify unprocessed vertices
                     if (unprocessedVertices.contains(neighborVertex)) {
                         double neighborDistanceCurrent = neighborVD.getD();
-                        double neighborDistanceNew = distance + edge.getWeight();
+                        double neighborDistanceNew = distance + this.weightOf(edge);
                         
                         if ((neighborDistanceNew - neighborDistanceCurrent) < 0) {
                             VDPair bestVDPair = new VDPair(neighborVertex, neighborDistanceNew);
@@ -223,6 +267,26 @@ public class Graph<V, E extends Edge<V> & Comparable<E>> {
         throw new NoPathExistsException();
     }
     
+    // Objects used to sort edges by an overridden weight without touching the edges
+    private class EWPair implements Comparable<EWPair> {
+        private E edge;
+        private double weight;
+        
+        public EWPair(E edge, double weight) {
+            this.edge = edge;
+            this.weight = weight;
+        }
+        
+        public E getE() {
+            return this.edge;
+        }
+        
+        @Override
+        public int compareTo(EWPair ewObject) {
+            return Double.compare(this.weight, ewObject.weight);
+        }
+    }
+    
     // Objects used to keep track of a vertex's distance from the start
     // Set all distances to infinity
     // As you process vertices, set the distance accordingly
@@ -0,0 +1,381 @@
+//   Represents an undirected, weighted graph whose vertices and edges are plain
+//   ints, stored outside the Java heap
+//   Possibly contains self-loops, parallel edges, and unconnected nodes
+//
+//   Graph keeps an object per edge plus a linked list per vertex, which the GC has
+//   to trace over and over once there are hundreds of millions of edges. This graph
+//   keeps everything that grows with the number of edges in direct ByteBuffers, in
+//   compressed sparse row (CSR) form: for each vertex, offsets[v] to offsets[v + 1]
+//   is the range of slots holding its neighbors, the edges leading to them and their
+//   weights. Every edge fills two slots, one for each of its vertices.
+//
+//   Vertices are numbered 0 to numVertices() - 1 and edges 0 to numEdges() - 1, in
+//   the order they were added. The algorithms only keep a few arrays with one entry
+//   per vertex on the heap.
+
+package misc.graphs;
+
+import misc.exceptions.NoPathExistsException;
+
+import java.util.Arrays;
+
+public class OffHeapGraph {
+    private int numVertices;
+    private int numEdges;
+
+    // Indexed by edge
+    private DirectArray edgeFrom;
+    private DirectArray edgeTo;
+    private DirectArray edgeWeights;
+
+    // offsets is indexed by vertex, the rest by slot
+    private DirectArray offsets;
+    private DirectArray slotTargets;
+    private DirectArray slotEdges;
+    private DirectArray slotWeights;
+
+    private OffHeapGraph(Builder builder) {
+        this.numVertices = builder.numVertices;
+        this.numEdges = builder.numEdges;
+        this.edgeFrom = builder.edgeFrom;
+        this.edgeTo = builder.edgeTo;
+        this.edgeWeights = builder.edgeWeights;
+
+        // Count each vertex's slots, on the heap since it's only one int per vertex
+        int[] degrees = new int[this.numVertices];
+        for (int edge = 0; edge < this.numEdges; edge++) {
+            degrees[this.edgeFrom.getInt(edge)]++;
+            degrees[this.edgeTo.getInt(edge)]++;
+        }
+
+        this.offsets = DirectArray.ofLongs(this.numVertices + 1L);
+        long total = 0;
+        for (int vertex = 0; vertex < this.numVertices; vertex++) {
+            this.offsets.setLong(vertex, total);
+            total += degrees[vertex];
+        }
+        this.offsets.setLong(this.numVertices, total);
+
+        // Fill each vertex's slots from the back, reusing degrees as the count still to fill
+        this.slotTargets = DirectArray.ofInts(total);
+        this.slotEdges = DirectArray.ofInts(total);
+        this.slotWeights = DirectArray.ofDoubles(total);
+        for (int edge = 0; edge < this.numEdges; edge++) {
+            int from = this.edgeFrom.getInt(edge);
+            int to = this.edgeTo.getInt(edge);
+            double weight = this.edgeWeights.getDouble(edge);
+            this.setSlot(this.offsets.getLong(from) + --degrees[from], to, edge, weight);
+            this.setSlot(this.offsets.getLong(to) + --degrees[to], from, edge, weight);
+        }
+    }
+
+    private void setSlot(long slot, int target, int edge, double weight) {
+        this.slotTargets.setInt(slot, target);
+        this.slotEdges.setInt(slot, edge);
+        this.slotWeights.setDouble(slot, weight);
+    }
+
+    // Returns number of vertices within the graph
+    public int numVertices() {
+        return this.numVertices;
+    }
+
+    // Returns number of edges within the graph
+    public int numEdges() {
+        return this.numEdges;
+    }
+
+    // Returns the first vertex of the given edge, as it was added
+    //
+    // @throws IndexOutOfBoundsException  if there is no such edge
+    public int getVertex1(int edge) {
+        this.checkEdge(edge);
+        return this.edgeFrom.getInt(edge);
+    }
+
+    // Returns the second vertex of the given edge, as it was added
+    //
+    // @throws IndexOutOfBoundsException  if there is no such edge
+    public int getVertex2(int edge) {
+        this.checkEdge(edge);
+        return this.edgeTo.getInt(edge);
+    }
+
+    // @throws IndexOutOfBoundsException  if there is no such edge
+    public double getWeight(int edge) {
+        this.checkEdge(edge);
+        return this.edgeWeights.getDouble(edge);
+    }
+
+    // Returns how many bytes of native memory the graph occupies
+    public long numOffHeapBytes() {
+        return this.edgeFrom.numBytes() + this.edgeTo.numBytes() + this.edgeWeights.numBytes()
+                + this.offsets.numBytes() + this.slotTargets.numBytes()
+                + this.slotEdges.numBytes() + this.slotWeights.numBytes();
+    }
+
+    // Returns the ids of the edges that make up a minimum spanning forest of this graph:
+    // a minimum spanning tree of each connected component
+    //   If there exists multiple valid MSTs, return any one of them
+    //
+    // Uses Prim's algorithm, which only needs the heap of vertices, rather than
+    // sorting every edge like Graph does
+    public int[] findMinimumSpanningTree() {
+        VertexHeap heap = new VertexHeap(this.numVertices);
+        int[] bestEdge = new int[this.numVertices];
+        boolean[] inTree = new boolean[this.numVertices];
+
+        int[] mst = new int[Math.max(this.numVertices - 1, 0)];
+        int size = 0;
+
+        for (int root = 0; root < this.numVertices; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            bestEdge[root] = -1;
+            heap.insertOrDecrease(root, 0.0);
+
+            while (!heap.isEmpty()) {
+                int vertex = heap.removeMin();
+                inTree[vertex] = true;
+                if (bestEdge[vertex] >= 0) {
+                    mst[size++] = bestEdge[vertex];
+                }
+
+                for (long slot = this.offsets.getLong(vertex); slot < this.offsets.getLong(vertex + 1); slot++) {
+                    int neighbor = this.slotTargets.getInt(slot);
+                    double weight = this.slotWeights.getDouble(slot);
+                    if (!inTree[neighbor] && heap.insertOrDecrease(neighbor, weight)) {
+                        bestEdge[neighbor] = this.slotEdges.getInt(slot);
+                    }
+                }
+            }
+        }
+
+        int[] output = new int[size];
+        System.arraycopy(mst, 0, output, 0, size);
+        return output;
+    }
+
+    // Returns the ids of the edges that make up the shortest path from the start to the end
+    //
+    // The first edge in the output should be the edge leading out of the starting
+    // node; the last edge in the output should be the edge connecting to the end node.
+    //
+    // Return an empty array if the start and end vertices are the same.
+    //
+    // @throws IllegalArgumentException  if either vertex is not in the graph
+    // @throws NoPathExistsException
+    //   if there does not exist a path from the start to the end
+    public int[] findShortestPathBetween(int start, int end) {
+        this.checkVertex(start);
+        this.checkVertex(end);
+        if (start == end) {
+            return new int[0];
+        }
+
+        // Dijkstra's algorithm; vertices are only put in the heap once they're reached
+        VertexHeap heap = new VertexHeap(this.numVertices);
+        int[] pathEdges = new int[this.numVertices];
+        boolean[] processed = new boolean[this.numVertices];
+        heap.insertOrDecrease(start, 0.0);
+
+        while (!heap.isEmpty()) {
+            double distance = heap.peekMinKey();
+            int vertex = heap.removeMin();
+            processed[vertex] = true;
+
+            if (vertex == end) {
+                return this.tracePath(pathEdges, start, end);
+            }
+
+            for (long slot = this.offsets.getLong(vertex); slot < this.offsets.getLong(vertex + 1); slot++) {
+                int neighbor = this.slotTargets.getInt(slot);
+                double neighborDistanceNew = distance + this.slotWeights.getDouble(slot);
+                if (!processed[neighbor] && heap.insertOrDecrease(neighbor, neighborDistanceNew)) {
+                    pathEdges[neighbor] = this.slotEdges.getInt(slot);
+                }
+            }
+        }
+
+        throw new NoPathExistsException();
+    }
+
+    // Walks back along pathEdges from the end to the start
+    private int[] tracePath(int[] pathEdges, int start, int end) {
+        int length = 0;
+        for (int vertex = end; vertex != start; vertex = this.otherVertex(pathEdges[vertex], vertex)) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        for (int vertex = end; vertex != start; vertex = this.otherVertex(pathEdges[vertex], vertex)) {
+            path[--length] = pathEdges[vertex];
+        }
+        return path;
+    }
+
+    private int otherVertex(int edge, int vertex) {
+        int from = this.edgeFrom.getInt(edge);
+        return from == vertex ? this.edgeTo.getInt(edge) : from;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= this.numVertices) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is not between 0 and " + (this.numVertices - 1));
+        }
+    }
+
+    private void checkEdge(int edge) {
+        if (edge < 0 || edge >= this.numEdges) {
+            throw new IndexOutOfBoundsException("Edge " + edge + " is not between 0 and " + (this.numEdges - 1));
+        }
+    }
+
+    // Collects the edges of a graph with a fixed number of vertices
+    //   Edges are written straight to native memory as they're added, so the
+    //   edge capacity has to be known up front
+    public static class Builder {
+        private int numVertices;
+        private int numEdges;
+        private DirectArray edgeFrom;
+        private DirectArray edgeTo;
+        private DirectArray edgeWeights;
+        private boolean built;
+
+        // @throws IllegalArgumentException  if either argument is negative
+        public Builder(int numVertices, int edgeCapacity) {
+            if (numVertices < 0 || edgeCapacity < 0) {
+                throw new IllegalArgumentException();
+            }
+            this.numVertices = numVertices;
+            this.numEdges = 0;
+            this.edgeFrom = DirectArray.ofInts(edgeCapacity);
+            this.edgeTo = DirectArray.ofInts(edgeCapacity);
+            this.edgeWeights = DirectArray.ofDoubles(edgeCapacity);
+            this.built = false;
+        }
+
+        // Adds an edge between the two vertices and returns its id
+        //
+        // @throws IllegalArgumentException:
+        //   if the weight is negative (or NaN)
+        //   if either vertex is not between 0 and numVertices - 1
+        // @throws IllegalStateException:
+        //   if the edge capacity is used up, or the graph was already built
+        public int addEdge(int vertex1, int vertex2, double weight) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException();
+            }
+            if (vertex1 < 0 || vertex1 >= this.numVertices || vertex2 < 0 || vertex2 >= this.numVertices) {
+                throw new IllegalArgumentException();
+            }
+            if (this.built || this.numEdges == this.edgeFrom.length()) {
+                throw new IllegalStateException();
+            }
+
+            this.edgeFrom.setInt(this.numEdges, vertex1);
+            this.edgeTo.setInt(this.numEdges, vertex2);
+            this.edgeWeights.setDouble(this.numEdges, weight);
+            return this.numEdges++;
+        }
+
+        // Returns the graph of every edge added so far
+        //   The builder can't be used afterwards, since the graph takes over its memory
+        //
+        // @throws IllegalStateException  if the graph was already built
+        public OffHeapGraph build() {
+            if (this.built) {
+                throw new IllegalStateException();
+            }
+            this.built = true;
+            return new OffHeapGraph(this);
+        }
+    }
+
+    // A binary min-heap of vertices keyed by a double, which can find any vertex
+    // in it to lower its key
+    private static class VertexHeap {
+        private int[] heap;
+        private double[] keys;
+        // Where each vertex is in the heap, or -1 if it isn't
+        private int[] positions;
+        private int size;
+
+        public VertexHeap(int numVertices) {
+            this.heap = new int[numVertices];
+            this.keys = new double[numVertices];
+            this.positions = new int[numVertices];
+            Arrays.fill(this.positions, -1);
+            this.size = 0;
+        }
+
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        public double peekMinKey() {
+            return this.keys[this.heap[0]];
+        }
+
+        // Inserts the vertex with the given key, or lowers its key if it's already
+        // in the heap with a larger one; returns whether anything changed
+        //   A vertex that was removed may be inserted again, so callers must skip
+        //   vertices they're done with
+        public boolean insertOrDecrease(int vertex, double key) {
+            int index = this.positions[vertex];
+            if (index < 0) {
+                index = this.size++;
+            } else if (key >= this.keys[vertex]) {
+                return false;
+            }
+            this.keys[vertex] = key;
+            this.percolateUp(index, vertex);
+            return true;
+        }
+
+        public int removeMin() {
+            int min = this.heap[0];
+            this.positions[min] = -1;
+            int last = this.heap[--this.size];
+            if (this.size > 0) {
+                this.percolateDown(0, last);
+            }
+            return min;
+        }
+
+        private void percolateUp(int index, int vertex) {
+            double key = this.keys[vertex];
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (this.keys[this.heap[parent]] <= key) {
+                    break;
+                }
+                this.place(index, this.heap[parent]);
+                index = parent;
+            }
+            this.place(index, vertex);
+        }
+
+        private void percolateDown(int index, int vertex) {
+            double key = this.keys[vertex];
+            while (2 * index + 1 < this.size) {
+                int child = 2 * index + 1;
+                if (child + 1 < this.size && this.keys[this.heap[child + 1]] < this.keys[this.heap[child]]) {
+                    child++;
+                }
+                if (this.keys[this.heap[child]] >= key) {
+                    break;
+                }
+                this.place(index, this.heap[child]);
+                index = child;
+            }
+            this.place(index, vertex);
+        }
+
+        private void place(int index, int vertex) {
+            this.heap[index] = vertex;
+            this.positions[vertex] = index;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package datastructures;
+
+import misc.BaseTest;
+import misc.graphs.ExternalKruskal;
+import misc.graphs.OffHeapGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class TestExternalKruskal extends BaseTest {
+    private Path writeEdges(Path directory, int[] vertices1, int[] vertices2, double[] weights) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ExternalKruskal.EDGE_BYTES * weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            buffer.putInt(vertices1[i]);
+            buffer.putInt(vertices2[i]);
+            buffer.putDouble(weights[i]);
+        }
+        Path file = directory.resolve("input.edges");
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    private ByteBuffer readEdges(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    private Path createDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("edges");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    private void deleteFiles(Path directory, String... names) throws IOException {
+        for (String name : names) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+        Files.delete(directory);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testMatchesInMemoryMst() throws IOException {
+        // Small chunks, so there are more runs than can be merged in one pass
+        int numVertices = 300;
+        int numEdges = 3000;
+        int chunkEdges = 7;
+        assertTrue(numEdges / chunkEdges > ExternalKruskal.MAX_FAN_IN);
+
+        Random rand = new Random(12);
+        int[] vertices1 = new int[numEdges];
+        int[] vertices2 = new int[numEdges];
+        double[] weights = new double[numEdges];
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder(numVertices, numEdges);
+        for (int i = 0; i < numEdges; i++) {
+            // The first edges make a chain, so the graph is connected
+            vertices1[i] = i < numVertices - 1 ? i : rand.nextInt(numVertices);
+            vertices2[i] = i < numVertices - 1 ? i + 1 : rand.nextInt(numVertices);
+            weights[i] = rand.nextDouble();
+            builder.addEdge(vertices1[i], vertices2[i], weights[i]);
+        }
+        OffHeapGraph graph = builder.build();
+        double expectedWeight = 0;
+        for (int edge : graph.findMinimumSpanningTree()) {
+            expectedWeight += graph.getWeight(edge);
+        }
+
+        Path directory = this.createDirectory();
+        Path input = this.writeEdges(directory, vertices1, vertices2, weights);
+        Path output = directory.resolve("mst.edges");
+        assertEquals((long) (numVertices - 1), ExternalKruskal.findMinimumSpanningTree(input, output, chunkEdges));
+
+        ByteBuffer mst = this.readEdges(output);
+        assertEquals((numVertices - 1) * ExternalKruskal.EDGE_BYTES, mst.remaining());
+        double totalWeight = 0;
+        double previousWeight = 0;
+        while (mst.hasRemaining()) {
+            mst.getInt();
+            mst.getInt();
+            double weight = mst.getDouble();
+            assertTrue(weight >= previousWeight);
+            previousWeight = weight;
+            totalWeight += weight;
+        }
+        assertEquals(expectedWeight, totalWeight, 1e-9);
+
+        // Nothing but the input and output are left behind
+        assertEquals(2L, Files.list(directory).count());
+        this.deleteFiles(directory, "input.edges", "mst.edges");
+    }
+
+    @Test(timeout=SECOND)
+    public void testTiesPreferEarlierEdges() throws IOException {
+        Path directory = this.createDirectory();
+        Path input = this.writeEdges(directory,
+                new int[] {0, 1, 0, 2},
+                new int[] {1, 2, 2, 3},
+                new double[] {1, 1, 1, 0.5});
+        Path output = directory.resolve("mst.edges");
+        assertEquals(3L, ExternalKruskal.findMinimumSpanningTree(input, output, 2));
+
+        ByteBuffer mst = this.readEdges(output);
+        int[] edges = new int[6];
+        for (int i = 0; i < 6; i += 2) {
+            edges[i] = mst.getInt();
+            edges[i + 1] = mst.getInt();
+            mst.getDouble();
+        }
+        assertArrayEquals(new int[] {2, 3, 0, 1, 1, 2}, edges);
+        this.deleteFiles(directory, "input.edges", "mst.edges");
+    }
+
+    @Test(timeout=SECOND)
+    public void testEmptyFile() throws IOException {
+        Path directory = this.createDirectory();
+        Path input = this.writeEdges(directory, new int[0], new int[0], new double[0]);
+        Path output = directory.resolve("mst.edges");
+        assertEquals(0L, ExternalKruskal.findMinimumSpanningTree(input, output, 10));
+        assertEquals(0L, Files.size(output));
+        this.deleteFiles(directory, "input.edges", "mst.edges");
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsTruncatedFile() throws IOException {
+        Path directory = this.createDirectory();
+        Path input = directory.resolve("input.edges");
+        Files.write(input, new byte[ExternalKruskal.EDGE_BYTES + 3]);
+        try {
+            ExternalKruskal.findMinimumSpanningTree(input, directory.resolve("mst.edges"), 10);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // All ok -- expected result
+        }
+        assertEquals(1L, Files.list(directory).count());
+        this.deleteFiles(directory, "input.edges");
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsEmptyChunks() throws IOException {
+        Path directory = this.createDirectory();
+        Path input = this.writeEdges(directory, new int[0], new int[0], new double[0]);
+        try {
+            ExternalKruskal.findMinimumSpanningTree(input, directory.resolve("mst.edges"), 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+        this.deleteFiles(directory, "input.edges");
+    }
+}
@@ -0,0 +1,83 @@
+package datastructures;
+
+import datastructures.TestProvidedGraph.SimpleEdge;
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISet;
+import misc.BaseTest;
+import misc.graphs.Graph;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestGraph extends BaseTest {
+    private <V> SimpleEdge<V> edge(V v1, V v2, double weight) {
+        return new SimpleEdge<>(v1, v2, weight);
+    }
+
+    private IList<String> buildVertices() {
+        IList<String> vertices = new DoubleLinkedList<>();
+        vertices.add("a");
+        vertices.add("b");
+        vertices.add("c");
+        return vertices;
+    }
+
+    @Test(timeout=SECOND)
+    public void testMstUsesWeightOverride() {
+        IList<SimpleEdge<String>> edges = new DoubleLinkedList<>();
+        edges.add(edge("a", "b", 1));
+        edges.add(edge("b", "c", 2));
+        edges.add(edge("a", "c", 3));
+
+        // Reverses the natural order: the heaviest edges become the lightest
+        Graph<String, SimpleEdge<String>> graph = new Graph<>(this.buildVertices(), edges, e -> 10 - e.getWeight());
+        ISet<SimpleEdge<String>> mst = graph.findMinimumSpanningTree();
+
+        assertEquals(2, mst.size());
+        assertTrue(mst.contains(edge("a", "c", 3)));
+        assertTrue(mst.contains(edge("b", "c", 2)));
+
+        // The edges themselves are untouched
+        assertEquals(1.0, edges.get(0).getWeight(), 0.0);
+    }
+
+    @Test(timeout=SECOND)
+    public void testShortestPathUsesWeightOverride() {
+        IList<SimpleEdge<String>> edges = new DoubleLinkedList<>();
+        edges.add(edge("a", "b", 1));
+        edges.add(edge("b", "c", 1));
+        edges.add(edge("a", "c", 5));
+
+        Graph<String, SimpleEdge<String>> graph = new Graph<>(
+                this.buildVertices(), edges, e -> e.getWeight() == 5 ? 0.5 : e.getWeight());
+        IList<SimpleEdge<String>> path = graph.findShortestPathBetween("a", "c");
+
+        assertEquals(1, path.size());
+        assertEquals(edge("a", "c", 5), path.get(0));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNegativeWeightOverrideNotPermitted() {
+        IList<SimpleEdge<String>> edges = new DoubleLinkedList<>();
+        edges.add(edge("a", "b", 1));
+
+        try {
+            new Graph<>(this.buildVertices(), edges, e -> -1.0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testMstCanBeFoundTwice() {
+        IList<SimpleEdge<String>> edges = new DoubleLinkedList<>();
+        edges.add(edge("a", "b", 1));
+        edges.add(edge("b", "c", 2));
+
+        Graph<String, SimpleEdge<String>> graph = new Graph<>(this.buildVertices(), edges);
+        assertEquals(2, graph.findMinimumSpanningTree().size());
+        assertEquals(2, graph.findMinimumSpanningTree().size());
+    }
+}
@@ -0,0 +1,66 @@
+package datastructures;
+
+import datastructures.concrete.IntDisjointSet;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestIntDisjointSet extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testFindSetStartsAsSingletons() {
+        IntDisjointSet forest = new IntDisjointSet(5);
+        assertEquals(5, forest.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, forest.findSet(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testUnionSimple() {
+        IntDisjointSet forest = new IntDisjointSet(5);
+
+        assertTrue(forest.union(0, 1));
+        assertTrue(forest.union(2, 3));
+        assertEquals(forest.findSet(0), forest.findSet(1));
+        assertEquals(forest.findSet(2), forest.findSet(3));
+        assertTrue(forest.findSet(0) != forest.findSet(2));
+        assertEquals(4, forest.findSet(4));
+
+        assertTrue(forest.union(1, 3));
+        assertFalse(forest.union(0, 2));
+        assertEquals(forest.findSet(0), forest.findSet(3));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testLargeChain() {
+        int size = 1000000;
+        IntDisjointSet forest = new IntDisjointSet(size);
+        for (int i = 1; i < size; i++) {
+            assertTrue(forest.union(i - 1, i));
+        }
+        int root = forest.findSet(0);
+        for (int i = 0; i < size; i++) {
+            assertEquals(root, forest.findSet(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testBadInputs() {
+        try {
+            new IntDisjointSet(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+
+        IntDisjointSet forest = new IntDisjointSet(3);
+        try {
+            forest.findSet(3);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // All ok -- expected result
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package datastructures;
+
+import datastructures.TestProvidedGraph.SimpleEdge;
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.interfaces.IList;
+import misc.BaseTest;
+import misc.exceptions.NoPathExistsException;
+import misc.graphs.Graph;
+import misc.graphs.OffHeapGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+public class TestOffHeapGraph extends BaseTest {
+    // 0 - 1 - 2 - 3 in a line, plus a heavy shortcut from 0 to 3 and a separate pair 4 - 5
+    private OffHeapGraph buildGraph() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder(6, 6);
+        builder.addEdge(0, 1, 1);
+        builder.addEdge(1, 2, 2);
+        builder.addEdge(2, 3, 3);
+        builder.addEdge(0, 3, 10);
+        builder.addEdge(4, 5, 4);
+        builder.addEdge(2, 2, 0);
+        return builder.build();
+    }
+
+    @Test(timeout=SECOND)
+    public void testSizes() {
+        OffHeapGraph graph = this.buildGraph();
+        assertEquals(6, graph.numVertices());
+        assertEquals(6, graph.numEdges());
+        assertEquals(1, graph.getVertex1(1));
+        assertEquals(3, graph.getVertex2(2));
+        assertEquals(10.0, graph.getWeight(3), 0.0);
+    }
+
+    @Test(timeout=SECOND)
+    public void testMinimumSpanningForest() {
+        int[] mst = this.buildGraph().findMinimumSpanningTree();
+        Arrays.sort(mst);
+        assertArrayEquals(new int[] {0, 1, 2, 4}, mst);
+    }
+
+    @Test(timeout=SECOND)
+    public void testShortestPath() {
+        OffHeapGraph graph = this.buildGraph();
+        assertArrayEquals(new int[] {0, 1, 2}, graph.findShortestPathBetween(0, 3));
+        assertArrayEquals(new int[] {2, 1, 0}, graph.findShortestPathBetween(3, 0));
+        assertArrayEquals(new int[0], graph.findShortestPathBetween(2, 2));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNoPathExists() {
+        try {
+            this.buildGraph().findShortestPathBetween(0, 5);
+            fail("Expected NoPathExistsException");
+        } catch (NoPathExistsException ex) {
+            // All ok -- expected result
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testMatchesGraphOnGrid() {
+        // Grid with pseudo-random whole weights, which Graph compares exactly
+        int width = 30;
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder(width * width, 2 * width * width);
+        IList<Integer> vertices = new DoubleLinkedList<>();
+        IList<SimpleEdge<Integer>> edges = new DoubleLinkedList<>();
+        for (int vertex = 0; vertex < width * width; vertex++) {
+            vertices.add(vertex);
+            if (vertex % width + 1 < width) {
+                builder.addEdge(vertex, vertex + 1, vertex * 7919 % 101);
+                edges.add(new SimpleEdge<>(vertex, vertex + 1, vertex * 7919 % 101));
+            }
+            if (vertex + width < width * width) {
+                builder.addEdge(vertex, vertex + width, vertex * 6007 % 103);
+                edges.add(new SimpleEdge<>(vertex, vertex + width, vertex * 6007 % 103));
+            }
+        }
+        OffHeapGraph graph = builder.build();
+        Graph<Integer, SimpleEdge<Integer>> expected = new Graph<>(vertices, edges);
+
+        double expectedWeight = 0;
+        for (SimpleEdge<Integer> edge : expected.findMinimumSpanningTree()) {
+            expectedWeight += edge.getWeight();
+        }
+        assertEquals(expectedWeight, this.totalWeight(graph, graph.findMinimumSpanningTree()), 0.0);
+        assertEquals(width * width - 1, graph.findMinimumSpanningTree().length);
+
+        int end = width * width - 1;
+        expectedWeight = 0;
+        for (SimpleEdge<Integer> edge : expected.findShortestPathBetween(0, end)) {
+            expectedWeight += edge.getWeight();
+        }
+        int[] path = graph.findShortestPathBetween(0, end);
+        assertEquals(expectedWeight, this.totalWeight(graph, path), 0.0);
+
+        // Every edge must continue from where the previous one ended
+        int vertex = 0;
+        for (int edge : path) {
+            assertTrue(graph.getVertex1(edge) == vertex || graph.getVertex2(edge) == vertex);
+            vertex = graph.getVertex1(edge) == vertex ? graph.getVertex2(edge) : graph.getVertex1(edge);
+        }
+        assertEquals(end, vertex);
+    }
+
+    private double totalWeight(OffHeapGraph graph, int[] edges) {
+        double total = 0;
+        for (int edge : edges) {
+            total += graph.getWeight(edge);
+        }
+        return total;
+    }
+
+    @Test(timeout=SECOND)
+    public void testIllegalEdgesRejected() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder(3, 1);
+        try {
+            builder.addEdge(0, 1, -1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+        try {
+            builder.addEdge(0, 3, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+
+        builder.addEdge(0, 1, 1);
+        try {
+            builder.addEdge(1, 2, 1);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // All ok -- expected result
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package mazes.cache;
+
+import mazes.entities.GridMaze;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.generators.base.BaseMazeGenerator;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.base.VoronoiGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class TestMazeCache extends BaseTest {
+    private static final Rectangle BOX = new Rectangle(0, 0, 400, 300);
+
+    @Test(timeout=SECOND)
+    public void testRepeatedRequestIsHit() {
+        MazeCache cache = new MazeCache(1 << 20);
+        GridGenerator generator = new GridGenerator(10, 12);
+
+        Maze first = cache.generateBaseMaze(generator, BOX, 1);
+        Maze second = cache.generateBaseMaze(new GridGenerator(10, 12), BOX, 1);
+        assertSame(first, second);
+        assertEquals(1L, cache.getMisses());
+        assertEquals(1L, cache.getHits());
+
+        cache.generateBaseMaze(generator, BOX, 2);
+        cache.generateBaseMaze(generator, new Rectangle(0, 0, 400, 301), 1);
+        assertEquals(3L, cache.getMisses());
+    }
+
+    @Test(timeout=SECOND)
+    public void testCarvedMazeDependsOnlyOnArguments() {
+        GridGenerator generator = new GridGenerator(20, 20);
+        Maze maze1 = new MazeCache(1 << 20).generateMaze(generator, new ShuffledKruskalMazeCarver(), BOX, 7);
+        Maze maze2 = new MazeCache(1 << 20).generateMaze(generator, new ShuffledKruskalMazeCarver(), BOX, 7);
+
+        assertNotSame(maze1, maze2);
+        assertEquals(maze1.getWalls().size(), maze2.getWalls().size());
+        for (Wall wall : maze1.getWalls()) {
+            assertTrue(maze2.getWalls().contains(wall));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCarvedWithCarverSeed() {
+        GridGenerator generator = new GridGenerator(20, 20);
+        ShuffledKruskalMazeCarver carver = new ShuffledKruskalMazeCarver();
+        Maze cached = new MazeCache(1 << 20).generateMaze(generator, carver, BOX, 7);
+        Maze carved = carver.generateMaze(generator.generateBaseMaze(BOX, 7), MazeCache.carverSeed(7));
+        assertEquals(carved.getPresentWalls(), cached.getPresentWalls());
+    }
+
+    @Test(timeout=SECOND)
+    public void testLeastRecentlyUsedIsEvicted() {
+        GridGenerator generator = new GridGenerator(100, 100);
+        long size = MazeCache.estimateBytes(generator.generateBaseMaze(BOX, 0));
+        MazeCache cache = new MazeCache(2 * size);
+
+        Maze a = cache.generateBaseMaze(generator, BOX, 1);
+        cache.generateBaseMaze(generator, BOX, 2);
+        assertSame(a, cache.generateBaseMaze(generator, BOX, 1));
+        assertEquals(0L, cache.getEvictions());
+
+        // Seed 2 is now the least recently used, so it makes way for seed 3
+        cache.generateBaseMaze(generator, BOX, 3);
+        assertEquals(1L, cache.getEvictions());
+        assertTrue(cache.getCurrentBytes() <= 2 * size);
+
+        assertSame(a, cache.generateBaseMaze(generator, BOX, 1));
+        cache.generateBaseMaze(generator, BOX, 2);
+        assertEquals(4L, cache.getMisses());
+    }
+
+    @Test(timeout=SECOND)
+    public void testMazeLargerThanCacheIsNotKept() {
+        MazeCache cache = new MazeCache(0);
+        GridGenerator generator = new GridGenerator(5, 5);
+
+        cache.generateBaseMaze(generator, BOX, 1);
+        cache.generateBaseMaze(generator, BOX, 1);
+        assertEquals(2L, cache.getMisses());
+        assertEquals(0L, cache.getCurrentBytes());
+    }
+
+    /**
+     * Deletes the given file, or the directory and everything in it.
+     */
+    private void deleteAll(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    this.deleteAll(file);
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    @Test(timeout=SECOND)
+    public void testDiskTierOutlivesCache() throws IOException {
+        Path directory = Files.createTempDirectory("mazes");
+        try {
+            GridGenerator generator = new GridGenerator(8, 9);
+            ShuffledKruskalMazeCarver carver = new ShuffledKruskalMazeCarver();
+
+            Maze original = new MazeCache(1 << 20, directory).generateMaze(generator, carver, BOX, 3);
+
+            MazeCache cache = new MazeCache(1 << 20, directory);
+            Maze loaded = cache.generateMaze(generator, carver, BOX, 3);
+            assertEquals(0L, cache.getMisses());
+            assertEquals(1L, cache.getDiskHits());
+
+            assertEquals(original.getRooms().size(), loaded.getRooms().size());
+            for (Room room : original.getRooms()) {
+                assertTrue(loaded.getRooms().contains(room));
+            }
+            assertEquals(original.getWalls().size(), loaded.getWalls().size());
+            for (Wall wall : original.getWalls()) {
+                assertTrue(loaded.getWalls().contains(wall));
+            }
+        } finally {
+            this.deleteAll(directory);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testGridStaysGridOnDisk() throws IOException {
+        Path directory = Files.createTempDirectory("mazes");
+        try {
+            GridGenerator generator = new GridGenerator(30, 40);
+            ShuffledKruskalMazeCarver carver = new ShuffledKruskalMazeCarver();
+            Maze original = new MazeCache(1 << 20, directory).generateMaze(generator, carver, BOX, 3);
+            assertTrue(original instanceof GridMaze);
+
+            Maze loaded = new MazeCache(1 << 20, directory).generateMaze(generator, carver, BOX, 3);
+            assertTrue(loaded instanceof GridMaze);
+            assertEquals(original.getPresentWalls(), loaded.getPresentWalls());
+
+            // Both the base maze and the carved one, each a few hundred bytes
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    assertTrue(Files.size(file) < 1024);
+                }
+            }
+        } finally {
+            this.deleteAll(directory);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testWriteFailureKeepsMazeInMemory() throws IOException {
+        GridGenerator generator = new GridGenerator(8, 9);
+
+        // The directory can't be created where a file already is
+        Path notDirectory = Files.createTempFile("mazes", ".tmp");
+        try {
+            MazeCache cache = new MazeCache(1 << 20, notDirectory.resolve("mazes"));
+            Maze maze = cache.generateBaseMaze(generator, BOX, 1);
+            assertEquals(1L, cache.getWriteFailures());
+            assertSame(maze, cache.generateBaseMaze(generator, BOX, 1));
+            assertEquals(1L, cache.getHits());
+        } finally {
+            this.deleteAll(notDirectory);
+        }
+
+        // The maze is written, but can't be moved over the non-empty directory in its place
+        Path directory = Files.createTempDirectory("mazes");
+        try {
+            new MazeCache(1 << 20, directory).generateBaseMaze(generator, BOX, 1);
+            Path file;
+            try (Stream<Path> files = Files.list(directory)) {
+                file = files.findFirst().get();
+            }
+            Files.delete(file);
+            Files.createDirectory(file);
+            Files.createFile(file.resolve("blocker"));
+
+            MazeCache cache = new MazeCache(1 << 20, directory);
+            assertTrue(cache.generateBaseMaze(generator, BOX, 1) instanceof GridMaze);
+            assertEquals(1L, cache.getMisses());
+            assertEquals(1L, cache.getWriteFailures());
+            // The temporary file is cleaned up
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1L, files.count());
+            }
+        } finally {
+            this.deleteAll(directory);
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentLookupsOnCachedMaze() throws Exception {
+        VoronoiGenerator generator = new VoronoiGenerator(1000, 10, 10, 5);
+        Maze reference = generator.generateBaseMaze(BOX, 4);
+        List<Wall> walls = new ArrayList<>();
+        for (Wall wall : reference.getWalls()) {
+            walls.add(wall);
+        }
+        List<Room> rooms = new ArrayList<>();
+        List<Room> expectedRooms = new ArrayList<>();
+        for (Room room : reference.getRooms()) {
+            rooms.add(room);
+            expectedRooms.add(reference.getRoom(room.getCenter()));
+        }
+
+        // Nothing has numbered the walls or indexed the rooms of the cached maze yet, so
+        // the threads race to build both
+        int numThreads = 8;
+        Maze maze = new MazeCache(1 << 30).generateBaseMaze(generator, BOX, 4);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                boolean wallsFirst = thread % 2 == 0;
+                results.add(executor.submit((Callable<int[]>) () -> {
+                    start.await();
+                    int[] wallIds = new int[walls.size()];
+                    for (int pass = 0; pass < 2; pass++) {
+                        if (wallsFirst == (pass == 0)) {
+                            for (int i = 0; i < walls.size(); i++) {
+                                wallIds[i] = maze.getWallId(walls.get(i));
+                            }
+                        } else {
+                            for (int i = 0; i < rooms.size(); i++) {
+                                assertEquals(expectedRooms.get(i), maze.getRoom(rooms.get(i).getCenter()));
+                            }
+                        }
+                    }
+                    return wallIds;
+                }));
+            }
+            start.countDown();
+
+            int[] first = results.get(0).get();
+            for (int i = 0; i < walls.size(); i++) {
+                assertTrue(first[i] >= 0);
+                assertEquals(walls.get(i), maze.getWall(first[i]));
+            }
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testEstimateCountsWallNumbering() {
+        Maze base = new VoronoiGenerator(300, 10, 10, 5).generateBaseMaze(BOX, 2);
+        long baseBytes = MazeCache.estimateBytes(base);
+        assertTrue(baseBytes > (136L + 72L) * base.getWalls().size());
+
+        // Carving numbers the base's walls, which the estimate already counted
+        Maze carved = new ShuffledKruskalMazeCarver().generateMaze(base, 1);
+        assertEquals(baseBytes, MazeCache.estimateBytes(base));
+
+        // The base has an entry of its own, so a variant is charged only for its bits
+        assertEquals(64L + base.numWallIds() / 8, MazeCache.estimateBytes(carved));
+    }
+
+    @Test(timeout=SECOND)
+    public void testGeneratorWithoutDescriptionRejected() {
+        BaseMazeGenerator anonymous = new BaseMazeGenerator() {
+            @Override
+            public Maze generateBaseMaze(Rectangle boundingBox, long seed) {
+                return new GridGenerator(2, 2).generateBaseMaze(boundingBox, seed);
+            }
+        };
+
+        try {
+            new MazeCache(1 << 20).generateBaseMaze(anonymous, BOX, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+}
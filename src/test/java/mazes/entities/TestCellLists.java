@@ -0,0 +1,36 @@
+package mazes.entities;
+
+import misc.BaseTest;
+import org.junit.Test;
+
+import java.awt.*;
+
+public class TestCellLists extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testItemsFiledUnderEveryCellInRange() {
+        // A 3 x 2 grid: item 0 covers the whole top row, item 1 one cell, item 2 a 2 x 2 block
+        Rectangle[] ranges = {
+            new Rectangle(0, 0, 2, 0),
+            new Rectangle(1, 1, 0, 0),
+            new Rectangle(1, 0, 1, 1),
+        };
+        CellLists cells = new CellLists(3, 2, ranges.length, item -> ranges[item]);
+
+        int[][] expected = {{0}, {0, 2}, {0, 2}, {}, {1, 2}, {2}};
+        for (int cell = 0; cell < expected.length; cell++) {
+            assertEquals(expected[cell].length, cells.getStart(cell + 1) - cells.getStart(cell));
+            for (int i = 0; i < expected[cell].length; i++) {
+                assertEquals(expected[cell][i], cells.getItem(cells.getStart(cell) + i));
+            }
+        }
+        assertEquals(8, cells.getStart(6));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNoItems() {
+        CellLists cells = new CellLists(4, 4, 0, item -> null);
+        for (int cell = 0; cell <= 16; cell++) {
+            assertEquals(0, cells.getStart(cell));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package mazes.entities;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISet;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import mazes.generators.maze.WilsonMazeCarver;
+import mazes.solvers.GridMazeSolver;
+import misc.BaseTest;
+import misc.graphs.Graph;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+
+public class TestGridMaze extends BaseTest {
+    // Deliberately not a whole number of units per cell, so the cell borders are rounded
+    private static final Rectangle BOX = new Rectangle(3, 7, 101, 53);
+    private static final int NUM_ROWS = 7;
+    private static final int NUM_COLUMNS = 9;
+
+    /**
+     * Builds the rooms of a grid the way GridGenerator did before GridMaze: grid[x][y]
+     * is the room in column x and row y.
+     */
+    private Room[][] buildOldRooms(Rectangle boundingBox, int numRows, int numColumns) {
+        Room[][] grid = new Room[numColumns][numRows];
+        double yDelta = 1.0 * boundingBox.height / numRows;
+        double xDelta = 1.0 * boundingBox.width / numColumns;
+        for (int i = 0; i < numRows; i++) {
+            int yMin = (int) Math.round(i * yDelta + boundingBox.y);
+            int yMax = (int) Math.round((i + 1) * yDelta + boundingBox.y);
+            for (int j = 0; j < numColumns; j++) {
+                int xMin = (int) Math.round(j * xDelta + boundingBox.x);
+                int xMax = (int) Math.round((j + 1) * xDelta + boundingBox.x);
+                Point center = new Point((int) Math.round((xMin + xMax) / 2.0), (int) Math.round((yMin + yMax) / 2.0));
+                Polygon polygon = new Polygon(new int[]{xMin, xMax, xMax, xMin}, new int[]{yMin, yMin, yMax, yMax}, 4);
+                grid[j][i] = new Room(center, polygon);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Builds the walls of a grid the way GridGenerator did before GridMaze.
+     */
+    private ISet<Wall> buildOldWalls(Room[][] grid) {
+        ISet<Wall> walls = new ChainedHashSet<>();
+        for (int x = 0; x < grid.length; x++) {
+            for (int y = 0; y < grid[x].length; y++) {
+                Room room = grid[x][y];
+                int[] xs = room.getPolygon().xpoints;
+                int[] ys = room.getPolygon().ypoints;
+                if (x > 0) {
+                    walls.add(new Wall(room, grid[x - 1][y],
+                            new LineSegment(new Point(xs[3], ys[3]), new Point(xs[0], ys[0]))));
+                }
+                if (y > 0) {
+                    walls.add(new Wall(room, grid[x][y - 1],
+                            new LineSegment(new Point(xs[0], ys[0]), new Point(xs[1], ys[1]))));
+                }
+            }
+        }
+        return walls;
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoomsAndWallsMatchOldGrid() {
+        GridMaze maze = new GridMaze(NUM_ROWS, NUM_COLUMNS, BOX);
+        Room[][] grid = this.buildOldRooms(BOX, NUM_ROWS, NUM_COLUMNS);
+
+        assertEquals(NUM_ROWS * NUM_COLUMNS, maze.getRooms().size());
+        for (int x = 0; x < NUM_COLUMNS; x++) {
+            for (int y = 0; y < NUM_ROWS; y++) {
+                Room room = maze.getRoom(x, y);
+                assertEquals(grid[x][y], room);
+                assertArrayEquals(grid[x][y].getPolygon().xpoints, room.getPolygon().xpoints);
+                assertArrayEquals(grid[x][y].getPolygon().ypoints, room.getPolygon().ypoints);
+                assertTrue(maze.getRooms().contains(grid[x][y]));
+            }
+        }
+        int numRooms = 0;
+        for (Room room : maze.getRooms()) {
+            assertEquals(grid[maze.roomX(numRooms)][maze.roomY(numRooms)], room);
+            numRooms++;
+        }
+        assertEquals(NUM_ROWS * NUM_COLUMNS, numRooms);
+        assertFalse(maze.getRooms().contains(new Room(new Point(-50, -50), grid[0][0].getPolygon())));
+
+        ISet<Wall> oldWalls = this.buildOldWalls(grid);
+        assertEquals(oldWalls.size(), maze.getWalls().size());
+        assertEquals(oldWalls.size(), maze.numWallIds());
+        for (Wall wall : maze.getWalls()) {
+            assertTrue(oldWalls.contains(wall));
+        }
+        for (Wall wall : oldWalls) {
+            assertTrue(maze.getWalls().contains(wall));
+        }
+        assertEquals(0, maze.getUntouchableWalls().size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoomLookupAtCellBorders() {
+        GridMaze maze = new GridMaze(NUM_ROWS, NUM_COLUMNS, BOX);
+        Room[][] grid = this.buildOldRooms(BOX, NUM_ROWS, NUM_COLUMNS);
+
+        // Every point in and just around the maze, against the room whose polygon contains it
+        for (int px = BOX.x - 3; px <= BOX.x + BOX.width + 3; px++) {
+            for (int py = BOX.y - 3; py <= BOX.y + BOX.height + 3; py++) {
+                Point point = new Point(px, py);
+                int expected = -1;
+                for (int x = 0; x < NUM_COLUMNS; x++) {
+                    for (int y = 0; y < NUM_ROWS; y++) {
+                        if (grid[x][y].contains(point)) {
+                            expected = maze.roomId(x, y);
+                        }
+                    }
+                }
+                assertEquals(expected, maze.getRoomId(point));
+                assertEquals(expected < 0 ? null : maze.getRoom(expected), maze.getRoom(point));
+            }
+        }
+
+        // A cell starts exactly at its rounded left and top edges
+        for (int x = 0; x < NUM_COLUMNS; x++) {
+            int edge = maze.getColumnEdge(x);
+            assertEquals(x, maze.roomX(maze.getRoomId(new Point(edge, BOX.y))));
+            if (x > 0) {
+                assertEquals(x - 1, maze.roomX(maze.getRoomId(new Point(edge - 1, BOX.y))));
+            }
+        }
+        for (int y = 0; y < NUM_ROWS; y++) {
+            int edge = maze.getRowEdge(y);
+            assertEquals(y, maze.roomY(maze.getRoomId(new Point(BOX.x, edge))));
+            if (y > 0) {
+                assertEquals(y - 1, maze.roomY(maze.getRoomId(new Point(BOX.x, edge - 1))));
+            }
+        }
+        assertEquals(-1, maze.getRoomId(new Point(maze.getColumnEdge(NUM_COLUMNS), BOX.y)));
+        assertEquals(-1, maze.getRoomId(new Point(BOX.x, maze.getRowEdge(NUM_ROWS))));
+    }
+
+    @Test(timeout=SECOND)
+    public void testWallIdsRoundTrip() {
+        GridMaze maze = new GridMaze(NUM_ROWS, NUM_COLUMNS, BOX);
+        for (int wallId = 0; wallId < maze.numWallIds(); wallId++) {
+            Wall wall = maze.getWall(wallId);
+            assertEquals(wallId, maze.getWallId(wall));
+            assertEquals(maze.getRoom(maze.getWallRoom1(wallId)), wall.getRoom2());
+            assertEquals(maze.getRoom(maze.getWallRoom2(wallId)), wall.getRoom1());
+        }
+
+        // Rooms in the same row but at either end, or not adjacent at all
+        Room left = maze.getRoom(0, 1);
+        Room right = maze.getRoom(NUM_COLUMNS - 1, 0);
+        assertEquals(-1, maze.getWallId(new Wall(right, left, new LineSegment(new Point(0, 0), new Point(1, 1)))));
+        Room far = maze.getRoom(3, 3);
+        assertEquals(-1, maze.getWallId(new Wall(left, far, new LineSegment(new Point(0, 0), new Point(1, 1)))));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testSolverMatchesGraph() {
+        GridMaze base = new GridMaze(25, 30, new Rectangle(0, 0, 613, 487));
+        GridMaze[] mazes = {
+            new ShuffledKruskalMazeCarver().generateMaze(base, 1),
+            new WilsonMazeCarver().generateMaze(base, 2),
+        };
+        for (GridMaze maze : mazes) {
+            ISet<Wall> open = new ChainedHashSet<>();
+            for (Wall wall : base.getWalls()) {
+                if (!maze.getWalls().contains(wall)) {
+                    open.add(wall);
+                }
+            }
+            Graph<Room, Wall> graph = new Graph<>(base.getRooms(), open);
+
+            int[][] ends = {{0, 0, 29, 24}, {29, 0, 0, 24}, {12, 7, 13, 7}, {5, 5, 5, 5}};
+            for (int[] end : ends) {
+                Room start = base.getRoom(end[0], end[1]);
+                Room finish = base.getRoom(end[2], end[3]);
+                IList<Wall> expected = graph.findShortestPathBetween(start, finish);
+                IList<Wall> actual = GridMazeSolver.findShortestPathBetween(maze, start, finish);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i), actual.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mazes.entities;
+
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+
+public class TestLineSegment extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testIsBetween() {
+        Point a = new Point(0, 0);
+        Point c = new Point(6, 3);
+        assertTrue(LineSegment.isBetween(a, new Point(2, 1), c));
+        assertTrue(LineSegment.isBetween(a, a, c));
+        assertTrue(LineSegment.isBetween(a, c, c));
+
+        // On the line through the ends, but outside the segment, or off the line
+        assertFalse(LineSegment.isBetween(a, new Point(8, 4), c));
+        assertFalse(LineSegment.isBetween(a, new Point(-2, -1), c));
+        assertFalse(LineSegment.isBetween(a, new Point(2, 2), c));
+
+        // Coordinates large enough that the products overflow an int
+        Point far = new Point(2000000000, -2000000000);
+        assertTrue(LineSegment.isBetween(new Point(0, 0), new Point(1000000000, -1000000000), far));
+        assertFalse(LineSegment.isBetween(new Point(0, 0), new Point(1000000000, -999999999), far));
+    }
+}
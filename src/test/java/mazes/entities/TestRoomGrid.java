@@ -0,0 +1,97 @@
+package mazes.entities;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.generators.base.VoronoiGenerator;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertNull;
+
+import java.awt.*;
+import java.util.Random;
+
+public class TestRoomGrid extends BaseTest {
+    private Room roomByScan(ISet<Room> rooms, Point point) {
+        for (Room room : rooms) {
+            if (room.contains(point)) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a plain maze of the rooms, whose getRoom(Point) looks them up in a RoomGrid.
+     */
+    private Maze indexed(ISet<Room> rooms) {
+        return new Maze(rooms, new ChainedHashSet<>(), new ChainedHashSet<>());
+    }
+
+    private void checkAgainstScan(ISet<Room> rooms, Rectangle region, Random rand) {
+        Maze grid = this.indexed(rooms);
+        for (int i = 0; i < 2000; i++) {
+            Point point = new Point(region.x + rand.nextInt(region.width + 1), region.y + rand.nextInt(region.height + 1));
+            assertEquals(this.roomByScan(rooms, point), grid.getRoom(point));
+        }
+        // Every vertex lies on the border between rooms, or between a room and the outside
+        for (Room room : rooms) {
+            Polygon polygon = room.getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                Point point = new Point(polygon.xpoints[i], polygon.ypoints[i]);
+                assertEquals(this.roomByScan(rooms, point), grid.getRoom(point));
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testVoronoiMatchesLinearScan() {
+        Rectangle box = new Rectangle(20, 10, 800, 600);
+        ISet<Room> rooms = new VoronoiGenerator(400, 10, 10, 5).generateBaseMaze(box, 6).getRooms();
+        this.checkAgainstScan(rooms, new Rectangle(box.x - 100, box.y - 100, box.width + 200, box.height + 200),
+                new Random(1));
+    }
+
+    @Test(timeout=SECOND)
+    public void testGridMatchesLinearScan() {
+        // Copied into a plain set, so RoomGrid indexes it instead of GridMaze's arithmetic
+        ISet<Room> rooms = new ChainedHashSet<>();
+        for (Room room : new GridMaze(13, 17, new Rectangle(0, 0, 301, 199)).getRooms()) {
+            rooms.add(room);
+        }
+        Maze grid = this.indexed(rooms);
+        for (int x = -5; x <= 306; x++) {
+            for (int y = -5; y <= 204; y += 3) {
+                Point point = new Point(x, y);
+                assertEquals(this.roomByScan(rooms, point), grid.getRoom(point));
+            }
+        }
+        this.checkAgainstScan(rooms, new Rectangle(-50, -50, 400, 300), new Random(2));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNoRooms() {
+        Maze grid = this.indexed(new ChainedHashSet<>());
+        assertNull(grid.getRoom(new Point(0, 0)));
+        assertNull(grid.getRoom(new Point(-3, 7)));
+        assertEquals(-1, new RoomGrid(0, id -> null).findRoom(new Point(0, 0), id -> true));
+    }
+
+    @Test(timeout=SECOND)
+    public void testFindRoomTriesRoomsInIdOrder() {
+        // Three overlapping boxes and one apart from them
+        Rectangle[] boxes = {
+            new Rectangle(0, 0, 10, 10),
+            new Rectangle(5, 5, 10, 10),
+            new Rectangle(0, 0, 20, 20),
+            new Rectangle(50, 50, 5, 5),
+        };
+        RoomGrid grid = new RoomGrid(boxes.length, id -> boxes[id]);
+        Point point = new Point(7, 7);
+        assertEquals(0, grid.findRoom(point, id -> boxes[id].contains(point)));
+        assertEquals(1, grid.findRoom(point, id -> id > 0 && boxes[id].contains(point)));
+        assertEquals(2, grid.findRoom(new Point(18, 2), id -> boxes[id].contains(18, 2)));
+        assertEquals(3, grid.findRoom(new Point(52, 52), id -> boxes[id].contains(52, 52)));
+        assertEquals(-1, grid.findRoom(new Point(30, 30), id -> boxes[id].contains(30, 30)));
+        assertEquals(-1, grid.findRoom(new Point(-1, 3), id -> true));
+    }
+}
@@ -0,0 +1,118 @@
+package mazes.entities;
+
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestWallBitSet extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testSetGetClear() {
+        WallBitSet bits = new WallBitSet(130);
+        assertEquals(130, bits.size());
+        assertEquals(0, bits.cardinality());
+
+        bits.set(0);
+        bits.set(64);
+        bits.set(129);
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(64));
+        assertTrue(bits.get(129));
+        assertFalse(bits.get(1));
+        assertEquals(3, bits.cardinality());
+
+        bits.clear(64);
+        assertFalse(bits.get(64));
+        assertEquals(2, bits.cardinality());
+    }
+
+    @Test(timeout=SECOND)
+    public void testAllSetOnlyCoversSize() {
+        WallBitSet bits = WallBitSet.allSet(70);
+        assertEquals(70, bits.cardinality());
+        assertEquals(69, bits.nextSetBit(69));
+        assertEquals(-1, bits.nextSetBit(70));
+    }
+
+    @Test(timeout=SECOND)
+    public void testAndNotAndOr() {
+        WallBitSet all = WallBitSet.allSet(100);
+        WallBitSet some = new WallBitSet(100);
+        some.set(3);
+        some.set(99);
+
+        WallBitSet rest = all.andNot(some);
+        assertEquals(98, rest.cardinality());
+        assertFalse(rest.get(3));
+        assertFalse(rest.get(99));
+        assertEquals(100, all.cardinality());
+
+        assertEquals(all, rest.or(some));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNextSetBitIteratesInOrder() {
+        WallBitSet bits = new WallBitSet(300);
+        int[] expected = new int[] {5, 63, 64, 200, 299};
+        for (int wallId : expected) {
+            bits.set(wallId);
+        }
+
+        int i = 0;
+        for (int wallId = bits.nextSetBit(0); wallId >= 0; wallId = bits.nextSetBit(wallId + 1)) {
+            assertEquals(expected[i], wallId);
+            i++;
+        }
+        assertEquals(expected.length, i);
+    }
+
+    @Test(timeout=SECOND)
+    public void testLongArrayRoundTrip() {
+        WallBitSet bits = new WallBitSet(130);
+        bits.set(0);
+        bits.set(64);
+        bits.set(129);
+        long[] words = bits.toLongArray();
+        assertEquals(3, words.length);
+        assertEquals(bits, WallBitSet.valueOf(130, words));
+
+        // The array is a copy either way
+        words[0] = 0;
+        assertTrue(bits.get(0));
+        WallBitSet copy = WallBitSet.valueOf(130, words);
+        words[1] = 0;
+        assertTrue(copy.get(64));
+
+        try {
+            WallBitSet.valueOf(129, new long[] {0, 0, 2});
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+        try {
+            WallBitSet.valueOf(130, new long[2]);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testErrorHandling() {
+        WallBitSet bits = new WallBitSet(10);
+        try {
+            bits.set(10);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // All ok -- expected result
+        }
+
+        try {
+            bits.andNot(new WallBitSet(11));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+}
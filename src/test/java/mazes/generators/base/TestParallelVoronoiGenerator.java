@@ -0,0 +1,101 @@
+package mazes.generators.base;
+
+import kn.uni.voronoitreemap.j2d.PolygonSimple;
+import kn.uni.voronoitreemap.j2d.Site;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+
+public class TestParallelVoronoiGenerator extends BaseTest {
+    /**
+     * Returns true if the polygons have the same vertices in the same order, though
+     * they may start from different vertices.
+     */
+    private boolean samePolygon(Polygon polygon1, Polygon polygon2) {
+        int n = polygon1.npoints;
+        if (n != polygon2.npoints) {
+            return false;
+        }
+        for (int shift = 0; shift < Math.max(1, n); shift++) {
+            boolean same = true;
+            for (int i = 0; i < n && same; i++) {
+                same = polygon1.xpoints[i] == polygon2.xpoints[(i + shift) % n]
+                        && polygon1.ypoints[i] == polygon2.ypoints[(i + shift) % n];
+            }
+            if (same) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkSameMaze(Maze expected, Maze actual) {
+        assertEquals(expected.getRooms().size(), actual.getRooms().size());
+        for (Room room : expected.getRooms()) {
+            Room other = actual.getRoom(room.getCenter());
+            assertEquals(room, other);
+            assertTrue(this.samePolygon(room.getPolygon(), other.getPolygon()));
+        }
+
+        assertEquals(expected.getWalls().size(), actual.getWalls().size());
+        for (Wall wall : expected.getWalls()) {
+            assertTrue(actual.getWalls().contains(wall));
+        }
+        assertEquals(expected.getUntouchableWalls().size(), actual.getUntouchableWalls().size());
+        for (Wall wall : expected.getUntouchableWalls()) {
+            assertTrue(actual.getUntouchableWalls().contains(wall));
+        }
+    }
+
+    @Test(timeout=20 * SECOND)
+    public void testSameAsSingleDiagram() {
+        Rectangle box = new Rectangle(0, 0, 800, 600);
+        // Sites are about 35 units apart, so the smallest tiles hold at most one site
+        int[] tileSizes = {5, 40, 150, 1000};
+        for (long seed = 0; seed < 3; seed++) {
+            VoronoiGenerator sequential = new VoronoiGenerator(400, 10, 10, 5, VoronoiGenerator.Sampling.POISSON_DISK);
+            Maze expected = sequential.generateBaseMaze(box, seed);
+            for (int tileSize : tileSizes) {
+                ParallelVoronoiGenerator parallel = new ParallelVoronoiGenerator(
+                        400, 10, 10, 5, VoronoiGenerator.Sampling.POISSON_DISK, tileSize, 3);
+                this.checkSameMaze(expected, parallel.generateBaseMaze(box, seed));
+            }
+        }
+
+        Maze expected = new VoronoiGenerator(200, 10, 0, 20).generateBaseMaze(box, 7);
+        ParallelVoronoiGenerator parallel = new ParallelVoronoiGenerator(
+                200, 10, 0, 20, VoronoiGenerator.Sampling.BEST_CANDIDATE, 64, 2);
+        this.checkSameMaze(expected, parallel.generateBaseMaze(box, 7));
+    }
+
+    private Site cell(double siteX, double siteY, double[] xs, double[] ys) {
+        Site site = new Site(siteX, siteY);
+        PolygonSimple polygon = new PolygonSimple();
+        for (int i = 0; i < xs.length; i++) {
+            polygon.add(xs[i], ys[i]);
+        }
+        site.setPolygon(polygon);
+        return site;
+    }
+
+    @Test(timeout=SECOND)
+    public void testSharedVertexRoundsTheSameWay() {
+        // Two cells sharing the edge from (10, 0) to (10.5, 10), as two tiles might compute
+        // it: once just below 10.5 and once just above, which round differently
+        Site left = this.cell(5, 5, new double[] {0, 10, 10.5 - 1e-10, 0}, new double[] {0, 0, 10, 10});
+        Site right = this.cell(15, 5, new double[] {10, 20, 20, 10.5 + 1e-10}, new double[] {0, 0, 10, 10});
+
+        ParallelVoronoiGenerator generator = new ParallelVoronoiGenerator(
+                2, 10, 0, 0, VoronoiGenerator.Sampling.BEST_CANDIDATE, 10, 1);
+        Room[] rooms = generator.snapSharedVertices(new Site[] {left, right});
+        assertEquals(rooms[0].getPolygon().xpoints[2], rooms[1].getPolygon().xpoints[3]);
+
+        Maze maze = SharedEdgeMatcher.buildMaze(rooms, 0);
+        assertEquals(1, maze.getWalls().size());
+    }
+}
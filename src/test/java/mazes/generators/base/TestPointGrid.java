@@ -0,0 +1,71 @@
+package mazes.generators.base;
+
+import misc.BaseTest;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestPointGrid extends BaseTest {
+    private double closestByScan(List<Point> points, Point target) {
+        double best = Double.MAX_VALUE;
+        for (Point point : points) {
+            best = Math.min(best, target.distance(point));
+        }
+        return best;
+    }
+
+    private void checkAgainstScan(Rectangle box, int numPoints, long seed) {
+        Random rand = new Random(seed);
+        PointGrid grid = new PointGrid(box, numPoints);
+        List<Point> points = new ArrayList<>();
+        assertEquals(Double.MAX_VALUE, grid.getClosestDistance(new Point(box.x, box.y)), 0.0);
+
+        for (int i = 0; i < numPoints; i++) {
+            Point point = new Point(box.x + rand.nextInt(box.width + 1), box.y + rand.nextInt(box.height + 1));
+            grid.add(point);
+            points.add(point);
+
+            // Anywhere in the box, on its edges, or well outside it
+            Point target = new Point(box.x - box.width + rand.nextInt(3 * box.width + 1),
+                    box.y - box.height + rand.nextInt(3 * box.height + 1));
+            assertEquals(this.closestByScan(points, target), grid.getClosestDistance(target), 0.0);
+        }
+
+        Point[] corners = {
+            new Point(box.x, box.y), new Point(box.x + box.width, box.y + box.height),
+            new Point(box.x - 1000, box.y + box.height / 2), new Point(box.x + box.width / 2, box.y + 5000),
+        };
+        for (Point target : corners) {
+            assertEquals(this.closestByScan(points, target), grid.getClosestDistance(target), 0.0);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testMatchesLinearScan() {
+        this.checkAgainstScan(new Rectangle(0, 0, 800, 600), 500, 1);
+        this.checkAgainstScan(new Rectangle(-40, 25, 1000, 30), 300, 2);
+        this.checkAgainstScan(new Rectangle(10, 10, 5, 5), 50, 3);
+    }
+
+    @Test(timeout=SECOND)
+    public void testPointsOnCellBorders() {
+        // 100 points in a 100x100 box gives 10-unit cells, so these all lie on cell borders
+        Rectangle box = new Rectangle(0, 0, 100, 100);
+        PointGrid grid = new PointGrid(box, 100);
+        List<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 100; x += 20) {
+            Point point = new Point(x, 100 - x);
+            grid.add(point);
+            points.add(point);
+        }
+        for (int x = -10; x <= 110; x += 5) {
+            for (int y = -10; y <= 110; y += 5) {
+                Point target = new Point(x, y);
+                assertEquals(this.closestByScan(points, target), grid.getClosestDistance(target), 0.0);
+            }
+        }
+    }
+}
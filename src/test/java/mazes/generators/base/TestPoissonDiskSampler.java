@@ -0,0 +1,70 @@
+package mazes.generators.base;
+
+import kn.uni.voronoitreemap.datastructure.OpenList;
+import kn.uni.voronoitreemap.j2d.Site;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class TestPoissonDiskSampler extends BaseTest {
+    private List<Site> sample(Rectangle box, int numPoints, PoissonDiskSampler sampler) {
+        OpenList sites = sampler.sample(box, numPoints);
+        List<Site> output = new ArrayList<>();
+        for (Site site : sites) {
+            assertTrue(site.getX() >= box.x && site.getX() <= box.x + box.width);
+            assertTrue(site.getY() >= box.y && site.getY() <= box.y + box.height);
+            output.add(site);
+        }
+        assertEquals(numPoints, output.size());
+        return output;
+    }
+
+    private double minimumSpacing(List<Site> sites) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < sites.size(); i++) {
+            for (int j = i + 1; j < sites.size(); j++) {
+                double dx = sites.get(i).getX() - sites.get(j).getX();
+                double dy = sites.get(i).getY() - sites.get(j).getY();
+                best = Math.min(best, Math.sqrt(dx * dx + dy * dy));
+            }
+        }
+        return best;
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCountAndSpacing() {
+        Rectangle[] boxes = {new Rectangle(0, 0, 800, 600), new Rectangle(-30, 40, 2000, 50)};
+        int[] counts = {1, 10, 1500};
+        for (Rectangle box : boxes) {
+            for (int numPoints : counts) {
+                for (int numCandidates : new int[] {10, 30}) {
+                    PoissonDiskSampler sampler = new PoissonDiskSampler(new SplittableRandom(numPoints), numCandidates);
+                    List<Site> sites = this.sample(box, numPoints, sampler);
+                    if (numPoints > 1) {
+                        assertTrue(this.minimumSpacing(sites) >= sampler.getRadius() - 1e-9);
+                        // Spread out, rather than crowded into part of the box
+                        double spacing = Math.sqrt((double) box.width * box.height / numPoints);
+                        assertTrue(sampler.getRadius() >= 0.4 * spacing);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCountKeptWhenPointsDontFit() {
+        // One candidate per point stops the sampling long before the box is full
+        this.sample(new Rectangle(0, 0, 100, 100), 1000, new PoissonDiskSampler(new SplittableRandom(1), 1));
+        this.sample(new Rectangle(5, 5, 5, 5), 500, new PoissonDiskSampler(new SplittableRandom(2), 1));
+
+        // Boxes with no area can't fit two points at any radius
+        this.sample(new Rectangle(0, 0, 0, 0), 5, new PoissonDiskSampler(new SplittableRandom(3), 10));
+        this.sample(new Rectangle(10, 20, 100, 0), 10, new PoissonDiskSampler(new SplittableRandom(4), 10));
+        this.sample(new Rectangle(0, 0, 100, 100), 0, new PoissonDiskSampler(new SplittableRandom(5), 10));
+    }
+}
@@ -0,0 +1,128 @@
+package mazes.generators.base;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.ISet;
+import kn.uni.voronoitreemap.datastructure.OpenList;
+import kn.uni.voronoitreemap.diagram.PowerDiagram;
+import kn.uni.voronoitreemap.j2d.Site;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.generators.ProgressListener;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+public class TestSharedEdgeMatcher extends BaseTest {
+    /**
+     * Computes the rooms of a Voronoi maze the way VoronoiGenerator does.
+     */
+    private Room[] buildRooms(VoronoiGenerator generator, Rectangle boundingBox, long seed) {
+        OpenList sites = generator.generateCells(boundingBox, new SplittableRandom(seed), ProgressListener.NONE);
+        PowerDiagram diagram = new PowerDiagram();
+        diagram.setSites(sites);
+        diagram.setClipPoly(generator.boundingBoxToPolygon(boundingBox));
+        diagram.computeDiagram();
+
+        Room[] rooms = new Room[sites.size];
+        int index = 0;
+        for (Site site : sites) {
+            rooms[index++] = generator.siteToRoom(site);
+        }
+        return rooms;
+    }
+
+    /**
+     * Matches shared edges the way VoronoiGenerator used to, by hashing every edge's
+     * LineSegment, with the rooms taken in the given order. Puts the removable walls
+     * in 'walls' and the untouchable ones in 'untouchableWalls'.
+     */
+    private void matchByHashing(Room[] rooms, int minimumWallLength, ISet<Wall> walls, ISet<Wall> untouchableWalls) {
+        IDictionary<LineSegment, Room> edgeToRoom = new ChainedHashDictionary<>();
+        for (Room room : rooms) {
+            Polygon polygon = room.getPolygon();
+            for (int i = 0; i < polygon.npoints; i++) {
+                int j = (i + 1) % polygon.npoints;
+                LineSegment seg = new LineSegment(
+                        new Point(polygon.xpoints[i], polygon.ypoints[i]),
+                        new Point(polygon.xpoints[j], polygon.ypoints[j]));
+                if (!edgeToRoom.containsKey(seg)) {
+                    edgeToRoom.put(seg, room);
+                } else {
+                    Wall wall = new Wall(room, edgeToRoom.get(seg), seg);
+                    if (seg.length() > minimumWallLength) {
+                        walls.add(wall);
+                    } else {
+                        untouchableWalls.add(wall);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that 'actual' holds every wall in 'expected' except walls from a room to
+     * itself, and nothing else.
+     */
+    private int checkSameWalls(ISet<Wall> expected, ISet<Wall> actual) {
+        int numSelfWalls = 0;
+        for (Wall wall : expected) {
+            if (wall.getRoom1() == wall.getRoom2()) {
+                numSelfWalls++;
+                assertTrue(!actual.contains(wall));
+            } else {
+                assertTrue(actual.contains(wall));
+            }
+        }
+        assertEquals(expected.size() - numSelfWalls, actual.size());
+        return numSelfWalls;
+    }
+
+    /**
+     * Checks the maze SharedEdgeMatcher builds against hashing, returning how many
+     * walls from a room to itself hashing made and SharedEdgeMatcher dropped.
+     */
+    private int checkMaze(VoronoiGenerator generator, Rectangle boundingBox, long seed, int minimumWallLength) {
+        Room[] rooms = this.buildRooms(generator, boundingBox, seed);
+        Maze maze = SharedEdgeMatcher.buildMaze(rooms, minimumWallLength);
+
+        ISet<Wall> walls = new ChainedHashSet<>();
+        ISet<Wall> untouchableWalls = new ChainedHashSet<>();
+        this.matchByHashing(rooms, minimumWallLength, walls, untouchableWalls);
+
+        assertEquals(rooms.length, maze.getRooms().size());
+        for (Room room : rooms) {
+            assertTrue(maze.getRooms().contains(room));
+        }
+        return this.checkSameWalls(walls, maze.getWalls())
+                + this.checkSameWalls(untouchableWalls, maze.getUntouchableWalls());
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testMatchesHashing() {
+        Rectangle box = new Rectangle(0, 0, 800, 600);
+        for (long seed = 0; seed < 3; seed++) {
+            this.checkMaze(new VoronoiGenerator(300, 10, 10, 5), box, seed, 10);
+            this.checkMaze(new VoronoiGenerator(300, 10, 0, 5), box, seed, 0);
+        }
+        this.checkMaze(new VoronoiGenerator(500, 10, 3, 5, VoronoiGenerator.Sampling.POISSON_DISK), box, 4, 3);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testMatchesHashingWhenCrowded() {
+        // Rooms a few units across, so rounding often collapses edges to zero length
+        Rectangle box = new Rectangle(0, 0, 60, 40);
+        int numSelfWalls = 0;
+        for (long seed = 0; seed < 3; seed++) {
+            VoronoiGenerator generator = new VoronoiGenerator(400, 10, 1, 0, VoronoiGenerator.Sampling.POISSON_DISK);
+            numSelfWalls += this.checkMaze(generator, box, seed, 1);
+        }
+        assertTrue(numSelfWalls > 0);
+    }
+}
@@ -0,0 +1,81 @@
+package mazes.generators.maze;
+
+import datastructures.concrete.IntDisjointSet;
+import mazes.entities.Maze;
+import mazes.entities.WallBitSet;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.base.VoronoiGenerator;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+
+public class TestMazeCarvers extends BaseTest {
+    private static final IndexedMazeCarver[] CARVERS = {
+        new ShuffledKruskalMazeCarver(),
+        new DepthFirstMazeCarver(),
+        new WilsonMazeCarver(),
+        new WilsonMazeCarver(0.3),
+    };
+
+    /**
+     * Checks that the removed walls form a spanning tree of the base maze: exactly
+     * one wall fewer than there are rooms, and no wall joining rooms already joined.
+     */
+    private void checkSpanningTree(Maze base, WallBitSet removed) {
+        MazeIndex index = MazeIndex.of(base);
+        assertEquals(index.numWalls(), removed.size());
+        assertEquals(index.numRooms() - 1, removed.cardinality());
+
+        IntDisjointSet components = new IntDisjointSet(index.numRooms());
+        for (int wallId = removed.nextSetBit(0); wallId >= 0; wallId = removed.nextSetBit(wallId + 1)) {
+            assertTrue(components.union(index.getRoom1(wallId), index.getRoom2(wallId)));
+        }
+        for (int roomId = 1; roomId < index.numRooms(); roomId++) {
+            assertEquals(components.findSet(0), components.findSet(roomId));
+        }
+    }
+
+    private void checkCarvers(Maze base) {
+        for (IndexedMazeCarver carver : CARVERS) {
+            WallBitSet first = carver.returnWallIdsToRemove(base, 5);
+            this.checkSpanningTree(base, first);
+            assertEquals(first, carver.returnWallIdsToRemove(base, 5));
+            // A maze with a single spanning tree (such as one row) is carved the same way every time
+            if (first.cardinality() < base.numWallIds()) {
+                assertNotEquals(first, carver.returnWallIdsToRemove(base, 6));
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testGridCarvedIntoSpanningTree() {
+        this.checkCarvers(new GridGenerator(30, 40).generateBaseMaze(new Rectangle(0, 0, 800, 600), 0));
+        this.checkCarvers(new GridGenerator(1, 50).generateBaseMaze(new Rectangle(0, 0, 800, 600), 0));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testVoronoiCarvedIntoSpanningTree() {
+        // With no minimum wall length every pair of neighboring rooms is joined,
+        // so the base maze is connected
+        Maze base = new VoronoiGenerator(400, 10, 0, 5).generateBaseMaze(new Rectangle(0, 0, 800, 600), 3);
+        this.checkCarvers(base);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCarvedMazeKeepsOtherWalls() {
+        Maze base = new GridGenerator(20, 20).generateBaseMaze(new Rectangle(0, 0, 400, 400), 0);
+        for (IndexedMazeCarver carver : CARVERS) {
+            WallBitSet removed = carver.returnWallIdsToRemove(base, 2);
+            Maze maze = carver.generateMaze(base, 2);
+            assertEquals(base.numWallIds() - removed.cardinality(), maze.getWalls().size());
+            for (int wallId = 0; wallId < base.numWallIds(); wallId++) {
+                assertEquals(!removed.get(wallId), maze.getPresentWalls().get(wallId));
+            }
+            assertFalse(maze.getWalls().contains(base.getWall(removed.nextSetBit(0))));
+        }
+    }
+}
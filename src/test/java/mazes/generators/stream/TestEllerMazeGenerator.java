@@ -0,0 +1,121 @@
+package mazes.generators.stream;
+
+import datastructures.concrete.IntDisjointSet;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestEllerMazeGenerator extends BaseTest {
+    private List<MazeRow> generate(int numColumns, int numRows, long seed) {
+        List<MazeRow> rows = new ArrayList<>();
+        new EllerMazeGenerator(numColumns, seed).generate(numRows, rows::add);
+        return rows;
+    }
+
+    /**
+     * Checks that the rows form a perfect maze: every passage joins two cells not yet
+     * connected, and once they are all open, every cell is connected to every other.
+     */
+    private void checkPerfectMaze(List<MazeRow> rows, int numColumns) {
+        int numRows = rows.size();
+        IntDisjointSet cells = new IntDisjointSet(numRows * numColumns);
+        int numPassages = 0;
+        for (int y = 0; y < numRows; y++) {
+            MazeRow row = rows.get(y);
+            assertEquals((long) y, row.getRowIndex());
+            assertEquals(numColumns, row.getNumColumns());
+            assertEquals(y == numRows - 1, row.isLastRow());
+
+            for (int x = 0; x < numColumns; x++) {
+                if (x < numColumns - 1 && row.isEastOpen(x)) {
+                    assertTrue(cells.union(y * numColumns + x, y * numColumns + x + 1));
+                    numPassages++;
+                }
+                if (row.isSouthOpen(x)) {
+                    assertTrue(y < numRows - 1);
+                    assertTrue(cells.union(y * numColumns + x, (y + 1) * numColumns + x));
+                    numPassages++;
+                }
+            }
+        }
+
+        assertEquals(numRows * numColumns - 1, numPassages);
+        for (int cell = 1; cell < numRows * numColumns; cell++) {
+            assertEquals(cells.findSet(0), cells.findSet(cell));
+        }
+    }
+
+    private boolean sameRows(List<MazeRow> rows1, List<MazeRow> rows2) {
+        if (rows1.size() != rows2.size()) {
+            return false;
+        }
+        for (int y = 0; y < rows1.size(); y++) {
+            MazeRow row1 = rows1.get(y);
+            MazeRow row2 = rows2.get(y);
+            for (int x = 0; x < row1.getNumColumns(); x++) {
+                if (x < row1.getNumColumns() - 1 && row1.isEastOpen(x) != row2.isEastOpen(x)) {
+                    return false;
+                }
+                if (row1.isSouthOpen(x) != row2.isSouthOpen(x)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test(timeout=SECOND)
+    public void testRowsFormPerfectMaze() {
+        int[] widths = {1, 2, 3, 10, 57};
+        int[] heights = {1, 2, 40};
+        for (int numColumns : widths) {
+            for (int numRows : heights) {
+                for (long seed = 0; seed < 5; seed++) {
+                    this.checkPerfectMaze(this.generate(numColumns, numRows, seed), numColumns);
+                }
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testSameSeedGivesSameRows() {
+        assertTrue(this.sameRows(this.generate(30, 30, 4), this.generate(30, 30, 4)));
+        assertFalse(this.sameRows(this.generate(30, 30, 4), this.generate(30, 30, 5)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testInvalidColumnsRejected() {
+        for (int numColumns : new int[] {0, -1}) {
+            try {
+                new EllerMazeGenerator(numColumns, 1);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                // All ok -- expected result
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNoRowsAfterLastRow() {
+        EllerMazeGenerator generator = new EllerMazeGenerator(5, 1);
+        generator.nextRow();
+        generator.lastRow();
+        try {
+            generator.nextRow();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // All ok -- expected result
+        }
+        try {
+            new EllerMazeGenerator(5, 1).generate(0, row -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package mazes.gui;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.interfaces.IList;
+import mazes.generators.base.GridGenerator;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class TestImageDrawer extends BaseTest {
+    private IList<Rectangle> regions = new DoubleLinkedList<>();
+
+    private ImageDrawer makeDrawer(BufferedImage image) {
+        return new ImageDrawer(image, 5, this.regions::add);
+    }
+
+    @Test(timeout=SECOND)
+    public void testLineReportsItsOwnRegion() {
+        ImageDrawer drawer = this.makeDrawer(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB));
+        drawer.drawLineSegment(new Point(50, 40), new Point(20, 60));
+
+        assertEquals(1, this.regions.size());
+        Rectangle region = this.regions.get(0);
+        assertTrue(region.contains(new Point(50, 40)));
+        assertTrue(region.contains(new Point(20, 60)));
+        assertTrue(region.width < 50 && region.height < 50);
+    }
+
+    @Test(timeout=SECOND)
+    public void testNestedDrawingReportsOnce() {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        ImageDrawer drawer = this.makeDrawer(image);
+        drawer.clear();
+        drawer.drawMaze(new GridGenerator(4, 4).generateBaseMaze(drawer.getBoundingBox(), 0));
+        assertEquals(2, this.regions.size());
+
+        // Every pixel drawn must lie inside the reported region
+        Rectangle region = this.regions.get(1);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if (image.getRGB(x, y) != Color.WHITE.getRGB()) {
+                    assertTrue(region.contains(x, y));
+                }
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNothingDrawnNothingReported() {
+        ImageDrawer drawer = this.makeDrawer(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB));
+        drawer.drawPath(new DoubleLinkedList<>());
+        assertEquals(0, this.regions.size());
+    }
+}
@@ -0,0 +1,130 @@
+package mazes.io;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestMappedMaze extends BaseTest {
+    private Path writeToTempFile(Maze maze) throws IOException {
+        Path file = Files.createTempFile("maze", ".maze");
+        file.toFile().deleteOnExit();
+        MazeWriter.write(maze, file);
+        return file;
+    }
+
+    private Maze carvedGrid() {
+        Maze base = new GridGenerator(30, 40).generateBaseMaze(new Rectangle(0, 0, 800, 600), 0);
+        return new ShuffledKruskalMazeCarver().generateMaze(base, 11);
+    }
+
+    @Test(timeout=SECOND)
+    public void testSameRoomsAndWalls() throws IOException {
+        Maze maze = this.carvedGrid();
+        MappedMaze mapped = MappedMaze.open(this.writeToTempFile(maze));
+
+        assertEquals(maze.getRooms().size(), mapped.numRooms());
+        assertEquals(maze.getRooms().size(), mapped.getRooms().size());
+        for (Room room : maze.getRooms()) {
+            assertTrue(mapped.getRooms().contains(room));
+        }
+        for (Room room : mapped.getRooms()) {
+            assertTrue(maze.getRooms().contains(room));
+        }
+
+        assertEquals(maze.getWalls().size(), mapped.getWalls().size());
+        for (Wall wall : maze.getWalls()) {
+            assertTrue(mapped.getWalls().contains(wall));
+        }
+        for (Wall wall : mapped.getWalls()) {
+            assertTrue(maze.getWalls().contains(wall));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoomLookup() throws IOException {
+        Maze maze = this.carvedGrid();
+        MappedMaze mapped = MappedMaze.open(this.writeToTempFile(maze));
+
+        for (int x = 0; x < 800; x += 37) {
+            for (int y = 0; y < 600; y += 29) {
+                Point point = new Point(x, y);
+                assertEquals(maze.getRoom(point), mapped.getRoom(point));
+            }
+        }
+        assertNull(mapped.getRoom(new Point(-10, -10)));
+        assertEquals(-1, mapped.getRoomId(new Point(900, 900)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testWallNumbering() throws IOException {
+        MappedMaze mapped = MappedMaze.open(this.writeToTempFile(this.carvedGrid()));
+
+        assertEquals(mapped.getWalls().size(), mapped.numWallIds());
+        for (int wallId = 0; wallId < mapped.numWallIds(); wallId++) {
+            assertEquals(wallId, mapped.getWallId(mapped.getWall(wallId)));
+        }
+
+        try {
+            mapped.getWall(mapped.numWallIds());
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // All ok -- expected result
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testUntouchableWallsKeptApart() throws IOException {
+        Room a = new Room(new Point(5, 5), new Polygon(new int[] {0, 10, 10, 0}, new int[] {0, 0, 10, 10}, 4));
+        Room b = new Room(new Point(15, 5), new Polygon(new int[] {10, 20, 20, 10}, new int[] {0, 0, 10, 10}, 4));
+        Room c = new Room(new Point(5, 15), new Polygon(new int[] {0, 10, 10, 0}, new int[] {10, 10, 20, 20}, 4));
+        Wall removable = new Wall(a, b, new LineSegment(new Point(10, 0), new Point(10, 10)));
+        Wall untouchable = new Wall(a, c, new LineSegment(new Point(0, 10), new Point(10, 10)));
+
+        ISet<Room> rooms = new ChainedHashSet<>();
+        rooms.add(a);
+        rooms.add(b);
+        rooms.add(c);
+        ISet<Wall> walls = new ChainedHashSet<>();
+        walls.add(removable);
+        ISet<Wall> untouchableWalls = new ChainedHashSet<>();
+        untouchableWalls.add(untouchable);
+
+        MappedMaze mapped = MappedMaze.open(this.writeToTempFile(new Maze(rooms, walls, untouchableWalls)));
+        assertEquals(1, mapped.getWalls().size());
+        assertEquals(1, mapped.getUntouchableWalls().size());
+        assertTrue(mapped.getWalls().contains(removable));
+        assertFalse(mapped.getWalls().contains(untouchable));
+        assertTrue(mapped.getUntouchableWalls().contains(untouchable));
+        assertFalse(mapped.getUntouchableWalls().contains(removable));
+        assertEquals(-1, mapped.getWallId(untouchable));
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("maze", ".maze");
+        file.toFile().deleteOnExit();
+        Files.write(file, new byte[100]);
+        try {
+            MappedMaze.open(file);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // All ok -- expected result
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package mazes.io;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.interfaces.ISet;
+import mazes.entities.GridMaze;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestMazeFormat extends BaseTest {
+    private Room room(int x, int y) {
+        return new Room(new Point(x, y), new Polygon(
+                new int[] {x - 5, x + 5, x + 5, x - 5},
+                new int[] {y - 5, y - 5, y + 5, y + 5},
+                4));
+    }
+
+    private Wall wall(Room room1, Room room2, int x1, int y1, int x2, int y2) {
+        return new Wall(room1, room2, new LineSegment(new Point(x1, y1), new Point(x2, y2)));
+    }
+
+    private Maze roundTrip(Maze maze) throws IOException {
+        Path file = Files.createTempFile("maze", ".maze");
+        try {
+            MazeWriter.write(maze, file);
+            return MazeReader.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private void checkSameMaze(Maze expected, Maze actual) {
+        assertEquals(expected.getRooms().size(), actual.getRooms().size());
+        for (Room room : expected.getRooms()) {
+            Room other = actual.getRoom(room.getCenter());
+            assertEquals(room, other);
+            Polygon polygon = room.getPolygon();
+            assertEquals(polygon.npoints, other.getPolygon().npoints);
+            assertArrayEquals(polygon.xpoints, other.getPolygon().xpoints);
+            assertArrayEquals(polygon.ypoints, other.getPolygon().ypoints);
+        }
+
+        assertEquals(expected.getWalls().size(), actual.getWalls().size());
+        for (Wall wall : expected.getWalls()) {
+            assertTrue(actual.getWalls().contains(wall));
+        }
+        assertEquals(expected.getUntouchableWalls().size(), actual.getUntouchableWalls().size());
+        for (Wall wall : expected.getUntouchableWalls()) {
+            assertTrue(actual.getUntouchableWalls().contains(wall));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoundTripWithUntouchableWalls() throws IOException {
+        Room a = this.room(10, 10);
+        Room b = this.room(20, 10);
+        Room c = this.room(10, 20);
+
+        ISet<Room> rooms = new ChainedHashSet<>();
+        rooms.add(a);
+        rooms.add(b);
+        rooms.add(c);
+        ISet<Wall> walls = new ChainedHashSet<>();
+        walls.add(this.wall(a, b, 15, 5, 15, 15));
+        ISet<Wall> untouchable = new ChainedHashSet<>();
+        untouchable.add(this.wall(a, c, 5, 15, 15, 15));
+
+        Maze maze = new Maze(rooms, walls, untouchable);
+        this.checkSameMaze(maze, this.roundTrip(maze));
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoundTripEmptyMaze() throws IOException {
+        Maze maze = new Maze(new ChainedHashSet<>(), new ChainedHashSet<>(), new ChainedHashSet<>());
+        this.checkSameMaze(maze, this.roundTrip(maze));
+    }
+
+    @Test(timeout=SECOND)
+    public void testRoundTripCarvedGrid() throws IOException {
+        // Large enough that every table spans several buffers
+        Maze base = new GridGenerator(60, 70).generateBaseMaze(new Rectangle(0, 0, 700, 600), 0);
+        Maze maze = new ShuffledKruskalMazeCarver().generateMaze(base, 5);
+        this.checkSameMaze(maze, this.roundTrip(maze));
+    }
+
+    @Test(timeout=SECOND)
+    public void testGridRoundTripStaysGrid() throws IOException {
+        Maze base = new GridGenerator(60, 70).generateBaseMaze(new Rectangle(3, 4, 700, 600), 0);
+        GridMaze maze = (GridMaze) new ShuffledKruskalMazeCarver().generateMaze(base, 5);
+
+        Path file = Files.createTempFile("maze", ".maze");
+        Path full = Files.createTempFile("maze", ".maze");
+        try {
+            MazeWriter.writeGrid(maze, file);
+            MazeWriter.write(maze, full);
+            // Just the header and one bit per wall, against every room and wall in full
+            assertEquals(MazeFileHeader.HEADER_BYTES + 8L * ((maze.numWallIds() + 63) / 64), Files.size(file));
+            assertTrue(Files.size(file) * 100 < Files.size(full));
+
+            Maze loaded = MazeReader.read(file);
+            assertTrue(loaded instanceof GridMaze);
+            GridMaze grid = (GridMaze) loaded;
+            assertEquals(maze.getNumRows(), grid.getNumRows());
+            assertEquals(maze.getNumColumns(), grid.getNumColumns());
+            assertEquals(maze.getBoundingBox(), grid.getBoundingBox());
+            assertEquals(maze.getPresentWalls(), grid.getPresentWalls());
+            this.checkSameMaze(maze, grid);
+        } finally {
+            Files.delete(file);
+            Files.delete(full);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsCorruptGridFile() throws IOException {
+        GridMaze maze = new GridMaze(3, 5, new Rectangle(0, 0, 50, 30));
+        Path file = Files.createTempFile("maze", ".maze");
+        try {
+            MazeWriter.writeGrid(maze, file);
+            byte[] bytes = Files.readAllBytes(file);
+
+            // A flag set for wall id 63, past the last of the 22 walls
+            byte[] extraFlag = bytes.clone();
+            extraFlag[MazeFileHeader.HEADER_BYTES] = (byte) 0x80;
+            // Too few rows, and a flag word missing
+            byte[] noRows = bytes.clone();
+            ByteBuffer.wrap(noRows).putInt(8, 0);
+            byte[] truncated = new byte[bytes.length - 8];
+            System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+            for (byte[] corrupt : new byte[][] {extraFlag, noRows, truncated}) {
+                Files.write(file, corrupt);
+                try {
+                    MazeReader.read(file);
+                    fail("Expected IOException");
+                } catch (IOException ex) {
+                    // All ok -- expected result
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("maze", ".maze");
+        try {
+            Files.write(file, new byte[64]);
+            MazeReader.read(file);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // All ok -- expected result
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsOtherVersions() throws IOException {
+        Path file = Files.createTempFile("maze", ".maze");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(MazeFileHeader.HEADER_BYTES);
+            header.putInt(MazeFileHeader.MAGIC);
+            header.putInt(MazeFileHeader.VERSION + 1);
+            Files.write(file, header.array());
+            MazeReader.read(file);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // All ok -- expected result
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsTruncatedFile() throws IOException {
+        Room a = this.room(10, 10);
+        ISet<Room> rooms = new ChainedHashSet<>();
+        rooms.add(a);
+        Maze maze = new Maze(rooms, new ChainedHashSet<>(), new ChainedHashSet<>());
+
+        Path file = Files.createTempFile("maze", ".maze");
+        try {
+            MazeWriter.write(maze, file);
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] truncated = new byte[bytes.length - 4];
+            System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+            Files.write(file, truncated);
+
+            MazeReader.read(file);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // All ok -- expected result
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
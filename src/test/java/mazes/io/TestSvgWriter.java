@@ -0,0 +1,151 @@
+package mazes.io;
+
+import datastructures.interfaces.IList;
+import mazes.entities.GridMaze;
+import mazes.entities.LineSegment;
+import mazes.entities.Maze;
+import mazes.entities.Wall;
+import mazes.generators.base.VoronoiGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import mazes.solvers.MazeSolver;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TestSvgWriter extends BaseTest {
+    private static final Pattern COMMAND = Pattern.compile("([MLC])((?:\\s*-?\\d+)+)");
+
+    /**
+     * Returns the straight lines in every path's 'd' attribute in the given SVG, as
+     * {x1, y1, x2, y2} arrays; curves are skipped over.
+     */
+    private List<int[]> parseLines(String svg) {
+        List<int[]> lines = new ArrayList<>();
+        Matcher paths = Pattern.compile("<path d=\"([^\"]*)\"").matcher(svg);
+        while (paths.find()) {
+            Matcher command = COMMAND.matcher(paths.group(1));
+            int x = 0;
+            int y = 0;
+            while (command.find()) {
+                String[] numbers = command.group(2).trim().split("\\s+");
+                int newX = Integer.parseInt(numbers[numbers.length - 2]);
+                int newY = Integer.parseInt(numbers[numbers.length - 1]);
+                if (command.group(1).equals("L")) {
+                    lines.add(new int[] {x, y, newX, newY});
+                }
+                x = newX;
+                y = newY;
+            }
+        }
+        return lines;
+    }
+
+    private boolean covers(int[] line, Point point) {
+        long cross = (long) (line[2] - line[0]) * (point.y - line[1]) - (long) (line[3] - line[1]) * (point.x - line[0]);
+        return cross == 0
+                && Math.min(line[0], line[2]) <= point.x && point.x <= Math.max(line[0], line[2])
+                && Math.min(line[1], line[3]) <= point.y && point.y <= Math.max(line[1], line[3]);
+    }
+
+    private void checkEveryWallDrawn(Maze maze, List<int[]> lines) {
+        for (Wall wall : maze.getWalls()) {
+            LineSegment segment = wall.getDividingLine();
+            boolean found = false;
+            for (int[] line : lines) {
+                found |= this.covers(line, segment.start) && this.covers(line, segment.end);
+            }
+            assertTrue(found);
+        }
+    }
+
+    private int count(String text, String part) {
+        return text.split(Pattern.quote(part), -1).length - 1;
+    }
+
+    private void checkWellFormed(String svg) throws Exception {
+        DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testGridLinesMergeIntoOneLineEach() throws Exception {
+        StringWriter out = new StringWriter();
+        GridMaze maze;
+        try (SvgWriter writer = new SvgWriter(out, 410, 310, 5)) {
+            maze = new GridMaze(30, 40, writer.getBoundingBox());
+            writer.drawMaze(maze);
+        }
+        String svg = out.toString();
+        this.checkWellFormed(svg);
+
+        // Every wall is present, so each inner grid line is a single line
+        List<int[]> lines = this.parseLines(svg);
+        assertEquals(29 + 39, lines.size());
+        assertEquals(29 + 39, this.count(svg, "M"));
+        this.checkEveryWallDrawn(maze, lines);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCarvedMazesKeepEveryWall() throws Exception {
+        StringWriter out = new StringWriter();
+        Maze grid;
+        Maze voronoi;
+        try (SvgWriter writer = new SvgWriter(out, 800, 600, 5)) {
+            GridMaze base = new GridMaze(40, 40, writer.getBoundingBox());
+            grid = new ShuffledKruskalMazeCarver().generateMaze(base, 1);
+            writer.drawMaze(grid);
+            voronoi = new VoronoiGenerator(300, 10, 10, 5).generateBaseMaze(writer.getBoundingBox(), 2);
+            writer.drawMaze(voronoi);
+        }
+        String svg = out.toString();
+        this.checkWellFormed(svg);
+
+        List<int[]> lines = this.parseLines(svg);
+        this.checkEveryWallDrawn(grid, lines);
+        this.checkEveryWallDrawn(voronoi, lines);
+        assertTrue(lines.size() < grid.getWalls().size() + voronoi.getWalls().size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testLongOutputSplitIntoElements() throws Exception {
+        StringWriter out = new StringWriter();
+        try (SvgWriter writer = new SvgWriter(out, 1210, 1210, 5)) {
+            writer.drawMaze(new GridMaze(600, 600, writer.getBoundingBox()));
+        }
+        String svg = out.toString();
+        this.checkWellFormed(svg);
+        assertEquals(2 * 599, this.parseLines(svg).size());
+        assertEquals((2 * 599 + SvgWriter.MAX_POLYLINES_PER_ELEMENT - 1) / SvgWriter.MAX_POLYLINES_PER_ELEMENT,
+                this.count(svg, "<path"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testPathThroughGridIsStraight() throws Exception {
+        StringWriter out = new StringWriter();
+        IList<Wall> path;
+        try (SvgWriter writer = new SvgWriter(out, 210, 210, 5)) {
+            GridMaze base = new GridMaze(10, 10, writer.getBoundingBox());
+            Maze maze = new ShuffledKruskalMazeCarver().generateMaze(base, 3);
+            path = MazeSolver.findShortestPathBetween(base, maze, base.getRoom(0, 0), base.getRoom(9, 9));
+            writer.drawPath(path);
+        }
+        String svg = out.toString();
+        this.checkWellFormed(svg);
+
+        // One unbroken polyline, with each room on it drawn once
+        assertFalse(svg.contains(" C"));
+        assertEquals(1, this.count(svg, "M"));
+        assertEquals(path.size() + 1, this.count(svg, "<circle"));
+    }
+}
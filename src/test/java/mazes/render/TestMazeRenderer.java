@@ -0,0 +1,66 @@
+package mazes.render;
+
+import mazes.generators.base.GridGenerator;
+import mazes.generators.maze.ShuffledKruskalMazeCarver;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class TestMazeRenderer extends BaseTest {
+    private MazeRenderer makeRenderer() {
+        return new MazeRenderer(new GridGenerator(10, 10), new ShuffledKruskalMazeCarver(), 200, 150, true);
+    }
+
+    private int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test(timeout=SECOND)
+    public void testSameSeedSameImage() {
+        MazeRenderer renderer = this.makeRenderer();
+        BufferedImage image = renderer.render(3);
+        assertEquals(200, image.getWidth());
+        assertEquals(150, image.getHeight());
+        assertArrayEquals(this.pixels(image), this.pixels(renderer.render(3)));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRenderAllWritesEveryImage() throws IOException {
+        Path directory = Files.createTempDirectory("mazes");
+        MazeRenderer renderer = this.makeRenderer();
+        assertTrue(renderer.renderAll(10, 6, directory, 3) > 0);
+
+        for (long seed = 10; seed < 16; seed++) {
+            Path file = directory.resolve("maze-" + seed + ".png");
+            // Each worker reuses its image, so check it wasn't overwritten by a later maze
+            assertArrayEquals(this.pixels(renderer.render(seed)), this.pixels(ImageIO.read(file.toFile())));
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsBadArguments() throws IOException {
+        try {
+            new MazeRenderer(new GridGenerator(2, 2), new ShuffledKruskalMazeCarver(), 0, 10, false);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+        try {
+            this.makeRenderer().renderAll(0, 1, Paths.get("unused"), 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package mazes.render;
+
+import mazes.entities.Maze;
+import mazes.generators.base.GridGenerator;
+import mazes.generators.base.VoronoiGenerator;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class TestMazeView extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testIndexFindsEachIntersectingWallOnce() {
+        Maze maze = new VoronoiGenerator(500, 10, 10, 5).generateBaseMaze(new Rectangle(0, 0, 800, 600), 4);
+        WallIndex index = new WallIndex(maze);
+        assertEquals(maze.getWalls().size() + maze.getUntouchableWalls().size(), index.numSegments());
+
+        Random rand = new Random(9);
+        for (int trial = 0; trial < 50; trial++) {
+            Rectangle region = new Rectangle(rand.nextInt(900) - 50, rand.nextInt(700) - 50,
+                    rand.nextInt(300), rand.nextInt(300));
+            int[] visits = new int[index.numSegments()];
+            index.forEachIntersecting(region, segment -> visits[segment]++);
+
+            for (int segment = 0; segment < index.numSegments(); segment++) {
+                Rectangle box = new Rectangle(
+                        Math.min(index.getX1(segment), index.getX2(segment)),
+                        Math.min(index.getY1(segment), index.getY2(segment)),
+                        Math.abs(index.getX1(segment) - index.getX2(segment)),
+                        Math.abs(index.getY1(segment) - index.getY2(segment)));
+                boolean intersects = box.x <= region.getMaxX() && box.getMaxX() >= region.x
+                        && box.y <= region.getMaxY() && box.getMaxY() >= region.y;
+                assertEquals(intersects ? 1 : 0, visits[segment]);
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testZoomKeepsAnchorInPlace() {
+        Viewport viewport = new Viewport(new Rectangle(0, 0, 800, 600), 400, 300);
+        assertEquals(0.5, viewport.getScale(), 1e-9);
+        assertEquals(new Rectangle(0, 0, 800, 600), viewport.getVisibleRegion());
+
+        Point anchor = new Point(100, 50);
+        Point2D before = viewport.toWorld(anchor);
+        viewport.zoom(4, anchor);
+        assertEquals(4.0, viewport.getZoom(), 1e-9);
+        assertEquals(before.getX(), viewport.toWorld(anchor).getX(), 1e-9);
+        assertEquals(before.getY(), viewport.toWorld(anchor).getY(), 1e-9);
+
+        // Can't zoom out past the whole world, or in past the limit
+        viewport.zoom(0.01, anchor);
+        assertEquals(1.0, viewport.getZoom(), 1e-9);
+        viewport.zoom(1000, anchor);
+        assertEquals(Viewport.MAX_ZOOM, viewport.getZoom(), 1e-9);
+    }
+
+    @Test(timeout=SECOND)
+    public void testPanStaysOverWorld() {
+        Viewport viewport = new Viewport(new Rectangle(0, 0, 800, 600), 800, 600);
+        viewport.zoom(2, new Point(400, 300));
+        viewport.pan(-100, 0);
+        assertEquals(new Rectangle(250, 150, 400, 300), viewport.getVisibleRegion());
+
+        viewport.pan(100000, 100000);
+        Point2D center = viewport.toWorld(new Point(400, 300));
+        assertEquals(0.0, center.getX(), 1e-9);
+        assertEquals(0.0, center.getY(), 1e-9);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRasterOnlyWhenZoomedFarOut() {
+        // About 250,000 rooms in a world far larger than the screen
+        Rectangle world = new Rectangle(0, 0, 20000, 20000);
+        MazeView view = new MazeView(new GridGenerator(500, 500).generateBaseMaze(world, 0), world);
+        Viewport viewport = new Viewport(world, 800, 600);
+        assertTrue(view.drawsRaster(viewport));
+
+        viewport.zoom(Viewport.MAX_ZOOM, new Point(400, 300));
+        assertFalse(view.drawsRaster(viewport));
+
+        // Either way, the walls show up in the middle of the screen
+        for (int zoom = 0; zoom < 2; zoom++) {
+            BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 800, 600);
+            view.draw(g, viewport);
+            int inked = 0;
+            for (int y = 250; y < 350; y++) {
+                for (int x = 350; x < 450; x++) {
+                    inked += (image.getRGB(x, y) & 0xFFFFFF) != 0xFFFFFF ? 1 : 0;
+                }
+            }
+            assertTrue(inked > 0);
+            viewport.fit();
+        }
+    }
+}
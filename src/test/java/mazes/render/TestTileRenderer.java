@@ -0,0 +1,112 @@
+package mazes.render;
+
+import mazes.entities.Maze;
+import mazes.generators.base.GridGenerator;
+import misc.BaseTest;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class TestTileRenderer extends BaseTest {
+    private static final Rectangle WORLD = new Rectangle(0, 0, 1024, 768);
+
+    private TileRenderer makeRenderer(int capacity) {
+        Maze maze = new GridGenerator(32, 32).generateBaseMaze(WORLD, 0);
+        return new TileRenderer(new MazeView(maze, WORLD), WORLD, 3, capacity);
+    }
+
+    private int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test(timeout=SECOND)
+    public void testTilesCoverSquareWorld() {
+        TileRenderer renderer = this.makeRenderer(10);
+        assertEquals(new Rectangle(0, 0, 1024, 1024), renderer.getTileBounds(0, 0, 0));
+        assertEquals(new Rectangle(384, 896, 128, 128), renderer.getTileBounds(3, 3, 7));
+    }
+
+    @Test(timeout=SECOND)
+    public void testOnlyRequestedTilesAreRendered() {
+        TileRenderer renderer = this.makeRenderer(10);
+        BufferedImage tile = renderer.getTile(2, 1, 3);
+        assertEquals(TileRenderer.TILE_SIZE, tile.getWidth());
+        assertSame(tile, renderer.getTile(2, 1, 3));
+        assertEquals(1L, renderer.getRenders());
+        assertEquals(1L, renderer.getHits());
+        assertEquals(0L, renderer.getDownsamples());
+
+        // Its parent isn't made from it alone
+        renderer.getTile(1, 0, 1);
+        assertEquals(2L, renderer.getRenders());
+        assertArrayEquals(this.pixels(tile), this.pixels(renderer.renderTile(2, 1, 3)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testLeastRecentlyUsedIsEvicted() {
+        TileRenderer renderer = this.makeRenderer(2);
+        BufferedImage a = renderer.getTile(3, 0, 0);
+        renderer.getTile(3, 1, 0);
+        renderer.getTile(3, 0, 0);
+        renderer.getTile(3, 2, 0);
+        assertEquals(1L, renderer.getEvictions());
+
+        assertSame(a, renderer.getTile(3, 0, 0));
+        assertEquals(3L, renderer.getRenders());
+        renderer.getTile(3, 1, 0);
+        assertEquals(4L, renderer.getRenders());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testPrecomputeDownsamplesLowerLevels() {
+        TileRenderer renderer = this.makeRenderer(100);
+        renderer.precompute(2, 3);
+        assertEquals(16L, renderer.getRenders());
+        assertEquals(5L, renderer.getDownsamples());
+
+        // Every pixel is the average of the four it covers
+        BufferedImage parent = renderer.getTile(1, 1, 0);
+        BufferedImage child = renderer.getTile(2, 3, 1);
+        for (int y = 0; y < TileRenderer.TILE_SIZE / 2; y++) {
+            for (int x = 0; x < TileRenderer.TILE_SIZE / 2; x++) {
+                int sum = 0;
+                for (int i = 0; i < 4; i++) {
+                    sum += child.getRGB(2 * x + i % 2, 2 * y + i / 2) & 0xFF;
+                }
+                int actual = parent.getRGB(TileRenderer.TILE_SIZE / 2 + x, TileRenderer.TILE_SIZE / 2 + y) & 0xFF;
+                assertTrue(Math.abs(sum / 4.0 - actual) <= 2);
+            }
+        }
+        assertEquals(16L, renderer.getRenders());
+        assertNotSame(parent, renderer.renderTile(1, 1, 0));
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsBadArguments() {
+        TileRenderer renderer = this.makeRenderer(10);
+        try {
+            renderer.getTile(4, 0, 0);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // All ok -- expected result
+        }
+        try {
+            renderer.getTile(1, 2, 0);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // All ok -- expected result
+        }
+        try {
+            new TileRenderer(null, new Rectangle(0, 0, 100, 100), 7, 10);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // All ok -- expected result
+        }
+    }
+}